@@ -0,0 +1,148 @@
+package com.example.brewery_api.benchmark;
+
+import com.example.brewery_api.BreweryApiApplication;
+import com.example.brewery_api.service.BeerService;
+import com.example.brewery_api.service.BreweryService;
+import com.example.brewery_api.service.ReviewService;
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.openjdk.jmh.annotations.AuxCounters;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Threads;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.boot.SpringApplication;
+import org.springframework.boot.WebApplicationType;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.graphql.ExecutionGraphQlResponse;
+import org.springframework.graphql.ExecutionGraphQlService;
+import org.springframework.graphql.support.DefaultExecutionGraphQlRequest;
+
+import java.util.Collections;
+import java.util.Locale;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Queries whose paths reach the same loaders at different depths, dispatched per level by
+ * graphql-java or once the whole tree is stalled.
+ * <p>
+ * Besides the time per query, the {@code batches} secondary result is the number of batch loader
+ * calls; divide it by {@code queries} for batches per query.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Threads(1)
+@Fork(1)
+public class DispatchBenchmark {
+
+    // a shallow path and a deep path ending in the same loader
+    static final String SHALLOW_AND_DEEP =
+            "{ review(id: \"3\") { beer { name } } breweries { beers { reviews { beer { name } } } } }";
+    // a shallow and a deep path through beerLoader and then breweryLoader
+    static final String SHALLOW_AND_DEEP_CHAINS =
+            "{ review(id: \"3\") { beer { name brewery { name } } } "
+                    + "breweries { beers { reviews { beer { averageRating brewery { name } } } } } }";
+    // every level depends on the one above, so both strategies need one batch per level
+    static final String CHAIN = "{ breweries { beers { reviews { beer { brewery { name } } } } } }";
+
+    @Param({"level", "tree"})
+    public String dispatch;
+
+    @Param({"20"})
+    public int breweries;
+
+    @Param({"10"})
+    public int beersPerBrewery;
+
+    @Param({"5"})
+    public int reviewsPerBeer;
+
+    private ConfigurableApplicationContext context;
+    private ExecutionGraphQlService graphQlService;
+    private MeterRegistry meterRegistry;
+
+    @State(Scope.Thread)
+    @AuxCounters(AuxCounters.Type.EVENTS)
+    public static class Dispatches {
+        public long batches;
+        public long queries;
+
+        @Setup(Level.Iteration)
+        public void reset() {
+            batches = 0;
+            queries = 0;
+        }
+    }
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        SpringApplication application = new SpringApplication(BreweryApiApplication.class);
+        application.setWebApplicationType(WebApplicationType.NONE);
+        // command-line arguments take precedence over application.properties
+        context = application.run(
+                "--app.dataloader.dispatch=" + dispatch,
+                "--app.data.load-on-startup=false",
+                "--debug=false",
+                "--logging.level.root=WARN",
+                "--app.query.cost.mode=log");
+        SyntheticDataset.populate(context.getBean(BreweryService.class), context.getBean(BeerService.class),
+                context.getBean(ReviewService.class), breweries, beersPerBrewery, reviewsPerBeer);
+        graphQlService = context.getBean(ExecutionGraphQlService.class);
+        meterRegistry = context.getBean(MeterRegistry.class);
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        context.close();
+    }
+
+    @Benchmark
+    public Map<String, Object> shallowAndDeep(Dispatches dispatches) {
+        return execute(SHALLOW_AND_DEEP, dispatches);
+    }
+
+    @Benchmark
+    public Map<String, Object> shallowAndDeepChains(Dispatches dispatches) {
+        return execute(SHALLOW_AND_DEEP_CHAINS, dispatches);
+    }
+
+    @Benchmark
+    public Map<String, Object> chain(Dispatches dispatches) {
+        return execute(CHAIN, dispatches);
+    }
+
+    private Map<String, Object> execute(String document, Dispatches dispatches) {
+        long before = batchCount();
+        DefaultExecutionGraphQlRequest request = new DefaultExecutionGraphQlRequest(
+                document, null, Collections.emptyMap(), Collections.emptyMap(), "bench", Locale.ROOT);
+        ExecutionGraphQlResponse response = graphQlService.execute(request).block();
+        if (response == null || !response.getErrors().isEmpty()) {
+            throw new IllegalStateException("Query failed: " + (response != null ? response.getErrors() : "no response"));
+        }
+        dispatches.batches += batchCount() - before;
+        dispatches.queries++;
+        return response.toMap();
+    }
+
+    private long batchCount() {
+        long count = 0;
+        for (DistributionSummary summary : meterRegistry.find("graphql.dataloader.batch.size").summaries()) {
+            count += summary.count();
+        }
+        return count;
+    }
+}
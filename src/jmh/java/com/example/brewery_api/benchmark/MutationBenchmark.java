@@ -0,0 +1,97 @@
+package com.example.brewery_api.benchmark;
+
+import com.example.brewery_api.BreweryApiApplication;
+import com.example.brewery_api.model.Review;
+import com.example.brewery_api.service.BeerService;
+import com.example.brewery_api.service.BreweryService;
+import com.example.brewery_api.service.MutationService;
+import com.example.brewery_api.service.ReviewService;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Threads;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.boot.SpringApplication;
+import org.springframework.boot.WebApplicationType;
+import org.springframework.context.ConfigurableApplicationContext;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Concurrent review submissions through the write-ahead log. {@code maxBatch=1} forces one fsync
+ * per write; the default lets writers queued behind an fsync share the next one.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 2, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Threads(32)
+@Fork(1)
+public class MutationBenchmark {
+
+    @Param({"1", "1024"})
+    public int maxBatch;
+
+    @Param({"true"})
+    public boolean fsync;
+
+    private Path directory;
+    private ConfigurableApplicationContext context;
+    private MutationService mutationService;
+    private int beers;
+
+    @Setup(Level.Trial)
+    public void setUp() throws IOException {
+        directory = Files.createTempDirectory("wal-bench");
+        SpringApplication application = new SpringApplication(BreweryApiApplication.class);
+        application.setWebApplicationType(WebApplicationType.NONE);
+        context = application.run(
+                "--app.data.load-on-startup=false",
+                "--app.wal.path=" + directory.resolve("brewery.wal"),
+                "--app.snapshot.path=" + directory.resolve("brewery.snapshot"),
+                "--app.wal.fsync=" + fsync,
+                "--app.wal.max-batch=" + maxBatch,
+                "--debug=false",
+                "--logging.level.root=WARN");
+        SyntheticDataset.populate(context.getBean(BreweryService.class), context.getBean(BeerService.class),
+                context.getBean(ReviewService.class), 20, 10, 0);
+        beers = context.getBean(BeerService.class).getBeerCount();
+        mutationService = context.getBean(MutationService.class);
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() throws IOException {
+        context.close();
+        try (var files = Files.list(directory)) {
+            for (Path file : files.toList()) {
+                Files.delete(file);
+            }
+        }
+        Files.delete(directory);
+    }
+
+    @Benchmark
+    public Review addReview() {
+        ThreadLocalRandom random = ThreadLocalRandom.current();
+        Review review = new Review();
+        review.setBeerId(Integer.toString(random.nextInt(beers) + 1));
+        review.setRating(random.nextInt(5) + 1);
+        review.setAuthor("bench");
+        review.setDate("2024-06-01");
+        return mutationService.addReview(review).join();
+    }
+}
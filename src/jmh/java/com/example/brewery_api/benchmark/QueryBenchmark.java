@@ -0,0 +1,123 @@
+package com.example.brewery_api.benchmark;
+
+import com.example.brewery_api.BreweryApiApplication;
+import com.example.brewery_api.service.BeerService;
+import com.example.brewery_api.service.BreweryService;
+import com.example.brewery_api.service.ReviewService;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.boot.SpringApplication;
+import org.springframework.boot.WebApplicationType;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.graphql.ExecutionGraphQlResponse;
+import org.springframework.graphql.ExecutionGraphQlService;
+import org.springframework.graphql.support.DefaultExecutionGraphQlRequest;
+
+import java.util.Collections;
+import java.util.Locale;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Nested queries against a synthetic catalog, with and without DataLoaders.
+ * <p>
+ * {@code Mode.SampleTime} reports latency percentiles and {@code Mode.Throughput} ops/s; run with
+ * {@code -prof gc} (the profile default) for {@code gc.alloc.rate.norm}, bytes allocated per query.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode({Mode.Throughput, Mode.SampleTime})
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class QueryBenchmark {
+
+    static final String BREWERIES_BEERS_REVIEWS =
+            "{ breweries { id name beers { id name reviews { id rating } } } }";
+    static final String REVIEWS_BEER_BREWERY =
+            "{ reviews { id rating beer { id name brewery { id name } } } }";
+    static final String FULL_CYCLE =
+            "{ breweries { id beers { id reviews { id beer { id brewery { id name } } } } } }";
+
+    static final String NESTED_CONNECTIONS =
+            "{ breweriesConnection(first: 10) { edges { node { id beersConnection(first: 5) { totalCount "
+                    + "edges { node { id reviewsConnection(first: 5) { edges { node { id rating } } } } } } } } } }";
+
+    @Param({"true", "false"})
+    public boolean useDataLoaders;
+
+    @Param({"20"})
+    public int breweries;
+
+    @Param({"10"})
+    public int beersPerBrewery;
+
+    @Param({"10"})
+    public int reviewsPerBeer;
+
+    private ConfigurableApplicationContext context;
+    private ExecutionGraphQlService graphQlService;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        SpringApplication application = new SpringApplication(BreweryApiApplication.class);
+        application.setWebApplicationType(WebApplicationType.NONE);
+        // command-line arguments take precedence over application.properties
+        context = application.run(
+                "--app.use.dataloaders=" + useDataLoaders,
+                "--app.data.load-on-startup=false",
+                "--debug=false",
+                "--logging.level.root=WARN",
+                // large synthetic catalogs would exceed the default cost budget
+                "--app.query.cost.mode=log");
+        SyntheticDataset.populate(context.getBean(BreweryService.class), context.getBean(BeerService.class),
+                context.getBean(ReviewService.class), breweries, beersPerBrewery, reviewsPerBeer);
+        graphQlService = context.getBean(ExecutionGraphQlService.class);
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        context.close();
+    }
+
+    @Benchmark
+    public Map<String, Object> breweriesBeersReviews() {
+        return execute(BREWERIES_BEERS_REVIEWS);
+    }
+
+    @Benchmark
+    public Map<String, Object> reviewsBeerBrewery() {
+        return execute(REVIEWS_BEER_BREWERY);
+    }
+
+    @Benchmark
+    public Map<String, Object> fullCycle() {
+        return execute(FULL_CYCLE);
+    }
+
+    @Benchmark
+    public Map<String, Object> nestedConnections() {
+        return execute(NESTED_CONNECTIONS);
+    }
+
+    Map<String, Object> execute(String document) {
+        DefaultExecutionGraphQlRequest request = new DefaultExecutionGraphQlRequest(
+                document, null, Collections.emptyMap(), Collections.emptyMap(), "bench", Locale.ROOT);
+        ExecutionGraphQlResponse response = graphQlService.execute(request).block();
+        if (response == null || !response.getErrors().isEmpty()) {
+            throw new IllegalStateException("Query failed: " + (response != null ? response.getErrors() : "no response"));
+        }
+        return response.toMap();
+    }
+}
@@ -0,0 +1,65 @@
+package com.example.brewery_api.benchmark;
+
+import com.example.brewery_api.model.Review;
+import com.example.brewery_api.search.SearchService;
+import com.example.brewery_api.service.BeerService;
+import com.example.brewery_api.service.BreweryService;
+import com.example.brewery_api.service.ReviewService;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Review search latency over the synthetic catalog. {@code selective} pairs a word every review
+ * contains with a rare one, {@code phrase} matches the reviews of one beer, and {@code broad}
+ * matches every review, the worst case.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class SearchBenchmark {
+
+    @Param({"100000"})
+    public int reviews;
+
+    private SearchService searchService;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        BreweryService breweryService = new BreweryService();
+        BeerService beerService = new BeerService();
+        ReviewService reviewService = new ReviewService();
+        searchService = new SearchService(beerService, reviewService);
+        SyntheticDataset.populate(breweryService, beerService, reviewService, reviews / 100, 10, 10);
+    }
+
+    @Benchmark
+    public List<Review> selective() {
+        return searchService.searchReviews("review 4242", 20);
+    }
+
+    @Benchmark
+    public List<Review> phrase() {
+        return searchService.searchReviews("\"of beer 4242\"", 20);
+    }
+
+    @Benchmark
+    public List<Review> broad() {
+        return searchService.searchReviews("synthetic review", 20);
+    }
+}
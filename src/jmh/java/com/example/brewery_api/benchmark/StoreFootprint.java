@@ -0,0 +1,120 @@
+package com.example.brewery_api.benchmark;
+
+import com.example.brewery_api.model.Beer;
+import com.example.brewery_api.model.Brewery;
+import com.example.brewery_api.model.Review;
+import com.example.brewery_api.service.BeerService;
+import com.example.brewery_api.service.BreweryService;
+import com.example.brewery_api.service.ReviewService;
+import com.example.brewery_api.store.StoreLayout;
+
+import java.lang.management.ManagementFactory;
+import java.lang.management.MemoryMXBean;
+import java.lang.ref.Reference;
+import java.time.LocalDate;
+import java.util.List;
+import java.util.SplittableRandom;
+import java.util.function.Consumer;
+import java.util.function.IntFunction;
+import java.util.function.Supplier;
+
+/**
+ * Retained heap per row of each service, including its indexes, for both {@link StoreLayout}s.
+ * <p>
+ * Not a JMH benchmark: it fills one service at a time and compares heap usage after full GCs.
+ * Run with a fixed heap so the collector does not resize it between samples:
+ * <pre>
+ * ./mvnw -Pbenchmark test-compile exec:exec -Dbenchmark.main=com.example.brewery_api.benchmark.StoreFootprint \
+ *     -Djmh.args=1000000 -Dbenchmark.jvm.args="-Xms4g -Xmx4g"
+ * </pre>
+ */
+public final class StoreFootprint {
+    private static final String[] STYLES = {"Lager", "IPA", "Porter", "Stout", "Pilsner", "Wheat", "Sour"};
+    private static final String[] CITIES = {"Львів", "Київ", "Одеса", "Тернопіль", "Харків"};
+    private static final LocalDate EPOCH = LocalDate.of(2020, 1, 1);
+
+    private StoreFootprint() {
+    }
+
+    public static void main(String[] args) {
+        int rows = args.length > 0 ? Integer.parseInt(args[0]) : 1_000_000;
+        System.out.printf("%-10s %-8s %12s%n", "entity", "layout", "bytes/row");
+        for (StoreLayout layout : StoreLayout.values()) {
+            report("Review", layout, rows, () -> {
+                ReviewService service = new ReviewService(layout);
+                fill(rows, StoreFootprint::review, service::addReview);
+                return service;
+            });
+            report("Beer", layout, rows, () -> {
+                BeerService service = new BeerService(layout);
+                fill(rows, StoreFootprint::beer, service::addBeer);
+                return service;
+            });
+            report("Brewery", layout, rows, () -> {
+                BreweryService service = new BreweryService(layout);
+                fill(rows, StoreFootprint::brewery, service::addBrewery);
+                return service;
+            });
+        }
+    }
+
+    private static void report(String entity, StoreLayout layout, int rows, Supplier<Object> build) {
+        long before = usedAfterGc();
+        Object service = build.get();
+        long after = usedAfterGc();
+        System.out.printf("%-10s %-8s %12.1f%n", entity, layout, (after - before) / (double) rows);
+        Reference.reachabilityFence(service);
+    }
+
+    private static <T> void fill(int rows, IntFunction<T> factory, Consumer<T> add) {
+        for (int i = 1; i <= rows; i++) {
+            add.accept(factory.apply(i));
+        }
+    }
+
+    private static Review review(int id) {
+        SplittableRandom random = new SplittableRandom(id);
+        Review review = new Review();
+        review.setId(Integer.toString(id));
+        review.setRating(1 + random.nextInt(5));
+        review.setComment("Synthetic review " + id);
+        review.setAuthor("user_" + random.nextInt(1000));
+        review.setDate(EPOCH.plusDays(random.nextInt(1500)).toString());
+        review.setBeerId(Integer.toString(1 + id / 10));
+        return review;
+    }
+
+    private static Beer beer(int id) {
+        SplittableRandom random = new SplittableRandom(id);
+        Beer beer = new Beer();
+        beer.setId(Integer.toString(id));
+        beer.setName("Beer " + id);
+        beer.setStyle(STYLES[random.nextInt(STYLES.length)]);
+        beer.setAbv(3.5f + random.nextInt(80) / 10f);
+        beer.setIbu(10 + random.nextInt(90));
+        beer.setDescription("Synthetic beer number " + id);
+        beer.setBreweryId(Integer.toString(1 + id / 10));
+        beer.setReviewIds(List.of(Integer.toString(id * 10), Integer.toString(id * 10 + 1)));
+        return beer;
+    }
+
+    private static Brewery brewery(int id) {
+        SplittableRandom random = new SplittableRandom(id);
+        Brewery brewery = new Brewery();
+        brewery.setId(Integer.toString(id));
+        brewery.setName("Brewery " + id);
+        brewery.setLocation(CITIES[random.nextInt(CITIES.length)] + ", Україна");
+        brewery.setEstablished(1700 + random.nextInt(320));
+        brewery.setDescription("Synthetic brewery number " + id);
+        brewery.setBeerIds(List.of(Integer.toString(id * 10), Integer.toString(id * 10 + 1)));
+        return brewery;
+    }
+
+    private static long usedAfterGc() {
+        MemoryMXBean memory = ManagementFactory.getMemoryMXBean();
+        for (int i = 0; i < 4; i++) {
+            System.gc();
+        }
+        return memory.getHeapMemoryUsage().getUsed();
+    }
+}
@@ -0,0 +1,63 @@
+package com.example.brewery_api.benchmark;
+
+import com.example.brewery_api.model.Beer;
+import com.example.brewery_api.model.Brewery;
+import com.example.brewery_api.model.Review;
+import com.example.brewery_api.service.BeerService;
+import com.example.brewery_api.service.BreweryService;
+import com.example.brewery_api.service.ReviewService;
+
+import java.time.LocalDate;
+import java.util.SplittableRandom;
+
+/**
+ * Deterministic synthetic catalog: {@code breweries} breweries, each with {@code beersPerBrewery}
+ * beers, each with {@code reviewsPerBeer} reviews.
+ */
+final class SyntheticDataset {
+    private static final String[] STYLES = {"Lager", "IPA", "Porter", "Stout", "Pilsner", "Wheat", "Sour"};
+    private static final String[] CITIES = {"Львів", "Київ", "Одеса", "Тернопіль", "Харків"};
+
+    private SyntheticDataset() {
+    }
+
+    static void populate(BreweryService breweryService, BeerService beerService, ReviewService reviewService,
+                         int breweries, int beersPerBrewery, int reviewsPerBeer) {
+        SplittableRandom random = new SplittableRandom(42);
+        LocalDate epoch = LocalDate.of(2020, 1, 1);
+        int beerId = 0;
+        int reviewId = 0;
+        for (int b = 1; b <= breweries; b++) {
+            Brewery brewery = new Brewery();
+            brewery.setId(Integer.toString(b));
+            brewery.setName("Brewery " + b);
+            brewery.setLocation(CITIES[b % CITIES.length] + ", Україна");
+            brewery.setEstablished(1700 + random.nextInt(320));
+            brewery.setDescription("Synthetic brewery number " + b);
+            breweryService.addBrewery(brewery);
+
+            for (int i = 0; i < beersPerBrewery; i++) {
+                Beer beer = new Beer();
+                beer.setId(Integer.toString(++beerId));
+                beer.setName("Beer " + beerId);
+                beer.setStyle(STYLES[random.nextInt(STYLES.length)]);
+                beer.setAbv(3.5f + random.nextInt(80) / 10f);
+                beer.setIbu(10 + random.nextInt(90));
+                beer.setDescription("Synthetic beer number " + beerId);
+                beer.setBreweryId(brewery.getId());
+                beerService.addBeer(beer);
+
+                for (int r = 0; r < reviewsPerBeer; r++) {
+                    Review review = new Review();
+                    review.setId(Integer.toString(++reviewId));
+                    review.setRating(1 + random.nextInt(5));
+                    review.setComment("Synthetic review " + reviewId + " of beer " + beerId);
+                    review.setAuthor("user_" + random.nextInt(1000));
+                    review.setDate(epoch.plusDays(random.nextInt(1500)).toString());
+                    review.setBeerId(beer.getId());
+                    reviewService.addReview(review);
+                }
+            }
+        }
+    }
+}
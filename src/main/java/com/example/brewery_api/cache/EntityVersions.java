@@ -0,0 +1,50 @@
+package com.example.brewery_api.cache;
+
+import com.example.brewery_api.service.BeerService;
+import com.example.brewery_api.service.BreweryService;
+import com.example.brewery_api.service.ReviewService;
+
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Version counter per GraphQL entity type, bumped from the services' write paths. A cached response
+ * records the versions of the types it was built from and is stale once any of them moves on.
+ */
+public class EntityVersions {
+    private final Map<String, AtomicLong> versions = new ConcurrentHashMap<>();
+
+    public EntityVersions(BreweryService breweryService, BeerService beerService, ReviewService reviewService) {
+        breweryService.addChangeListener((previous, current) -> bump("Brewery"));
+        beerService.addChangeListener((previous, current) -> bump("Beer"));
+        reviewService.addChangeListener((previous, current) -> bump("Review"));
+    }
+
+    public Map<String, Long> snapshot(Set<String> typeNames) {
+        Map<String, Long> snapshot = new HashMap<>(typeNames.size() * 2);
+        for (String typeName : typeNames) {
+            snapshot.put(typeName, counter(typeName).get());
+        }
+        return snapshot;
+    }
+
+    public boolean isCurrent(Map<String, Long> snapshot) {
+        for (Map.Entry<String, Long> entry : snapshot.entrySet()) {
+            if (counter(entry.getKey()).get() != entry.getValue()) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    private void bump(String typeName) {
+        counter(typeName).incrementAndGet();
+    }
+
+    private AtomicLong counter(String typeName) {
+        return versions.computeIfAbsent(typeName, key -> new AtomicLong());
+    }
+}
@@ -0,0 +1,140 @@
+package com.example.brewery_api.cache;
+
+import com.github.benmanes.caffeine.cache.CacheLoader;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.github.benmanes.caffeine.cache.LoadingCache;
+import com.github.benmanes.caffeine.cache.Weigher;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
+
+import java.time.Duration;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.LinkedHashSet;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.Executor;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.function.Function;
+
+/**
+ * Cross-request cache for one batch loader, keyed by the loader's key.
+ * <p>
+ * Misses are resolved with a single call to the loader's bulk function, so a partially cached
+ * batch still costs one backend call. When the cache is disabled the bulk function is called
+ * directly and nothing is retained.
+ * <p>
+ * Every invalidation bumps a generation counter for its key's stripe. A loaded value is cached only
+ * if its stripe's generation did not move while it was loading, so a write that lands during a
+ * bulk load is not overwritten by the value read before it.
+ */
+public class L2Cache<V> {
+    private static final int GENERATION_STRIPES = 64;
+
+    private final String name;
+    private final Function<Set<String>, Map<String, V>> bulkLoader;
+    private final LoadingCache<String, V> cache;
+    private final AtomicLongArray generations = new AtomicLongArray(GENERATION_STRIPES);
+
+    private L2Cache(String name, Function<Set<String>, Map<String, V>> bulkLoader, LoadingCache<String, V> cache) {
+        this.name = name;
+        this.bulkLoader = bulkLoader;
+        this.cache = cache;
+    }
+
+    public static <V> L2Cache<V> disabled(String name, Function<Set<String>, Map<String, V>> bulkLoader) {
+        return new L2Cache<>(name, bulkLoader, null);
+    }
+
+    public static <V> L2Cache<V> create(String name, L2CacheSettings settings, Weigher<String, V> weigher,
+                                        Executor refreshExecutor, MeterRegistry meterRegistry,
+                                        Function<Set<String>, Map<String, V>> bulkLoader) {
+        Caffeine<String, V> builder = Caffeine.newBuilder()
+                .maximumWeight(settings.maxWeight())
+                .weigher(weigher)
+                .executor(refreshExecutor)
+                .recordStats();
+        if (!settings.expireAfterWrite().isZero()) {
+            builder.expireAfterWrite(settings.expireAfterWrite());
+        }
+        if (!settings.refreshAfterWrite().isZero()) {
+            builder.refreshAfterWrite(settings.refreshAfterWrite());
+        }
+        // only refreshes load through Caffeine; it drops a reload that races with an invalidation
+        LoadingCache<String, V> cache = builder.build(new CacheLoader<>() {
+            @Override
+            public V load(String key) {
+                return bulkLoader.apply(Set.of(key)).get(key);
+            }
+        });
+        CaffeineCacheMetrics.monitor(meterRegistry, cache, "l2." + name);
+        return new L2Cache<>(name, bulkLoader, cache);
+    }
+
+    public String getName() {
+        return name;
+    }
+
+    public boolean isEnabled() {
+        return cache != null;
+    }
+
+    /**
+     * Returns the values for the given keys; keys the loader has no value for are absent.
+     */
+    public Map<String, V> getAll(Collection<String> keys) {
+        if (cache == null) {
+            return bulkLoader.apply(keys instanceof Set<String> set ? set : Set.copyOf(keys));
+        }
+        Map<String, V> result = new HashMap<>(cache.getAllPresent(keys));
+        Set<String> missing = new LinkedHashSet<>();
+        for (String key : keys) {
+            if (!result.containsKey(key)) {
+                missing.add(key);
+            }
+        }
+        if (missing.isEmpty()) {
+            return result;
+        }
+        Map<String, Long> started = new HashMap<>(missing.size() * 2);
+        for (String key : missing) {
+            started.put(key, generations.get(stripe(key)));
+        }
+        Map<String, V> loaded = bulkLoader.apply(missing);
+        for (Map.Entry<String, V> entry : loaded.entrySet()) {
+            Long generation = started.get(entry.getKey());
+            if (generation == null || entry.getValue() == null) {
+                continue;
+            }
+            result.put(entry.getKey(), entry.getValue());
+            // checked under the entry's lock, which invalidate() takes after bumping the generation
+            cache.asMap().compute(entry.getKey(), (key, current) ->
+                    generations.get(stripe(key)) == generation ? entry.getValue() : current);
+        }
+        return result;
+    }
+
+    public void invalidate(String key) {
+        if (cache != null && key != null) {
+            generations.incrementAndGet(stripe(key));
+            cache.invalidate(key);
+        }
+    }
+
+    public void invalidateAll() {
+        if (cache != null) {
+            for (int i = 0; i < GENERATION_STRIPES; i++) {
+                generations.incrementAndGet(i);
+            }
+            cache.invalidateAll();
+        }
+    }
+
+    private static int stripe(String key) {
+        int hash = key.hashCode();
+        return (hash ^ (hash >>> 16)) & (GENERATION_STRIPES - 1);
+    }
+
+    public record L2CacheSettings(long maxWeight, Duration expireAfterWrite, Duration refreshAfterWrite) {
+    }
+}
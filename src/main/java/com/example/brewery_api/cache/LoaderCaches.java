@@ -0,0 +1,165 @@
+package com.example.brewery_api.cache;
+
+import com.example.brewery_api.cache.L2Cache.L2CacheSettings;
+import com.example.brewery_api.dataloader.BatchLoaderExecutor;
+import com.example.brewery_api.dataloader.KeyedBatchLoader;
+import com.example.brewery_api.dataloader.ProjectedKey;
+import com.example.brewery_api.model.Beer;
+import com.example.brewery_api.model.Brewery;
+import com.example.brewery_api.model.Review;
+import com.example.brewery_api.service.BeerService;
+import com.example.brewery_api.service.BreweryService;
+import com.example.brewery_api.service.ReviewService;
+import com.github.benmanes.caffeine.cache.Weigher;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.function.Function;
+
+/**
+ * Second-level caches that sit under the batch loaders registered in
+ * {@link com.example.brewery_api.config.GraphQLConfig}. Entries are invalidated from the services'
+ * write paths, so an {@code addBeer}/{@code addReview}/{@code addBrewery} is visible to the next
+ * request; TTL and refresh-after-write bound how long a value can outlive a missed invalidation.
+ * <p>
+ * The list caches hold whole entities and serve every projection. With the cache disabled the
+ * loaders do point lookups in the services instead, projected reads included.
+ */
+@Component
+public class LoaderCaches {
+    private static final Logger logger = LoggerFactory.getLogger(LoaderCaches.class);
+
+    private final L2Cache<Brewery> breweries;
+    private final L2Cache<Beer> beers;
+    private final L2Cache<List<Beer>> breweryBeers;
+    private final L2Cache<List<Review>> beerReviews;
+    private final BreweryService breweryService;
+    private final BeerService beerService;
+    private final ReviewService reviewService;
+
+    public LoaderCaches(BreweryService breweryService, BeerService beerService, ReviewService reviewService,
+                        BatchLoaderExecutor batchLoaderExecutor, MeterRegistry meterRegistry,
+                        @Value("${app.cache.l2.enabled:false}") boolean enabled,
+                        @Value("${app.cache.l2.max-weight:100000}") long maxWeight,
+                        @Value("${app.cache.l2.expire-after-write:10m}") Duration expireAfterWrite,
+                        @Value("${app.cache.l2.refresh-after-write:1m}") Duration refreshAfterWrite) {
+        this.breweryService = breweryService;
+        this.beerService = beerService;
+        this.reviewService = reviewService;
+        Function<Set<String>, Map<String, Brewery>> loadBreweries = ids ->
+                byId(breweryService.getBreweriesByIds(ids), Brewery::getId);
+        Function<Set<String>, Map<String, Beer>> loadBeers = ids ->
+                byId(beerService.getBeersByIds(ids), Beer::getId);
+        Function<Set<String>, Map<String, List<Beer>>> loadBreweryBeers = beerService::getBeersByBreweryIds;
+        Function<Set<String>, Map<String, List<Review>>> loadBeerReviews = reviewService::getReviewsByBeerIds;
+
+        if (!enabled) {
+            breweries = L2Cache.disabled("breweryLoader", loadBreweries);
+            beers = L2Cache.disabled("beerLoader", loadBeers);
+            breweryBeers = L2Cache.disabled("breweryBeersLoader", loadBreweryBeers);
+            beerReviews = L2Cache.disabled("beerReviewsLoader", loadBeerReviews);
+            return;
+        }
+
+        logger.info("L2 loader cache enabled: max weight {}, expire after {}, refresh after {}",
+                maxWeight, expireAfterWrite, refreshAfterWrite);
+        L2CacheSettings settings = new L2CacheSettings(maxWeight, expireAfterWrite, refreshAfterWrite);
+        Weigher<String, Object> single = (key, value) -> 1;
+        Weigher<String, List<?>> list = (key, value) -> value.size() + 1;
+
+        breweries = L2Cache.create("breweryLoader", settings, single::weigh,
+                batchLoaderExecutor.executorFor("breweryLoader"), meterRegistry, loadBreweries);
+        beers = L2Cache.create("beerLoader", settings, single::weigh,
+                batchLoaderExecutor.executorFor("beerLoader"), meterRegistry, loadBeers);
+        breweryBeers = L2Cache.create("breweryBeersLoader", settings, list::weigh,
+                batchLoaderExecutor.executorFor("breweryBeersLoader"), meterRegistry, immutableLists(loadBreweryBeers));
+        beerReviews = L2Cache.create("beerReviewsLoader", settings, list::weigh,
+                batchLoaderExecutor.executorFor("beerReviewsLoader"), meterRegistry, immutableLists(loadBeerReviews));
+
+        breweryService.addChangeListener((previous, current) ->
+                breweries.invalidate(previous != null ? previous.getId() : current.getId()));
+        beerService.addChangeListener((previous, current) -> {
+            beers.invalidate(previous != null ? previous.getId() : current.getId());
+            if (previous != null) {
+                breweryBeers.invalidate(previous.getBreweryId());
+            }
+            if (current != null) {
+                breweryBeers.invalidate(current.getBreweryId());
+            }
+        });
+        reviewService.addChangeListener((previous, current) -> {
+            if (previous != null) {
+                beerReviews.invalidate(previous.getBeerId());
+            }
+            if (current != null) {
+                beerReviews.invalidate(current.getBeerId());
+            }
+        });
+    }
+
+    public L2Cache<Brewery> breweries() {
+        return breweries;
+    }
+
+    public L2Cache<Beer> beers() {
+        return beers;
+    }
+
+    public L2Cache<List<Beer>> breweryBeers() {
+        return breweryBeers;
+    }
+
+    public L2Cache<List<Review>> beerReviews() {
+        return beerReviews;
+    }
+
+    public KeyedBatchLoader<String, Brewery> breweryLoader() {
+        return breweries.isEnabled()
+                ? KeyedBatchLoader.bulk(breweries::getAll)
+                : KeyedBatchLoader.perKey(breweryService::getBreweryById);
+    }
+
+    public KeyedBatchLoader<String, Beer> beerLoader() {
+        return beers.isEnabled()
+                ? KeyedBatchLoader.bulk(beers::getAll)
+                : KeyedBatchLoader.perKey(beerService::getBeerById);
+    }
+
+    public KeyedBatchLoader<ProjectedKey, List<Beer>> breweryBeersLoader() {
+        return breweryBeers.isEnabled()
+                ? KeyedBatchLoader.bulk(ProjectedKey::id, breweryBeers::getAll)
+                : KeyedBatchLoader.perKey(key -> beerService.getBeersByBreweryId(key.id(), key.projection()));
+    }
+
+    public KeyedBatchLoader<ProjectedKey, List<Review>> beerReviewsLoader() {
+        return beerReviews.isEnabled()
+                ? KeyedBatchLoader.bulk(ProjectedKey::id, beerReviews::getAll)
+                : KeyedBatchLoader.perKey(key -> reviewService.getReviewsByBeerId(key.id(), key.projection()));
+    }
+
+    private static <T> Map<String, T> byId(List<T> entities, Function<T, String> idOf) {
+        Map<String, T> result = new HashMap<>(entities.size() * 2);
+        for (T entity : entities) {
+            result.put(idOf.apply(entity), entity);
+        }
+        return result;
+    }
+
+    // cached lists are shared between requests, so they must not be mutable
+    private static <T> Function<Set<String>, Map<String, List<T>>> immutableLists(
+            Function<Set<String>, Map<String, List<T>>> loader) {
+        return ids -> {
+            Map<String, List<T>> loaded = loader.apply(ids);
+            loaded.replaceAll((key, value) -> List.copyOf(value));
+            return loaded;
+        };
+    }
+}
@@ -0,0 +1,295 @@
+package com.example.brewery_api.cache;
+
+import com.example.brewery_api.incremental.IncrementalDelivery;
+import com.example.brewery_api.persisted.PersistedQueryRegistry;
+import com.fasterxml.jackson.core.type.TypeReference;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.github.benmanes.caffeine.cache.Expiry;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.ReadListener;
+import jakarta.servlet.ServletException;
+import jakarta.servlet.ServletInputStream;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletRequestWrapper;
+import jakarta.servlet.http.HttpServletResponse;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.server.ServletServerHttpRequest;
+import org.springframework.web.filter.OncePerRequestFilter;
+import org.springframework.web.util.ContentCachingResponseWrapper;
+import org.springframework.web.util.WebUtils;
+
+import java.io.BufferedReader;
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.nio.charset.Charset;
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.HexFormat;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Serves repeated GraphQL queries from a cache of serialized responses, with {@code ETag} and
+ * {@code 304 Not Modified} support.
+ * <p>
+ * Entries are keyed by the normalized document, operation name, variables and {@code Accept} header.
+ * They live for the {@code @cacheControl} max age of the operation (see
+ * {@link ResponseCachePolicyAnalyzer}) and are dropped as soon as one of the entity types they were
+ * built from has been written since ({@link EntityVersions}). Only {@code 200} responses without
+ * errors are stored; streamed {@code multipart/mixed} responses pass through. As in
+ * {@link org.springframework.web.filter.ShallowEtagHeaderFilter}, a miss that the GraphQL handler
+ * completes asynchronously is stored on the async dispatch.
+ */
+public class ResponseCacheFilter extends OncePerRequestFilter {
+    private static final String MISS_ATTRIBUTE = ResponseCacheFilter.class.getName() + ".MISS";
+
+    private final ObjectMapper objectMapper;
+    private final ResponseCachePolicyAnalyzer analyzer;
+    private final PersistedQueryRegistry persistedQueries;
+    private final EntityVersions versions;
+    private final Cache<ResponseKey, CachedResponse> responses;
+
+    public ResponseCacheFilter(ObjectMapper objectMapper, ResponseCachePolicyAnalyzer analyzer,
+                               PersistedQueryRegistry persistedQueries, EntityVersions versions,
+                               long maxEntries, MeterRegistry meterRegistry) {
+        this.objectMapper = objectMapper;
+        this.analyzer = analyzer;
+        this.persistedQueries = persistedQueries;
+        this.versions = versions;
+        this.responses = Caffeine.newBuilder()
+                .maximumSize(maxEntries)
+                .expireAfter(new Expiry<ResponseKey, CachedResponse>() {
+                    @Override
+                    public long expireAfterCreate(ResponseKey key, CachedResponse value, long currentTime) {
+                        return TimeUnit.SECONDS.toNanos(value.maxAgeSeconds());
+                    }
+
+                    @Override
+                    public long expireAfterUpdate(ResponseKey key, CachedResponse value, long currentTime, long currentDuration) {
+                        return TimeUnit.SECONDS.toNanos(value.maxAgeSeconds());
+                    }
+
+                    @Override
+                    public long expireAfterRead(ResponseKey key, CachedResponse value, long currentTime, long currentDuration) {
+                        return currentDuration;
+                    }
+                })
+                .recordStats()
+                .build();
+        CaffeineCacheMetrics.monitor(meterRegistry, responses, "graphql.responses");
+    }
+
+    @Override
+    protected boolean shouldNotFilterAsyncDispatch() {
+        return false;
+    }
+
+    @Override
+    protected void doFilterInternal(HttpServletRequest request, HttpServletResponse response, FilterChain filterChain)
+            throws ServletException, IOException {
+        if (isAsyncDispatch(request)) {
+            filterChain.doFilter(request, response);
+            Miss miss = (Miss) request.getAttribute(MISS_ATTRIBUTE);
+            ContentCachingResponseWrapper wrapper = WebUtils.getNativeResponse(response, ContentCachingResponseWrapper.class);
+            if (miss != null && wrapper != null && !isAsyncStarted(request)) {
+                complete(miss, wrapper);
+            }
+            return;
+        }
+        // streamed multipart responses would be held back until complete
+        if (!"POST".equals(request.getMethod())
+                || IncrementalDelivery.acceptsMultipart(new ServletServerHttpRequest(request).getHeaders())) {
+            filterChain.doFilter(request, response);
+            return;
+        }
+
+        byte[] body = request.getInputStream().readAllBytes();
+        HttpServletRequest replay = new ReplayingRequest(request, body);
+        ResponseKey key = null;
+        ResponseCachePolicy policy = ResponseCachePolicy.UNCACHEABLE;
+        GraphQlBody graphQl = parse(body);
+        if (graphQl != null) {
+            policy = analyzer.policyFor(graphQl.query(), graphQl.operationName());
+            key = new ResponseKey(policy.normalizedDocument(), graphQl.operationName(), graphQl.variables(),
+                    request.getHeader(HttpHeaders.ACCEPT));
+        }
+        if (!policy.isCacheable()) {
+            filterChain.doFilter(replay, response);
+            return;
+        }
+
+        CachedResponse cached = responses.getIfPresent(key);
+        if (cached != null) {
+            if (versions.isCurrent(cached.versions())) {
+                serve(cached, request, response);
+                return;
+            }
+            responses.invalidate(key);
+        }
+
+        // versions are read before execution, so a write that races with it leaves the entry stale
+        Miss miss = new Miss(key, policy, versions.snapshot(policy.typeNames()));
+        ContentCachingResponseWrapper wrapper = new ContentCachingResponseWrapper(response);
+        replay.setAttribute(MISS_ATTRIBUTE, miss);
+        filterChain.doFilter(replay, wrapper);
+        if (!isAsyncStarted(replay)) {
+            complete(miss, wrapper);
+        }
+    }
+
+    private void complete(Miss miss, ContentCachingResponseWrapper wrapper) throws IOException {
+        byte[] content = wrapper.getContentAsByteArray();
+        if (wrapper.getStatus() == HttpServletResponse.SC_OK && !hasErrors(content)) {
+            CachedResponse cached = new CachedResponse(content, etag(content), wrapper.getContentType(),
+                    miss.policy().maxAgeSeconds(), miss.versions());
+            responses.put(miss.key(), cached);
+            wrapper.setHeader(HttpHeaders.ETAG, cached.etag());
+            wrapper.setHeader(HttpHeaders.CACHE_CONTROL, "max-age=" + cached.maxAgeSeconds());
+        }
+        wrapper.copyBodyToResponse();
+    }
+
+    private static void serve(CachedResponse cached, HttpServletRequest request, HttpServletResponse response)
+            throws IOException {
+        response.setHeader(HttpHeaders.ETAG, cached.etag());
+        response.setHeader(HttpHeaders.CACHE_CONTROL, "max-age=" + cached.maxAgeSeconds());
+        String ifNoneMatch = request.getHeader(HttpHeaders.IF_NONE_MATCH);
+        if (ifNoneMatch != null && (ifNoneMatch.equals(cached.etag()) || ifNoneMatch.equals("W/" + cached.etag()))) {
+            response.setStatus(HttpServletResponse.SC_NOT_MODIFIED);
+            return;
+        }
+        response.setStatus(HttpServletResponse.SC_OK);
+        response.setContentType(cached.contentType());
+        response.setContentLength(cached.body().length);
+        response.getOutputStream().write(cached.body());
+    }
+
+    private GraphQlBody parse(byte[] body) {
+        Map<String, Object> map;
+        try {
+            map = objectMapper.readValue(body, new TypeReference<>() {
+            });
+        } catch (IOException e) {
+            return null;
+        }
+        String query = map.get("query") instanceof String text ? text : null;
+        if ((query == null || query.isBlank())
+                && map.get("extensions") instanceof Map<?, ?> extensions
+                && extensions.get("persistedQuery") instanceof Map<?, ?> persistedQuery
+                && persistedQuery.get("sha256Hash") instanceof String hash) {
+            query = persistedQueries.lookup(hash);
+        }
+        if (query == null || query.isBlank()) {
+            return null;
+        }
+        @SuppressWarnings("unchecked")
+        Map<String, Object> variables = map.get("variables") instanceof Map<?, ?> vars ? (Map<String, Object>) vars : Map.of();
+        return new GraphQlBody(query, map.get("operationName") instanceof String name ? name : null, variables);
+    }
+
+    private boolean hasErrors(byte[] content) {
+        try {
+            return objectMapper.readTree(content).has("errors");
+        } catch (IOException e) {
+            return true;
+        }
+    }
+
+    private static String etag(byte[] content) {
+        try {
+            byte[] digest = MessageDigest.getInstance("SHA-256").digest(content);
+            return "\"" + HexFormat.of().formatHex(digest, 0, 16) + "\"";
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException("SHA-256 is not available", e);
+        }
+    }
+
+    private record GraphQlBody(String query, String operationName, Map<String, Object> variables) {
+    }
+
+    private record ResponseKey(String document, String operationName, Map<String, Object> variables, String accept) {
+    }
+
+    private record CachedResponse(byte[] body, String etag, String contentType, long maxAgeSeconds,
+                                  Map<String, Long> versions) {
+    }
+
+    private record Miss(ResponseKey key, ResponseCachePolicy policy, Map<String, Long> versions) {
+    }
+
+    /**
+     * Hands the already consumed request body to the GraphQL handler again.
+     */
+    private static final class ReplayingRequest extends HttpServletRequestWrapper {
+        private final byte[] body;
+
+        ReplayingRequest(HttpServletRequest request, byte[] body) {
+            super(request);
+            this.body = body;
+        }
+
+        @Override
+        public ServletInputStream getInputStream() {
+            ByteArrayInputStream in = new ByteArrayInputStream(body);
+            return new ServletInputStream() {
+                @Override
+                public boolean isFinished() {
+                    return in.available() == 0;
+                }
+
+                @Override
+                public boolean isReady() {
+                    return true;
+                }
+
+                @Override
+                public void setReadListener(ReadListener listener) {
+                    // the body is already in memory, so it is all available at once
+                    try {
+                        if (!isFinished()) {
+                            listener.onDataAvailable();
+                        }
+                        if (isFinished()) {
+                            listener.onAllDataRead();
+                        }
+                    } catch (IOException | RuntimeException e) {
+                        listener.onError(e);
+                    }
+                }
+
+                @Override
+                public int read() {
+                    return in.read();
+                }
+
+                @Override
+                public int read(byte[] b, int off, int len) {
+                    return in.read(b, off, len);
+                }
+            };
+        }
+
+        @Override
+        public BufferedReader getReader() {
+            String encoding = getCharacterEncoding();
+            return new BufferedReader(new InputStreamReader(new ByteArrayInputStream(body),
+                    encoding != null ? Charset.forName(encoding) : StandardCharsets.UTF_8));
+        }
+
+        @Override
+        public int getContentLength() {
+            return body.length;
+        }
+
+        @Override
+        public long getContentLengthLong() {
+            return body.length;
+        }
+    }
+}
@@ -0,0 +1,21 @@
+package com.example.brewery_api.cache;
+
+import java.util.Set;
+
+/**
+ * What the response cache needs to know about one operation.
+ *
+ * @param normalizedDocument the document printed in compact form, so whitespace and comments do not
+ *                           split cache entries
+ * @param maxAgeSeconds      smallest {@code @cacheControl(maxAge)} among the selected types and
+ *                           fields; {@code 0} means the response is not cached
+ * @param typeNames          object types the response is built from, for version checks
+ */
+public record ResponseCachePolicy(String normalizedDocument, long maxAgeSeconds, Set<String> typeNames) {
+
+    public static final ResponseCachePolicy UNCACHEABLE = new ResponseCachePolicy(null, 0, Set.of());
+
+    public boolean isCacheable() {
+        return maxAgeSeconds > 0;
+    }
+}
@@ -0,0 +1,202 @@
+package com.example.brewery_api.cache;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import graphql.language.AstPrinter;
+import graphql.language.Document;
+import graphql.language.Field;
+import graphql.language.FragmentDefinition;
+import graphql.language.FragmentSpread;
+import graphql.language.InlineFragment;
+import graphql.language.OperationDefinition;
+import graphql.language.Selection;
+import graphql.language.SelectionSet;
+import graphql.parser.InvalidSyntaxException;
+import graphql.parser.Parser;
+import graphql.schema.GraphQLAppliedDirective;
+import graphql.schema.GraphQLAppliedDirectiveArgument;
+import graphql.schema.GraphQLArgument;
+import graphql.schema.GraphQLDirectiveContainer;
+import graphql.schema.GraphQLFieldDefinition;
+import graphql.schema.GraphQLFieldsContainer;
+import graphql.schema.GraphQLInputObjectField;
+import graphql.schema.GraphQLInputObjectType;
+import graphql.schema.GraphQLSchema;
+import graphql.schema.GraphQLType;
+import graphql.schema.GraphQLTypeUtil;
+
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.function.Supplier;
+
+/**
+ * Derives the {@link ResponseCachePolicy} of an operation from {@code @cacheControl} hints in the
+ * schema, and memoizes it per query text.
+ * <p>
+ * The max age is the smallest hint among every selected field definition and every object type a
+ * selected field returns. Types and fields without a hint do not constrain it; an operation that
+ * touches no hint at all gets {@code defaultMaxAge}. Mutations, subscriptions and documents that do
+ * not parse are never cached. A response depends on every object type it selects, plus the types a
+ * selected field names in {@code @cacheControl(dependsOn:)}, for fields computed from other
+ * entities such as counts and connections, and the types named by the input fields of its
+ * arguments, for filters that match on another entity. The walk follows every selection regardless
+ * of {@code @skip} and {@code @include}, and every input field whether or not it is set, so it
+ * over-approximates the types a response depends on.
+ */
+public class ResponseCachePolicyAnalyzer {
+    private static final String CACHE_CONTROL = "cacheControl";
+
+    private final Supplier<GraphQLSchema> schema;
+    private final long defaultMaxAge;
+    private final Cache<List<Object>, ResponseCachePolicy> policies;
+
+    public ResponseCachePolicyAnalyzer(Supplier<GraphQLSchema> schema, long defaultMaxAge, long maxPolicies) {
+        this.schema = schema;
+        this.defaultMaxAge = defaultMaxAge;
+        this.policies = Caffeine.newBuilder().maximumSize(maxPolicies).build();
+    }
+
+    public ResponseCachePolicy policyFor(String query, String operationName) {
+        return policies.get(Arrays.asList(query, operationName), key -> analyze(query, operationName));
+    }
+
+    private ResponseCachePolicy analyze(String query, String operationName) {
+        Document document;
+        try {
+            document = Parser.parse(query);
+        } catch (InvalidSyntaxException e) {
+            return ResponseCachePolicy.UNCACHEABLE;
+        }
+        OperationDefinition operation = null;
+        Map<String, FragmentDefinition> fragments = new HashMap<>();
+        for (FragmentDefinition fragment : document.getDefinitionsOfType(FragmentDefinition.class)) {
+            fragments.put(fragment.getName(), fragment);
+        }
+        for (OperationDefinition candidate : document.getDefinitionsOfType(OperationDefinition.class)) {
+            if (operationName == null || operationName.equals(candidate.getName())) {
+                if (operation != null) {
+                    return ResponseCachePolicy.UNCACHEABLE;
+                }
+                operation = candidate;
+            }
+        }
+        if (operation == null || operation.getOperation() != OperationDefinition.Operation.QUERY) {
+            return ResponseCachePolicy.UNCACHEABLE;
+        }
+
+        Walk walk = new Walk(fragments);
+        walk.selectionSet(operation.getSelectionSet(), schema.get().getQueryType());
+        if (!walk.valid) {
+            return ResponseCachePolicy.UNCACHEABLE;
+        }
+        long maxAge = walk.maxAge != null ? walk.maxAge : defaultMaxAge;
+        return maxAge > 0
+                ? new ResponseCachePolicy(AstPrinter.printAstCompact(document), maxAge, Set.copyOf(walk.typeNames))
+                : ResponseCachePolicy.UNCACHEABLE;
+    }
+
+    private static Long hint(GraphQLDirectiveContainer container) {
+        GraphQLAppliedDirective directive = container.getAppliedDirective(CACHE_CONTROL);
+        if (directive == null) {
+            return null;
+        }
+        GraphQLAppliedDirectiveArgument maxAge = directive.getArgument("maxAge");
+        Object value = maxAge != null ? maxAge.getValue() : null;
+        return value instanceof Number number ? number.longValue() : null;
+    }
+
+    private static List<String> dependsOn(GraphQLDirectiveContainer container) {
+        GraphQLAppliedDirective directive = container.getAppliedDirective(CACHE_CONTROL);
+        GraphQLAppliedDirectiveArgument types = directive != null ? directive.getArgument("dependsOn") : null;
+        Object value = types != null ? types.getValue() : null;
+        if (!(value instanceof List<?> list)) {
+            return List.of();
+        }
+        return list.stream().map(String::valueOf).toList();
+    }
+
+    private final class Walk {
+        private final Map<String, FragmentDefinition> fragments;
+        private final Set<String> visitedFragments = new HashSet<>();
+        private final Set<String> visitedInputs = new HashSet<>();
+        private final Set<String> typeNames = new HashSet<>();
+        private Long maxAge;
+        private boolean valid = true;
+
+        Walk(Map<String, FragmentDefinition> fragments) {
+            this.fragments = fragments;
+        }
+
+        void selectionSet(SelectionSet selectionSet, GraphQLFieldsContainer parent) {
+            if (selectionSet == null) {
+                return;
+            }
+            for (Selection<?> selection : selectionSet.getSelections()) {
+                if (selection instanceof Field field) {
+                    field(field, parent);
+                } else if (selection instanceof InlineFragment inline) {
+                    selectionSet(inline.getSelectionSet(), inline.getTypeCondition() != null
+                            ? container(inline.getTypeCondition().getName()) : parent);
+                } else if (selection instanceof FragmentSpread spread) {
+                    FragmentDefinition fragment = fragments.get(spread.getName());
+                    if (fragment == null) {
+                        valid = false;
+                    } else if (visitedFragments.add(spread.getName())) {
+                        selectionSet(fragment.getSelectionSet(), container(fragment.getTypeCondition().getName()));
+                    }
+                }
+            }
+        }
+
+        private void field(Field field, GraphQLFieldsContainer parent) {
+            if (parent == null) {
+                valid = false;
+                return;
+            }
+            if (field.getName().startsWith("__")) {
+                return;
+            }
+            GraphQLFieldDefinition definition = parent.getFieldDefinition(field.getName());
+            if (definition == null) {
+                valid = false;
+                return;
+            }
+            constrain(hint(definition));
+            typeNames.addAll(dependsOn(definition));
+            for (GraphQLArgument argument : definition.getArguments()) {
+                input(GraphQLTypeUtil.unwrapAll(argument.getType()));
+            }
+            GraphQLType type = GraphQLTypeUtil.unwrapAll(definition.getType());
+            if (type instanceof GraphQLFieldsContainer container) {
+                typeNames.add(container.getName());
+                if (container instanceof GraphQLDirectiveContainer directives) {
+                    constrain(hint(directives));
+                }
+                selectionSet(field.getSelectionSet(), container);
+            }
+        }
+
+        private void input(GraphQLType type) {
+            if (type instanceof GraphQLInputObjectType inputType && visitedInputs.add(inputType.getName())) {
+                for (GraphQLInputObjectField inputField : inputType.getFieldDefinitions()) {
+                    typeNames.addAll(dependsOn(inputField));
+                    input(GraphQLTypeUtil.unwrapAll(inputField.getType()));
+                }
+            }
+        }
+
+        private GraphQLFieldsContainer container(String typeName) {
+            return schema.get().getType(typeName) instanceof GraphQLFieldsContainer container ? container : null;
+        }
+
+        private void constrain(Long hint) {
+            if (hint != null) {
+                maxAge = maxAge == null ? hint : Math.min(maxAge, hint);
+            }
+        }
+    }
+}
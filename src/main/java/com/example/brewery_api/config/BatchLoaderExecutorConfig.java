@@ -0,0 +1,118 @@
+package com.example.brewery_api.config;
+
+import com.example.brewery_api.dataloader.BatchLoaderExecutor;
+import com.example.brewery_api.dataloader.BatchLoaders;
+import com.example.brewery_api.dataloader.BatchSettings;
+import com.example.brewery_api.instrumentation.GraphQLMetrics;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.core.env.Environment;
+
+import java.time.Duration;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.Executor;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+@Configuration
+public class BatchLoaderExecutorConfig {
+    private static final Logger logger = LoggerFactory.getLogger(BatchLoaderExecutorConfig.class);
+
+    // platform | virtual | inline
+    @Value("${app.dataloader.executor.mode:platform}")
+    private String mode;
+
+    @Value("${app.dataloader.executor.threads:#{T(java.lang.Runtime).getRuntime().availableProcessors()}}")
+    private int threads;
+
+    @Value("${app.dataloader.executor.queue-capacity:1024}")
+    private int queueCapacity;
+
+    @Value("${app.dataloader.executor.loader-concurrency:4}")
+    private int defaultLoaderConcurrency;
+
+    @Value("${app.dataloader.executor.loader-queue-capacity:256}")
+    private int loaderQueueCapacity;
+
+    @Value("${app.dataloader.max-batch-size:500}")
+    private int defaultMaxBatchSize;
+
+    @Value("${app.dataloader.window.keys:0}")
+    private int defaultWindowKeys;
+
+    @Value("${app.dataloader.window.wait:0ms}")
+    private Duration defaultWindowWait;
+
+    @Bean(destroyMethod = "close")
+    public BatchLoaderExecutor batchLoaderExecutor(Environment environment) {
+        Executor executor = createExecutor();
+        // per-loader override: app.dataloader.executor.loader-concurrency.<loaderName>=N
+        return new BatchLoaderExecutor(executor,
+                loaderName -> environment.getProperty("app.dataloader.executor.loader-concurrency." + loaderName,
+                        Integer.class, defaultLoaderConcurrency),
+                loaderQueueCapacity);
+    }
+
+    @Bean
+    public BatchLoaders batchLoaders(BatchLoaderExecutor batchLoaderExecutor, GraphQLMetrics metrics,
+                                     Environment environment) {
+        // per-loader overrides: app.dataloader.max-batch-size.<loaderName>=N,
+        // app.dataloader.window.keys.<loaderName>=N, app.dataloader.window.wait.<loaderName>=20ms
+        return new BatchLoaders(batchLoaderExecutor, metrics, loaderName -> new BatchSettings(
+                environment.getProperty("app.dataloader.max-batch-size." + loaderName, Integer.class,
+                        defaultMaxBatchSize),
+                environment.getProperty("app.dataloader.window.keys." + loaderName, Integer.class,
+                        defaultWindowKeys),
+                environment.getProperty("app.dataloader.window.wait." + loaderName, Duration.class,
+                        defaultWindowWait)));
+    }
+
+    private Executor createExecutor() {
+        switch (mode) {
+            case "inline":
+                logger.info("Batch loaders run inline on the dispatching thread");
+                return Runnable::run;
+            case "virtual":
+                ExecutorService virtual = virtualThreadExecutor();
+                if (virtual != null) {
+                    logger.info("Batch loaders run on virtual threads");
+                    return virtual;
+                }
+                logger.warn("Virtual threads are not available on this JVM, falling back to a platform pool");
+                return platformExecutor();
+            case "platform":
+                return platformExecutor();
+            default:
+                throw new IllegalArgumentException("Unknown app.dataloader.executor.mode: " + mode);
+        }
+    }
+
+    private ExecutorService platformExecutor() {
+        logger.info("Batch loaders run on a platform pool of {} threads, queue capacity {}", threads, queueCapacity);
+        AtomicInteger counter = new AtomicInteger();
+        ThreadFactory threadFactory = runnable -> {
+            Thread thread = new Thread(runnable, "batch-loader-" + counter.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        };
+        // CallerRunsPolicy: once the queue is full the dispatching thread runs the batch itself
+        return new ThreadPoolExecutor(threads, threads, 60, TimeUnit.SECONDS,
+                new ArrayBlockingQueue<>(queueCapacity), threadFactory, new ThreadPoolExecutor.CallerRunsPolicy());
+    }
+
+    // Looked up reflectively so the project still builds and runs on Java 17.
+    private static ExecutorService virtualThreadExecutor() {
+        try {
+            return (ExecutorService) Executors.class.getMethod("newVirtualThreadPerTaskExecutor").invoke(null);
+        } catch (ReflectiveOperationException e) {
+            return null;
+        }
+    }
+}
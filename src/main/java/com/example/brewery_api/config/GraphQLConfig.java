@@ -1,31 +1,37 @@
 package com.example.brewery_api.config;
 
-import com.example.brewery_api.dataloader.BeerReviewsDataLoader;
-import com.example.brewery_api.dataloader.BreweryDataLoader;
+import com.example.brewery_api.cache.LoaderCaches;
+import com.example.brewery_api.dataloader.BatchLoaders;
+import com.example.brewery_api.dataloader.KeyedBatchLoader;
 import com.example.brewery_api.fetcher.BeerDataFetcher;
 import com.example.brewery_api.fetcher.BreweryDataFetcher;
+import com.example.brewery_api.fetcher.MutationDataFetcher;
 import com.example.brewery_api.fetcher.ReviewDataFetcher;
+import com.example.brewery_api.fetcher.SearchDataFetcher;
 import com.example.brewery_api.model.Beer;
-import com.example.brewery_api.model.Brewery;
+import com.example.brewery_api.model.RatingSummary;
 import com.example.brewery_api.model.Review;
+import com.example.brewery_api.pagination.Connection;
+import com.example.brewery_api.pagination.PageKey;
 import com.example.brewery_api.service.BeerService;
+import com.example.brewery_api.service.InvalidInputException;
+import com.example.brewery_api.service.RatingAggregates;
+import com.example.brewery_api.service.ReviewService;
+import com.example.brewery_api.subscription.ReviewEvents;
+import graphql.GraphqlErrorBuilder;
 import jakarta.annotation.PostConstruct;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Value;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
+import org.springframework.graphql.ExecutionGraphQlService;
 import org.springframework.graphql.execution.BatchLoaderRegistry;
+import org.springframework.graphql.execution.DataFetcherExceptionResolver;
+import org.springframework.graphql.execution.DefaultExecutionGraphQlService;
+import org.springframework.graphql.execution.ErrorType;
+import org.springframework.graphql.execution.GraphQlSource;
 import org.springframework.graphql.execution.RuntimeWiringConfigurer;
-import reactor.core.publisher.Flux;
-import reactor.core.publisher.Mono;
-
-import java.util.ArrayList;
-import java.util.Collections;
-import java.util.HashMap;
-import java.util.List;
-import java.util.Map;
-import java.util.concurrent.CompletableFuture;
 
 @Configuration
 public class GraphQLConfig {
@@ -34,25 +40,35 @@ public class GraphQLConfig {
     private final BeerDataFetcher beerDataFetcher;
     private final BreweryDataFetcher breweryDataFetcher;
     private final ReviewDataFetcher reviewDataFetcher;
-    private final BreweryDataLoader breweryDataLoader;
-    private final BeerReviewsDataLoader beerReviewsDataLoader;
+    private final MutationDataFetcher mutationDataFetcher;
+    private final SearchDataFetcher searchDataFetcher;
+    private final ReviewEvents reviewEvents;
+    private final LoaderCaches loaderCaches;
     private final BeerService beerService;
-    private final BatchLoaderRegistry batchLoaderRegistry;
+    private final ReviewService reviewService;
+    private final RatingAggregates ratingAggregates;
+    private final BatchLoaders batchLoaders;
 
     @Value("${app.use.dataloaders:true}")
     private boolean useDataLoaders;
 
     public GraphQLConfig(BeerDataFetcher beerDataFetcher, BreweryDataFetcher breweryDataFetcher,
-                         ReviewDataFetcher reviewDataFetcher, BreweryDataLoader breweryDataLoader,
-                         BeerReviewsDataLoader beerReviewsDataLoader, BeerService beerService,
-                         BatchLoaderRegistry batchLoaderRegistry) {
+                         ReviewDataFetcher reviewDataFetcher, MutationDataFetcher mutationDataFetcher,
+                         SearchDataFetcher searchDataFetcher,
+                         ReviewEvents reviewEvents, LoaderCaches loaderCaches,
+                         BeerService beerService, ReviewService reviewService, RatingAggregates ratingAggregates,
+                         BatchLoaders batchLoaders) {
         this.beerDataFetcher = beerDataFetcher;
         this.breweryDataFetcher = breweryDataFetcher;
         this.reviewDataFetcher = reviewDataFetcher;
-        this.breweryDataLoader = breweryDataLoader;
-        this.beerReviewsDataLoader = beerReviewsDataLoader;
+        this.mutationDataFetcher = mutationDataFetcher;
+        this.searchDataFetcher = searchDataFetcher;
+        this.reviewEvents = reviewEvents;
+        this.loaderCaches = loaderCaches;
         this.beerService = beerService;
-        this.batchLoaderRegistry = batchLoaderRegistry;
+        this.reviewService = reviewService;
+        this.ratingAggregates = ratingAggregates;
+        this.batchLoaders = batchLoaders;
     }
 
     @Bean
@@ -67,15 +83,44 @@ public class GraphQLConfig {
                     .dataFetcher("beers", beerDataFetcher.getAllBeers())
                     .dataFetcher("review", reviewDataFetcher.getReviewById())
                     .dataFetcher("reviews", reviewDataFetcher.getAllReviews())
+                    .dataFetcher("breweriesConnection", breweryDataFetcher.getBreweriesConnection())
+                    .dataFetcher("beersConnection", beerDataFetcher.getBeersConnection())
+                    .dataFetcher("reviewsConnection", reviewDataFetcher.getReviewsConnection())
+                    .dataFetcher("searchBeers", searchDataFetcher.searchBeers())
+                    .dataFetcher("searchReviews", searchDataFetcher.searchReviews())
+            );
+
+            wiringBuilder.type("Mutation", typeWiring -> typeWiring
+                    .dataFetcher("addBrewery", mutationDataFetcher.addBrewery())
+                    .dataFetcher("updateBrewery", mutationDataFetcher.updateBrewery())
+                    .dataFetcher("addBeer", mutationDataFetcher.addBeer())
+                    .dataFetcher("updateBeer", mutationDataFetcher.updateBeer())
+                    .dataFetcher("addReview", mutationDataFetcher.addReview())
+                    .dataFetcher("updateReview", mutationDataFetcher.updateReview())
+            );
+
+            wiringBuilder.type("Subscription", typeWiring -> typeWiring
+                    .dataFetcher("reviewAdded", environment -> reviewEvents.reviewAdded(environment.getArgument("beerId")))
+                    .dataFetcher("beerRatingChanged", environment -> reviewEvents.beerRatingChanged(environment.getArgument("beerId")))
             );
 
             wiringBuilder.type("Brewery", typeWiring -> {
                 if (useDataLoaders) {
                     logger.info("Using DataLoader for Brewery.beers field");
-                    return typeWiring.dataFetcher("beers", breweryDataFetcher.getBreweryBeersWithDataLoader());
+                    return typeWiring
+                            .dataFetcher("beers", breweryDataFetcher.getBreweryBeersWithDataLoader())
+                            .dataFetcher("beersConnection", breweryDataFetcher.getBreweryBeersConnectionWithDataLoader())
+                            .dataFetcher("averageRating", breweryDataFetcher.getBreweryRatingWithDataLoader(RatingSummary::averageRating))
+                            .dataFetcher("reviewCount", breweryDataFetcher.getBreweryRatingWithDataLoader(RatingSummary::reviewCount))
+                            .dataFetcher("ratingHistogram", breweryDataFetcher.getBreweryRatingWithDataLoader(RatingSummary::ratingHistogram));
                 } else {
                     logger.info("Using regular fetcher for Brewery.beers field (N+1 issue)");
-                    return typeWiring.dataFetcher("beers", breweryDataFetcher.getBreweryBeersWithoutDataLoader());
+                    return typeWiring
+                            .dataFetcher("beers", breweryDataFetcher.getBreweryBeersWithoutDataLoader())
+                            .dataFetcher("beersConnection", breweryDataFetcher.getBreweryBeersConnectionWithoutDataLoader())
+                            .dataFetcher("averageRating", breweryDataFetcher.getBreweryRatingWithoutDataLoader(RatingSummary::averageRating))
+                            .dataFetcher("reviewCount", breweryDataFetcher.getBreweryRatingWithoutDataLoader(RatingSummary::reviewCount))
+                            .dataFetcher("ratingHistogram", breweryDataFetcher.getBreweryRatingWithoutDataLoader(RatingSummary::ratingHistogram));
                 }
             });
 
@@ -84,12 +129,20 @@ public class GraphQLConfig {
                     logger.info("Using DataLoader for Beer.brewery and Beer.reviews fields");
                     return typeWiring
                             .dataFetcher("brewery", beerDataFetcher.getBeerBreweryWithDataLoader())
-                            .dataFetcher("reviews", beerDataFetcher.getBeerReviewsWithDataLoader());
+                            .dataFetcher("reviews", beerDataFetcher.getBeerReviewsWithDataLoader())
+                            .dataFetcher("reviewsConnection", beerDataFetcher.getBeerReviewsConnectionWithDataLoader())
+                            .dataFetcher("averageRating", beerDataFetcher.getBeerRatingWithDataLoader(RatingSummary::averageRating))
+                            .dataFetcher("reviewCount", beerDataFetcher.getBeerRatingWithDataLoader(RatingSummary::reviewCount))
+                            .dataFetcher("ratingHistogram", beerDataFetcher.getBeerRatingWithDataLoader(RatingSummary::ratingHistogram));
                 } else {
                     logger.info("Using regular fetchers for Beer fields (N+1 issue)");
                     return typeWiring
                             .dataFetcher("brewery", beerDataFetcher.getBeerBreweryWithoutDataLoader())
-                            .dataFetcher("reviews", beerDataFetcher.getBeerReviewsWithoutDataLoader());
+                            .dataFetcher("reviews", beerDataFetcher.getBeerReviewsWithoutDataLoader())
+                            .dataFetcher("reviewsConnection", beerDataFetcher.getBeerReviewsConnectionWithoutDataLoader())
+                            .dataFetcher("averageRating", beerDataFetcher.getBeerRatingWithoutDataLoader(RatingSummary::averageRating))
+                            .dataFetcher("reviewCount", beerDataFetcher.getBeerRatingWithoutDataLoader(RatingSummary::reviewCount))
+                            .dataFetcher("ratingHistogram", beerDataFetcher.getBeerRatingWithoutDataLoader(RatingSummary::ratingHistogram));
                 }
             });
 
@@ -105,58 +158,60 @@ public class GraphQLConfig {
         };
     }
 
+    /**
+     * Reports rejected mutation input to the client as a bad request; any other exception stays an
+     * internal error.
+     */
+    @Bean
+    public DataFetcherExceptionResolver invalidInputExceptionResolver() {
+        return DataFetcherExceptionResolver.forSingleError((exception, environment) ->
+                exception instanceof InvalidInputException
+                        ? GraphqlErrorBuilder.newError(environment)
+                                .errorType(ErrorType.BAD_REQUEST)
+                                .message(exception.getMessage())
+                                .build()
+                        : null);
+    }
+
+    /**
+     * Serves the loaders in {@link BatchLoaders} next to any registered with Spring's
+     * {@link BatchLoaderRegistry}.
+     */
+    @Bean
+    public ExecutionGraphQlService executionGraphQlService(GraphQlSource graphQlSource,
+                                                           BatchLoaderRegistry batchLoaderRegistry) {
+        DefaultExecutionGraphQlService service = new DefaultExecutionGraphQlService(graphQlSource);
+        service.addDataLoaderRegistrar(batchLoaderRegistry);
+        service.addDataLoaderRegistrar(batchLoaders);
+        return service;
+    }
+
     @PostConstruct
-    public void configureBatchLoaderRegistry() {
+    public void configureBatchLoaders() {
         //  (object type)
-        batchLoaderRegistry.forTypePair(String.class, Brewery.class)
-                .registerBatchLoader((beerIds, environment) -> {
-                    List<String> idList = new ArrayList<>(beerIds);
-                    return Flux.fromIterable(breweryDataLoader.loadBreweriesByIds(idList));
-                });
-
-        // (list type)
-        batchLoaderRegistry.forTypePair(String.class, List.class)
-                .withName("beerReviewsLoader")
-                .registerMappedBatchLoader((ids, environment) -> {
-                    Map<String, List> result = new HashMap<>();
-                    Map<String, List<Review>> typedResult = beerReviewsDataLoader.loadBatchOfReviews(new ArrayList<>(ids));
-
-                    for (Map.Entry<String, List<Review>> entry : typedResult.entrySet()) {
-                        result.put(entry.getKey(), entry.getValue());
-                    }
-
-                    return Mono.just(result);
-                });
+        batchLoaders.register("breweryLoader", loaderCaches.breweryLoader());
+
+        // (list type) keyed by projection, so reviews without comment text skip decoding it
+        batchLoaders.register("beerReviewsLoader", loaderCaches.beerReviewsLoader());
 
         //  (list type)
-        batchLoaderRegistry.forTypePair(String.class, List.class)
-                .withName("breweryBeersLoader")
-                .registerMappedBatchLoader((beerIds, environment) -> {
-                    CompletableFuture<Map<String, List>> future = CompletableFuture.supplyAsync(() -> {
-                        logger.info("Loading beers for {} breweries with DataLoader", beerIds.size());
-                        Map<String, List> result = new HashMap<>();
-                        for (String breweryId : beerIds) {
-                            try {
-                                List beers = beerService.getBeersByBreweryId(breweryId);
-                                result.put(breweryId, beers != null ? beers : Collections.emptyList());
-                            } catch (Exception e) {
-                                logger.error("Failed to load beers for breweryId {}: {}", breweryId, e.getMessage());
-                                result.put(breweryId, Collections.emptyList());
-                            }
-                        }
-                        return result;
-                    });
-                    return Mono.fromFuture(future);
-                });
+        batchLoaders.register("breweryBeersLoader", loaderCaches.breweryBeersLoader());
 
         // (object type)
-        batchLoaderRegistry.forTypePair(String.class, Beer.class)
-                .withName("beerLoader")
-                .registerBatchLoader((beerIds, environment) -> {
-                    List<String> idList = new ArrayList<>(beerIds);
-                    CompletableFuture<List<Beer>> future = CompletableFuture.supplyAsync(() ->
-                            beerService.getBeersByIds(idList));
-                    return Mono.fromFuture(future).flatMapMany(Flux::fromIterable);
-                });
+        batchLoaders.register("beerLoader", loaderCaches.beerLoader());
+
+        // (aggregate type) precomputed, so a batch is one map lookup per key
+        batchLoaders.register("beerRatingsLoader", KeyedBatchLoader.perKey(ratingAggregates::forBeer));
+
+        // (aggregate type)
+        batchLoaders.register("breweryRatingsLoader", KeyedBatchLoader.perKey(ratingAggregates::forBrewery));
+
+        // (connection type) one page per key; sibling parents share a batch
+        batchLoaders.register("breweryBeersPageLoader", KeyedBatchLoader.<PageKey, Connection<Beer>>perKey(key ->
+                Connection.of(beerService.getBeersPageByBreweryId(key.parentId(), key.afterId(), key.first()), Beer::getId)));
+
+        // (connection type)
+        batchLoaders.register("beerReviewsPageLoader", KeyedBatchLoader.<PageKey, Connection<Review>>perKey(key ->
+                Connection.of(reviewService.getReviewsPageByBeerId(key.parentId(), key.afterId(), key.first()), Review::getId)));
     }
-}
\ No newline at end of file
+}
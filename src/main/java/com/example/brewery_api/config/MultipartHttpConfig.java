@@ -0,0 +1,36 @@
+package com.example.brewery_api.config;
+
+import com.example.brewery_api.incremental.IncrementalDelivery;
+import com.example.brewery_api.incremental.MultipartHttpHandler;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnWebApplication;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.core.annotation.Order;
+import org.springframework.graphql.server.WebGraphQlHandler;
+import org.springframework.web.servlet.function.RequestPredicates;
+import org.springframework.web.servlet.function.RouterFunction;
+import org.springframework.web.servlet.function.RouterFunctions;
+import org.springframework.web.servlet.function.ServerResponse;
+
+/**
+ * Routes GraphQL requests that accept {@code multipart/mixed} to {@link MultipartHttpHandler}, ahead
+ * of Spring's JSON route ({@code @Order(0)}) for the same path.
+ */
+@Configuration
+@ConditionalOnWebApplication(type = ConditionalOnWebApplication.Type.SERVLET)
+public class MultipartHttpConfig {
+
+    @Bean
+    @Order(-1)
+    public RouterFunction<ServerResponse> multipartGraphQlRouterFunction(WebGraphQlHandler graphQlHandler,
+                                                                         ObjectMapper objectMapper,
+                                                                         @Value("${spring.graphql.path:/graphql}") String path) {
+        MultipartHttpHandler handler = new MultipartHttpHandler(graphQlHandler, objectMapper);
+        // RequestPredicates.accept would also match */*, which every client sends
+        return RouterFunctions.route(RequestPredicates.POST(path)
+                        .and(request -> IncrementalDelivery.acceptsMultipart(request.headers().asHttpHeaders())),
+                handler::handleRequest);
+    }
+}
@@ -0,0 +1,17 @@
+package com.example.brewery_api.config;
+
+import com.example.brewery_api.persisted.PreparsedDocumentCache;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.boot.autoconfigure.graphql.GraphQlSourceBuilderCustomizer;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+@Configuration
+public class PersistedQueryConfig {
+
+    @Bean
+    public GraphQlSourceBuilderCustomizer preparsedDocumentCustomizer(ObjectProvider<PreparsedDocumentCache> documentCache) {
+        return builder -> documentCache.ifAvailable(cache ->
+                builder.configureGraphQl(graphQL -> graphQL.preparsedDocumentProvider(cache)));
+    }
+}
@@ -0,0 +1,35 @@
+package com.example.brewery_api.config;
+
+import com.example.brewery_api.incremental.IncrementalDelivery;
+import com.example.brewery_api.incremental.ReactiveMultipartHttpHandler;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnWebApplication;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.core.annotation.Order;
+import org.springframework.graphql.server.WebGraphQlHandler;
+import org.springframework.web.reactive.function.server.RequestPredicates;
+import org.springframework.web.reactive.function.server.RouterFunction;
+import org.springframework.web.reactive.function.server.RouterFunctions;
+import org.springframework.web.reactive.function.server.ServerResponse;
+
+/**
+ * WebFlux counterpart of {@link MultipartHttpConfig}.
+ */
+@Configuration
+@ConditionalOnWebApplication(type = ConditionalOnWebApplication.Type.REACTIVE)
+public class ReactiveMultipartHttpConfig {
+
+    @Bean
+    @Order(-1)
+    public RouterFunction<ServerResponse> multipartGraphQlRouterFunction(WebGraphQlHandler graphQlHandler,
+                                                                         ObjectMapper objectMapper,
+                                                                         @Value("${spring.graphql.path:/graphql}") String path) {
+        ReactiveMultipartHttpHandler handler = new ReactiveMultipartHttpHandler(graphQlHandler, objectMapper);
+        // RequestPredicates.accept would also match */*, which every client sends
+        return RouterFunctions.route(RequestPredicates.POST(path)
+                        .and(request -> IncrementalDelivery.acceptsMultipart(request.headers().asHttpHeaders())),
+                handler::handleRequest);
+    }
+}
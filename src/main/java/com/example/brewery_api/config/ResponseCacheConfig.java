@@ -0,0 +1,48 @@
+package com.example.brewery_api.config;
+
+import com.example.brewery_api.cache.EntityVersions;
+import com.example.brewery_api.cache.ResponseCacheFilter;
+import com.example.brewery_api.cache.ResponseCachePolicyAnalyzer;
+import com.example.brewery_api.persisted.PersistedQueryRegistry;
+import com.example.brewery_api.service.BeerService;
+import com.example.brewery_api.service.BreweryService;
+import com.example.brewery_api.service.ReviewService;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnWebApplication;
+import org.springframework.boot.web.servlet.FilterRegistrationBean;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.graphql.execution.GraphQlSource;
+
+/**
+ * Opt-in whole-response cache in front of the GraphQL endpoint, see {@link ResponseCacheFilter}.
+ * The filter is a servlet filter, so the reactive profile runs without it.
+ */
+@Configuration
+@ConditionalOnProperty(name = "app.response-cache.enabled", havingValue = "true")
+@ConditionalOnWebApplication(type = ConditionalOnWebApplication.Type.SERVLET)
+public class ResponseCacheConfig {
+
+    @Bean
+    public EntityVersions entityVersions(BreweryService breweryService, BeerService beerService,
+                                         ReviewService reviewService) {
+        return new EntityVersions(breweryService, beerService, reviewService);
+    }
+
+    @Bean
+    public FilterRegistrationBean<ResponseCacheFilter> responseCacheFilter(
+            ObjectMapper objectMapper, GraphQlSource graphQlSource, PersistedQueryRegistry persistedQueries,
+            EntityVersions entityVersions, MeterRegistry meterRegistry,
+            @Value("${spring.graphql.path:/graphql}") String path,
+            @Value("${app.response-cache.max-entries:1000}") long maxEntries,
+            @Value("${app.response-cache.default-max-age:0}") long defaultMaxAge) {
+        ResponseCachePolicyAnalyzer analyzer = new ResponseCachePolicyAnalyzer(graphQlSource::schema, defaultMaxAge, maxEntries);
+        FilterRegistrationBean<ResponseCacheFilter> registration = new FilterRegistrationBean<>(
+                new ResponseCacheFilter(objectMapper, analyzer, persistedQueries, entityVersions, maxEntries, meterRegistry));
+        registration.addUrlPatterns(path);
+        return registration;
+    }
+}
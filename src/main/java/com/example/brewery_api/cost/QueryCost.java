@@ -0,0 +1,22 @@
+package com.example.brewery_api.cost;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * Result of a pre-execution cost estimate.
+ *
+ * @param estimated estimated number of objects resolved, weighted by field cost
+ * @param depth     deepest selection level in the operation
+ */
+public record QueryCost(double estimated, int depth) {
+
+    public Map<String, Object> toExtension(double budget, int maxDepth) {
+        Map<String, Object> extension = new LinkedHashMap<>();
+        extension.put("estimated", Math.round(estimated * 100) / 100.0);
+        extension.put("budget", budget);
+        extension.put("depth", depth);
+        extension.put("maxDepth", maxDepth);
+        return extension;
+    }
+}
@@ -0,0 +1,130 @@
+package com.example.brewery_api.cost;
+
+import com.example.brewery_api.service.BeerService;
+import com.example.brewery_api.service.BreweryService;
+import com.example.brewery_api.service.ReviewService;
+import graphql.normalized.ExecutableNormalizedField;
+import graphql.normalized.ExecutableNormalizedOperation;
+import graphql.schema.GraphQLFieldDefinition;
+import graphql.schema.GraphQLSchema;
+import graphql.schema.GraphQLTypeUtil;
+import org.springframework.core.env.Environment;
+import org.springframework.stereotype.Component;
+
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Estimates the cost of an operation before it runs.
+ * <p>
+ * Each field resolves {@code parentCount × fanOut} objects, where the fan-out of a list field is
+ * taken from the live store cardinalities (e.g. average beers per brewery) and is 1 for singular
+ * fields. The field contributes that object count times its unit cost: 1 for object fields and 0
+ * for scalars, overridable per field with {@code app.query.cost.field.<Type.field>=N}.
+ * <p>
+ * Connection fields are sized by their {@code first} argument (capped by the expected list size)
+ * and their wrapper types ({@code *Connection}, {@code *Edge}, {@code PageInfo}) cost nothing, so
+ * a page is charged for its nodes only. A plain list field with a {@code first} argument is capped
+ * at it the same way.
+ */
+@Component
+public class QueryCostCalculator {
+    private static final Double NO_OVERRIDE = Double.NaN;
+
+    private final BreweryService breweryService;
+    private final BeerService beerService;
+    private final ReviewService reviewService;
+    private final Environment environment;
+    private final Map<String, Double> fieldCostOverrides = new ConcurrentHashMap<>();
+
+    public QueryCostCalculator(BreweryService breweryService, BeerService beerService,
+                               ReviewService reviewService, Environment environment) {
+        this.breweryService = breweryService;
+        this.beerService = beerService;
+        this.reviewService = reviewService;
+        this.environment = environment;
+    }
+
+    public QueryCost calculate(ExecutableNormalizedOperation operation, GraphQLSchema schema) {
+        double total = 0;
+        int depth = 0;
+        for (ExecutableNormalizedField field : operation.getTopLevelFields()) {
+            FieldCost fieldCost = cost(field, schema, 1, 0);
+            total += fieldCost.cost;
+            depth = Math.max(depth, fieldCost.depth);
+        }
+        return new QueryCost(total, depth);
+    }
+
+    private FieldCost cost(ExecutableNormalizedField field, GraphQLSchema schema, double parentCount, double pageSize) {
+        List<GraphQLFieldDefinition> definitions = field.getFieldDefinitions(schema);
+        GraphQLFieldDefinition definition = definitions.get(0);
+        String coordinate = field.getSingleObjectTypeName() + "." + field.getFieldName();
+        String typeName = GraphQLTypeUtil.unwrapAll(definition.getType()).getName();
+        boolean list = GraphQLTypeUtil.isList(GraphQLTypeUtil.unwrapNonNull(definition.getType()));
+
+        double childPageSize = 0;
+        if (typeName.endsWith("Connection")) {
+            // Query.beersConnection is sized like Query.beers, capped at the requested page
+            String listCoordinate = coordinate.substring(0, coordinate.length() - "Connection".length());
+            Object first = field.getResolvedArguments().get("first");
+            double expected = fanOut(listCoordinate);
+            childPageSize = first instanceof Number number ? Math.min(number.doubleValue(), expected) : expected;
+        }
+        double fanOut = list ? (field.getSingleObjectTypeName().endsWith("Connection") ? pageSize : fanOut(coordinate)) : 1;
+        if (list && field.getResolvedArguments().get("first") instanceof Number first) {
+            // plain lists with a limit, such as search results
+            fanOut = Math.min(fanOut, first.doubleValue());
+        }
+        double count = parentCount * fanOut;
+
+        double unitCost = unitCost(coordinate, typeName, GraphQLTypeUtil.isLeaf(definition.getType()));
+        double cost = count * unitCost;
+        int depth = field.getLevel();
+        for (ExecutableNormalizedField child : field.getChildren()) {
+            FieldCost childCost = cost(child, schema, count, childPageSize);
+            cost += childCost.cost;
+            depth = Math.max(depth, childCost.depth);
+        }
+        return new FieldCost(cost, depth);
+    }
+
+    /**
+     * Expected size of a list field, from the current store sizes.
+     */
+    double fanOut(String coordinate) {
+        int breweries = breweryService.getBreweryCount();
+        int beers = beerService.getBeerCount();
+        int reviews = reviewService.getReviewCount();
+        return switch (coordinate) {
+            case "Query.breweries" -> breweries;
+            case "Query.beers" -> beers;
+            case "Query.reviews" -> reviews;
+            case "Brewery.beers" -> ratio(beers, breweries);
+            case "Beer.reviews" -> ratio(reviews, beers);
+            case "Query.searchBeers" -> beers;
+            case "Query.searchReviews" -> reviews;
+            default -> environment.getProperty("app.query.cost.default-list-size", Double.class, 10.0);
+        };
+    }
+
+    private double unitCost(String coordinate, String typeName, boolean leaf) {
+        Double override = fieldCostOverrides.computeIfAbsent(coordinate, key ->
+                environment.getProperty("app.query.cost.field." + key, Double.class, NO_OVERRIDE));
+        if (!override.isNaN()) {
+            return override;
+        }
+        if (leaf || typeName.endsWith("Connection") || typeName.endsWith("Edge") || typeName.equals("PageInfo")) {
+            return 0;
+        }
+        return 1;
+    }
+
+    private static double ratio(int numerator, int denominator) {
+        return denominator == 0 ? 0 : Math.max(1.0, (double) numerator / denominator);
+    }
+
+    private record FieldCost(double cost, int depth) {
+    }
+}
@@ -0,0 +1,184 @@
+package com.example.brewery_api.cost;
+
+import com.example.brewery_api.persisted.PreparsedDocument;
+import graphql.ExecutionResult;
+import graphql.ExecutionResultImpl;
+import graphql.execution.AbortExecutionException;
+import graphql.execution.ExecutionContext;
+import graphql.execution.instrumentation.InstrumentationContext;
+import graphql.execution.instrumentation.InstrumentationState;
+import graphql.execution.instrumentation.SimpleInstrumentationContext;
+import graphql.execution.instrumentation.SimplePerformantInstrumentation;
+import graphql.execution.instrumentation.parameters.InstrumentationCreateStateParameters;
+import graphql.execution.instrumentation.parameters.InstrumentationExecuteOperationParameters;
+import graphql.execution.instrumentation.parameters.InstrumentationExecutionParameters;
+import graphql.incremental.DelayedIncrementalPartialResult;
+import graphql.incremental.IncrementalExecutionResult;
+import graphql.incremental.IncrementalExecutionResultImpl;
+import graphql.normalized.ExecutableNormalizedOperation;
+import org.reactivestreams.Publisher;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Component;
+import reactor.core.publisher.Flux;
+
+import java.util.Arrays;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.function.Supplier;
+
+/**
+ * Computes the {@link QueryCost} of every operation after validation and before execution, and
+ * returns it under the {@code cost} response extension.
+ * <p>
+ * Operations over {@code app.query.cost.max-depth} are always rejected. Operations over
+ * {@code app.query.cost.budget} are handled according to {@code app.query.cost.mode}:
+ * <ul>
+ *   <li>{@code reject} – fail the request before any resolver runs;</li>
+ *   <li>{@code throttle} – run it, but at most {@code app.query.cost.throttle.permits} such
+ *   operations at a time, rejecting those that cannot get a permit within
+ *   {@code app.query.cost.throttle.wait-ms}. An operation with {@code @defer} holds its permit
+ *   until its last deferred payload is delivered or the client goes away;</li>
+ *   <li>{@code log} – run it and log a warning.</li>
+ * </ul>
+ */
+@Component
+@ConditionalOnProperty(name = "app.query.cost.enabled", havingValue = "true", matchIfMissing = true)
+public class QueryCostInstrumentation extends SimplePerformantInstrumentation {
+    private static final Logger logger = LoggerFactory.getLogger(QueryCostInstrumentation.class);
+
+    private final QueryCostCalculator calculator;
+    private final double budget;
+    private final int maxDepth;
+    private final String mode;
+    private final Semaphore expensiveQueryPermits;
+    private final long throttleWaitMillis;
+
+    public QueryCostInstrumentation(QueryCostCalculator calculator,
+                                    @Value("${app.query.cost.budget:10000}") double budget,
+                                    @Value("${app.query.cost.max-depth:10}") int maxDepth,
+                                    @Value("${app.query.cost.mode:reject}") String mode,
+                                    @Value("${app.query.cost.throttle.permits:2}") int throttlePermits,
+                                    @Value("${app.query.cost.throttle.wait-ms:500}") long throttleWaitMillis) {
+        this.calculator = calculator;
+        this.budget = budget;
+        this.maxDepth = maxDepth;
+        this.mode = mode;
+        this.expensiveQueryPermits = new Semaphore(throttlePermits);
+        this.throttleWaitMillis = throttleWaitMillis;
+    }
+
+    @Override
+    public InstrumentationState createState(InstrumentationCreateStateParameters parameters) {
+        return new CostState();
+    }
+
+    @Override
+    public InstrumentationContext<ExecutionResult> beginExecuteOperation(InstrumentationExecuteOperationParameters parameters,
+                                                                         InstrumentationState state) {
+        ExecutionContext executionContext = parameters.getExecutionContext();
+        Supplier<ExecutableNormalizedOperation> normalizer = executionContext.getNormalizedQueryTree();
+        // a cached document keeps the normalized operation per operation and variables, so repeats
+        // skip normalization; the cost itself follows the current store sizes
+        PreparsedDocument document = executionContext.getGraphQLContext().get(PreparsedDocument.class);
+        ExecutableNormalizedOperation operation = document != null
+                ? document.plan(Arrays.asList(ExecutableNormalizedOperation.class,
+                        executionContext.getExecutionInput().getOperationName(),
+                        executionContext.getExecutionInput().getVariables()), normalizer)
+                : normalizer.get();
+        QueryCost cost = calculator.calculate(operation, executionContext.getGraphQLSchema());
+        CostState costState = (CostState) state;
+        costState.cost = cost;
+
+        if (cost.depth() > maxDepth) {
+            throw new AbortExecutionException("Query depth " + cost.depth() + " exceeds the maximum of " + maxDepth);
+        }
+        if (cost.estimated() <= budget) {
+            return null;
+        }
+        switch (mode) {
+            case "log":
+                logger.warn("Query cost {} exceeds budget {}", cost.estimated(), budget);
+                return null;
+            case "throttle":
+                if (!acquireThrottlePermit()) {
+                    throw new AbortExecutionException(String.format(
+                            "Query cost %.0f exceeds budget %.0f and the expensive query limit is reached", cost.estimated(), budget));
+                }
+                Runnable release = releaseOnce();
+                costState.release = release;
+                return SimpleInstrumentationContext.whenCompleted((result, throwable) -> {
+                    // a completed operation releases in instrumentExecutionResult, after any deferred payloads
+                    if (throwable != null) {
+                        release.run();
+                    }
+                });
+            default:
+                throw new AbortExecutionException(String.format("Query cost %.0f exceeds budget %.0f", cost.estimated(), budget));
+        }
+    }
+
+    @Override
+    public CompletableFuture<ExecutionResult> instrumentExecutionResult(ExecutionResult executionResult,
+                                                                        InstrumentationExecutionParameters parameters,
+                                                                        InstrumentationState state) {
+        QueryCost cost = state instanceof CostState costState ? costState.cost : null;
+        if (cost == null) {
+            return CompletableFuture.completedFuture(executionResult);
+        }
+        Map<Object, Object> extensions = new LinkedHashMap<>();
+        if (executionResult.getExtensions() != null) {
+            extensions.putAll(executionResult.getExtensions());
+        }
+        extensions.put("cost", cost.toExtension(budget, maxDepth));
+        // a throttled operation holds its permit until the last deferred payload or cancellation
+        Runnable release = ((CostState) state).release;
+        // a copy of an @defer result must keep its publisher of deferred payloads
+        if (executionResult instanceof IncrementalExecutionResult incremental) {
+            Publisher<DelayedIncrementalPartialResult> payloads = release != null
+                    ? Flux.from(incremental.getIncrementalItemPublisher()).doFinally(signal -> release.run())
+                    : incremental.getIncrementalItemPublisher();
+            return CompletableFuture.completedFuture(IncrementalExecutionResultImpl.newIncrementalExecutionResult()
+                    .from(incremental)
+                    .incrementalItemPublisher(payloads)
+                    .extensions(extensions)
+                    .build());
+        }
+        if (release != null) {
+            release.run();
+        }
+        return CompletableFuture.completedFuture(ExecutionResultImpl.newExecutionResult()
+                .from(executionResult)
+                .extensions(extensions)
+                .build());
+    }
+
+    private Runnable releaseOnce() {
+        AtomicBoolean released = new AtomicBoolean();
+        return () -> {
+            if (released.compareAndSet(false, true)) {
+                expensiveQueryPermits.release();
+            }
+        };
+    }
+
+    private boolean acquireThrottlePermit() {
+        try {
+            return expensiveQueryPermits.tryAcquire(throttleWaitMillis, TimeUnit.MILLISECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            return false;
+        }
+    }
+
+    private static final class CostState implements InstrumentationState {
+        volatile QueryCost cost;
+        volatile Runnable release;
+    }
+}
@@ -0,0 +1,137 @@
+package com.example.brewery_api.dataloader;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.util.Map;
+import java.util.Queue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.Executor;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Function;
+import java.util.function.Supplier;
+
+/**
+ * Runs batch loader functions off the JVM-wide common pool.
+ * <p>
+ * All loaders share one dispatch {@link Executor} (a bounded platform pool, virtual threads, or the
+ * calling thread), and each loader additionally gets its own concurrency limit: when a loader
+ * already has its maximum number of batches in flight, further batches wait in that loader's queue
+ * instead of occupying pool threads, so one heavy query cannot starve the other loaders. A loader
+ * whose queue is full runs the batch on the calling thread, which pushes back on the dispatcher.
+ */
+public class BatchLoaderExecutor implements AutoCloseable {
+    private static final Logger logger = LoggerFactory.getLogger(BatchLoaderExecutor.class);
+
+    private final Executor executor;
+    private final Function<String, Integer> concurrencyFor;
+    private final int maxQueuedPerLoader;
+    private final Map<String, LoaderLane> lanes = new ConcurrentHashMap<>();
+
+    public BatchLoaderExecutor(Executor executor, Function<String, Integer> concurrencyFor, int maxQueuedPerLoader) {
+        this.executor = executor;
+        this.concurrencyFor = concurrencyFor;
+        this.maxQueuedPerLoader = maxQueuedPerLoader;
+    }
+
+    public <T> CompletableFuture<T> supply(String loaderName, Supplier<T> batchFunction) {
+        CompletableFuture<T> future = new CompletableFuture<>();
+        lanes.computeIfAbsent(loaderName, name -> new LoaderLane(name, concurrencyFor.apply(name)))
+                .submit(() -> {
+                    try {
+                        future.complete(batchFunction.get());
+                    } catch (Throwable e) {
+                        future.completeExceptionally(e);
+                    }
+                });
+        return future;
+    }
+
+    /**
+     * Exposes one loader's lane as a plain {@link Executor}, for background work such as cache
+     * refreshes that should share the loader's concurrency limit.
+     */
+    public Executor executorFor(String loaderName) {
+        return command -> supply(loaderName, () -> {
+            command.run();
+            return null;
+        });
+    }
+
+    @Override
+    public void close() {
+        if (executor instanceof ExecutorService executorService) {
+            executorService.shutdown();
+            try {
+                if (!executorService.awaitTermination(5, TimeUnit.SECONDS)) {
+                    executorService.shutdownNow();
+                }
+            } catch (InterruptedException e) {
+                executorService.shutdownNow();
+                Thread.currentThread().interrupt();
+            }
+        }
+    }
+
+    /**
+     * Per-loader admission: at most {@code limit} batches of one loader are handed to the shared
+     * executor at a time; the rest queue here and are released as running batches finish.
+     */
+    private final class LoaderLane {
+        private final String name;
+        private final int limit;
+        private final AtomicInteger running = new AtomicInteger();
+        private final AtomicInteger queued = new AtomicInteger();
+        private final Queue<Runnable> pending = new ConcurrentLinkedQueue<>();
+
+        LoaderLane(String name, int limit) {
+            this.name = name;
+            this.limit = Math.max(1, limit);
+        }
+
+        void submit(Runnable task) {
+            if (queued.incrementAndGet() > maxQueuedPerLoader) {
+                queued.decrementAndGet();
+                logger.debug("Queue for loader {} is full, running batch on the calling thread", name);
+                task.run();
+                return;
+            }
+            pending.add(task);
+            drain();
+        }
+
+        private void drain() {
+            while (true) {
+                int current = running.get();
+                if (current >= limit || pending.isEmpty()) {
+                    return;
+                }
+                if (!running.compareAndSet(current, current + 1)) {
+                    continue;
+                }
+                Runnable next = pending.poll();
+                if (next == null) {
+                    running.decrementAndGet();
+                    // a task may have been added between the isEmpty check and the poll
+                    if (pending.isEmpty()) {
+                        return;
+                    }
+                    continue;
+                }
+                queued.decrementAndGet();
+                executor.execute(() -> {
+                    try {
+                        next.run();
+                    } finally {
+                        running.decrementAndGet();
+                        drain();
+                    }
+                });
+            }
+        }
+    }
+}
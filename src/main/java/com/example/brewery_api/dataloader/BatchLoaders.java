@@ -0,0 +1,78 @@
+package com.example.brewery_api.dataloader;
+
+import com.example.brewery_api.instrumentation.GraphQLMetrics;
+import com.example.brewery_api.tracing.RequestTrace;
+import graphql.GraphQLContext;
+import org.dataloader.BatchLoaderWithContext;
+import org.dataloader.DataLoaderFactory;
+import org.dataloader.DataLoaderOptions;
+import org.dataloader.DataLoaderRegistry;
+import org.dataloader.stats.SimpleStatisticsCollector;
+import org.springframework.graphql.execution.DataLoaderRegistrar;
+
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.function.Function;
+import java.util.function.Supplier;
+
+/**
+ * Registers {@link KeyedBatchLoader}s as per-request DataLoaders. Each batch runs on the loader's
+ * {@link BatchLoaderExecutor} lane with metrics and, for sampled requests, a trace span, and hands
+ * its key-aligned slots to DataLoader as they are, so unlike the Flux loaders of Spring's
+ * {@code BatchLoaderRegistry} a missing value or a failed key cannot shift the values after it.
+ * <p>
+ * Every DataLoader collects statistics, which
+ * {@link com.example.brewery_api.instrumentation.MetricsInstrumentation} records per request, and
+ * splits its dispatches at the loader's {@link BatchSettings#maxBatchSize()}. Loaders are
+ * registered at startup and read concurrently afterwards.
+ */
+public class BatchLoaders implements DataLoaderRegistrar {
+    private final BatchLoaderExecutor executor;
+    private final GraphQLMetrics metrics;
+    private final Function<String, BatchSettings> settingsFor;
+    private final Map<String, KeyedBatchLoader<?, ?>> loaders = new LinkedHashMap<>();
+    private final Map<String, BatchSettings> settings = new LinkedHashMap<>();
+
+    public BatchLoaders(BatchLoaderExecutor executor, GraphQLMetrics metrics,
+                        Function<String, BatchSettings> settingsFor) {
+        this.executor = executor;
+        this.metrics = metrics;
+        this.settingsFor = settingsFor;
+    }
+
+    public synchronized <K, V> void register(String name, KeyedBatchLoader<K, V> loader) {
+        if (loaders.putIfAbsent(name, loader) != null) {
+            throw new IllegalStateException("Batch loader " + name + " is already registered");
+        }
+        settings.put(name, settingsFor.apply(name));
+    }
+
+    public BatchSettings settings(String name) {
+        return settings.getOrDefault(name, BatchSettings.UNBOUNDED);
+    }
+
+    @Override
+    public boolean hasRegistrations() {
+        return !loaders.isEmpty();
+    }
+
+    @Override
+    public void registerDataLoaders(DataLoaderRegistry registry, GraphQLContext context) {
+        loaders.forEach((name, loader) -> registry.register(name, DataLoaderFactory.newDataLoader(
+                batchLoader(name, loader),
+                DataLoaderOptions.newOptions()
+                        .setBatchLoaderContextProvider(() -> context)
+                        .setStatisticsCollector(SimpleStatisticsCollector::new)
+                        // DataLoader splits into chunks only when this is positive
+                        .setMaxBatchSize(settings(name).maxBatchSize()))));
+    }
+
+    private <K, V> BatchLoaderWithContext<K, V> batchLoader(String name, KeyedBatchLoader<K, V> loader) {
+        return (keys, environment) -> {
+            Supplier<List<V>> batch = () -> loader.load(keys);
+            return executor.supply(name, RequestTrace.tracedBatch(environment.getContext(), name, keys.size(),
+                    metrics.timedBatch(name, keys.size(), batch)));
+        };
+    }
+}
@@ -0,0 +1,57 @@
+package com.example.brewery_api.dataloader;
+
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * The values of one batch, one slot per key and in key order. A slot is the key's value, null when
+ * the key has none, or the error loading that key failed with.
+ * <p>
+ * {@link #values()} hands the slots to DataLoader without copying; DataLoader completes the future
+ * of a key whose slot holds a {@link Throwable} exceptionally, so loaded values must not be
+ * throwables themselves.
+ */
+public final class BatchResult<V> {
+    private final Object[] slots;
+
+    public BatchResult(int size) {
+        this.slots = new Object[size];
+    }
+
+    public int size() {
+        return slots.length;
+    }
+
+    public void set(int index, V value) {
+        slots[index] = value;
+    }
+
+    public void fail(int index, Throwable error) {
+        slots[index] = error;
+    }
+
+    public void failAll(Throwable error) {
+        Arrays.fill(slots, error);
+    }
+
+    public boolean isFailed(int index) {
+        return slots[index] instanceof Throwable;
+    }
+
+    @SuppressWarnings("unchecked")
+    public V value(int index) {
+        return isFailed(index) ? null : (V) slots[index];
+    }
+
+    public Throwable error(int index) {
+        return slots[index] instanceof Throwable error ? error : null;
+    }
+
+    /**
+     * A fixed-size list view of the slots, failed ones included, as DataLoader expects it.
+     */
+    @SuppressWarnings("unchecked")
+    public List<V> values() {
+        return (List<V>) Arrays.asList(slots);
+    }
+}
@@ -0,0 +1,41 @@
+package com.example.brewery_api.dataloader;
+
+import org.dataloader.DataLoader;
+
+import java.time.Duration;
+
+/**
+ * Per-loader batching limits.
+ * <p>
+ * A dispatch of more than {@code maxBatchSize} keys is split into chunks that run as separate
+ * batches on the loader's {@link BatchLoaderExecutor} lane, up to its concurrency limit in
+ * parallel. A dispatch window lets a loader whose backend prefers larger batches sit out dispatch
+ * rounds of a {@link TreeDispatchRegistry} while other loaders can still queue keys for it, until
+ * it holds {@code windowKeys} keys or {@code windowWait} has passed since its last dispatch.
+ *
+ * @param maxBatchSize largest batch handed to the loader, or 0 for no limit
+ * @param windowKeys   queued keys that end the window, or 0 for none
+ * @param windowWait   time since the last dispatch that ends the window, or zero for none
+ */
+public record BatchSettings(int maxBatchSize, int windowKeys, Duration windowWait) {
+    public static final BatchSettings UNBOUNDED = new BatchSettings(0, 0, Duration.ZERO);
+
+    public BatchSettings {
+        if (maxBatchSize < 0 || windowKeys < 0 || windowWait.isNegative()) {
+            throw new IllegalArgumentException("Batch settings must not be negative");
+        }
+    }
+
+    public boolean hasWindow() {
+        return windowKeys > 0 || !windowWait.isZero();
+    }
+
+    /**
+     * Whether the loader's window, if it has one, is over.
+     */
+    boolean windowClosed(DataLoader<?, ?> dataLoader) {
+        return !hasWindow()
+                || windowKeys > 0 && dataLoader.dispatchDepth() >= windowKeys
+                || !windowWait.isZero() && dataLoader.getTimeSinceDispatch().compareTo(windowWait) >= 0;
+    }
+}
@@ -0,0 +1,84 @@
+package com.example.brewery_api.dataloader;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.function.Function;
+
+/**
+ * A batch function that fills one {@link BatchResult} slot per key, so values line up with their
+ * keys whatever the backend returns: a key without a value leaves its slot null, and a key that
+ * fails gets an error slot without failing the rest of the batch.
+ */
+@FunctionalInterface
+public interface KeyedBatchLoader<K, V> {
+
+    void load(List<K> keys, BatchResult<V> result);
+
+    default List<V> load(List<K> keys) {
+        BatchResult<V> result = new BatchResult<>(keys.size());
+        load(keys, result);
+        return result.values();
+    }
+
+    /**
+     * One point lookup per key; an exception fails only the key it was thrown for.
+     */
+    static <K, V> KeyedBatchLoader<K, V> perKey(Function<? super K, ? extends V> lookup) {
+        return (keys, result) -> {
+            int index = 0;
+            for (K key : keys) {
+                try {
+                    result.set(index, lookup.apply(key));
+                } catch (RuntimeException e) {
+                    result.fail(index, e);
+                }
+                index++;
+            }
+        };
+    }
+
+    /**
+     * One bulk lookup for the whole batch, for backends such as the L2 cache that resolve misses
+     * together. Keys missing from the returned map get null; if the lookup throws, every key of
+     * the batch fails with that exception.
+     */
+    static <K, V> KeyedBatchLoader<K, V> bulk(Function<? super List<K>, ? extends Map<K, ? extends V>> lookup) {
+        return (keys, result) -> {
+            Map<K, ? extends V> values;
+            try {
+                values = lookup.apply(keys);
+            } catch (RuntimeException e) {
+                result.failAll(e);
+                return;
+            }
+            int index = 0;
+            for (K key : keys) {
+                result.set(index++, values.get(key));
+            }
+        };
+    }
+
+    /**
+     * As {@link #bulk(Function)}, for keys that carry more than the id the backend is keyed by.
+     */
+    static <K, I, V> KeyedBatchLoader<K, V> bulk(Function<? super K, ? extends I> idOf,
+                                                 Function<? super List<I>, ? extends Map<I, ? extends V>> lookup) {
+        return (keys, result) -> {
+            List<I> ids = new ArrayList<>(keys.size());
+            for (K key : keys) {
+                ids.add(idOf.apply(key));
+            }
+            Map<I, ? extends V> values;
+            try {
+                values = lookup.apply(ids);
+            } catch (RuntimeException e) {
+                result.failAll(e);
+                return;
+            }
+            for (int i = 0; i < ids.size(); i++) {
+                result.set(i, values.get(ids.get(i)));
+            }
+        };
+    }
+}
@@ -0,0 +1,14 @@
+package com.example.brewery_api.dataloader;
+
+import com.example.brewery_api.store.Projection;
+
+/**
+ * DataLoader key for a list loader that serves projections: the parent id plus the fields the
+ * selection leaves out, so one request asking for different fields of the same parent gets
+ * separate values instead of whichever was loaded first.
+ *
+ * @param id         id of the entity that owns the list
+ * @param projection fields of the listed entities the selection does not ask for
+ */
+public record ProjectedKey(String id, Projection projection) {
+}
@@ -0,0 +1,89 @@
+package com.example.brewery_api.dataloader;
+
+import graphql.ExecutionInput;
+import graphql.ExecutionResult;
+import graphql.execution.instrumentation.InstrumentationContext;
+import graphql.execution.instrumentation.InstrumentationState;
+import graphql.execution.instrumentation.SimplePerformantInstrumentation;
+import graphql.execution.instrumentation.parameters.InstrumentationExecuteOperationParameters;
+import graphql.execution.instrumentation.parameters.InstrumentationExecutionParameters;
+import graphql.execution.instrumentation.parameters.InstrumentationFieldFetchParameters;
+import graphql.schema.DataFetcher;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Component;
+
+import java.util.concurrent.atomic.AtomicBoolean;
+
+/**
+ * Replaces each request's DataLoader registry with a {@link TreeDispatchRegistry} and reports to it
+ * when the synchronous part of the execution is done and which data fetchers are running. With
+ * {@code app.dataloader.dispatch=level} graphql-java's per-level dispatch is used instead, which
+ * ignores dispatch windows.
+ */
+@Component
+@ConditionalOnProperty(name = "app.dataloader.dispatch", havingValue = "tree", matchIfMissing = true)
+public class TreeDispatchInstrumentation extends SimplePerformantInstrumentation {
+    private final BatchLoaders batchLoaders;
+
+    public TreeDispatchInstrumentation(BatchLoaders batchLoaders) {
+        this.batchLoaders = batchLoaders;
+    }
+
+    @Override
+    public ExecutionInput instrumentExecutionInput(ExecutionInput executionInput,
+                                                   InstrumentationExecutionParameters parameters,
+                                                   InstrumentationState state) {
+        if (executionInput.getDataLoaderRegistry().getKeys().isEmpty()) {
+            return executionInput;
+        }
+        TreeDispatchRegistry registry = new TreeDispatchRegistry(executionInput.getDataLoaderRegistry(),
+                batchLoaders::settings);
+        return executionInput.transform(builder -> builder.dataLoaderRegistry(registry));
+    }
+
+    @Override
+    public InstrumentationContext<ExecutionResult> beginExecuteOperation(InstrumentationExecuteOperationParameters parameters,
+                                                                         InstrumentationState state) {
+        if (!(parameters.getExecutionContext().getDataLoaderRegistry() instanceof TreeDispatchRegistry registry)) {
+            return null;
+        }
+        registry.hold();
+        return new ReleaseOnDispatch(registry);
+    }
+
+    @Override
+    public DataFetcher<?> instrumentDataFetcher(DataFetcher<?> dataFetcher, InstrumentationFieldFetchParameters parameters,
+                                                InstrumentationState state) {
+        if (parameters.isTrivialDataFetcher()
+                || !(parameters.getExecutionContext().getDataLoaderRegistry() instanceof TreeDispatchRegistry registry)) {
+            return dataFetcher;
+        }
+        return environment -> registry.fetch(dataFetcher, environment);
+    }
+
+    // the operation's fields have all been fetched or are waiting on loads once it is dispatched
+    private static final class ReleaseOnDispatch implements InstrumentationContext<ExecutionResult> {
+        private final TreeDispatchRegistry registry;
+        private final AtomicBoolean released = new AtomicBoolean();
+
+        ReleaseOnDispatch(TreeDispatchRegistry registry) {
+            this.registry = registry;
+        }
+
+        @Override
+        public void onDispatched() {
+            release();
+        }
+
+        @Override
+        public void onCompleted(ExecutionResult result, Throwable t) {
+            release();
+        }
+
+        private void release() {
+            if (released.compareAndSet(false, true)) {
+                registry.release();
+            }
+        }
+    }
+}
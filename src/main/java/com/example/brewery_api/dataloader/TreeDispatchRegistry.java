@@ -0,0 +1,151 @@
+package com.example.brewery_api.dataloader;
+
+import graphql.TrivialDataFetcher;
+import graphql.language.Field;
+import graphql.schema.DataFetcher;
+import graphql.schema.DataFetchingEnvironment;
+import graphql.schema.GraphQLCodeRegistry;
+import graphql.schema.GraphQLFieldDefinition;
+import graphql.schema.GraphQLObjectType;
+import graphql.schema.SelectedField;
+import org.dataloader.DataLoader;
+import org.dataloader.DataLoaderRegistry;
+import org.dataloader.DispatchResult;
+
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Function;
+
+/**
+ * Request-scoped registry that dispatches when the whole query tree is stalled instead of once per
+ * level.
+ * <p>
+ * The registry counts the work that can still queue loads: the synchronous part of the execution
+ * and every batch in flight, whose completion resolves fields and fetches their children on the
+ * completing thread. Only when that count drops to zero, so that every resolvable field of every
+ * path has queued its keys, does it dispatch, and graphql-java's per-level calls in between are
+ * ignored. Keys one loader collects from sibling, cousin and deeper paths therefore share a batch.
+ * <p>
+ * Loads from fields whose selection resolves with property fetchers only cannot lead to further
+ * loads, so a loader holding nothing but such keys is left queued while another loader has keys
+ * that can, and joins a later batch of the same loader from deeper in the tree. When only such
+ * loaders are left, all of them are dispatched. A loader with a {@link BatchSettings dispatch window}
+ * is held the same way until its window is over.
+ * <p>
+ * Calls from executions the registry does not track, such as the continuations of a mutation's
+ * write, find it idle and dispatch at once.
+ */
+public class TreeDispatchRegistry extends DataLoaderRegistry {
+    // whether the data fetcher running on this thread has non-trivial fetchers in its selection
+    private static final ThreadLocal<Boolean> LOADS_BELOW = new ThreadLocal<>();
+
+    private final Function<String, BatchSettings> settings;
+    private final AtomicInteger busy = new AtomicInteger();
+    private final Set<String> leadingLoaders = ConcurrentHashMap.newKeySet();
+    private final Map<Field, Boolean> loadsBelow = new ConcurrentHashMap<>();
+
+    public TreeDispatchRegistry(DataLoaderRegistry loaders, Function<String, BatchSettings> settings) {
+        dataLoaders.putAll(loaders.getDataLoadersMap());
+        this.settings = settings;
+    }
+
+    /**
+     * Marks the start of work that can queue loads; each call must be paired with {@link #release()}.
+     */
+    public void hold() {
+        busy.incrementAndGet();
+    }
+
+    public void release() {
+        if (busy.decrementAndGet() == 0) {
+            dispatchIfIdle();
+        }
+    }
+
+    /**
+     * Runs a data fetcher, remembering whether the loads it queues can lead to further loads.
+     */
+    public Object fetch(DataFetcher<?> dataFetcher, DataFetchingEnvironment environment) throws Exception {
+        Boolean previous = LOADS_BELOW.get();
+        LOADS_BELOW.set(loadsBelow.computeIfAbsent(environment.getField(), field -> hasLoadsBelow(environment)));
+        try {
+            return dataFetcher.get(environment);
+        } finally {
+            LOADS_BELOW.set(previous);
+        }
+    }
+
+    @Override
+    public <K, V> DataLoader<K, V> getDataLoader(String key) {
+        if (Boolean.TRUE.equals(LOADS_BELOW.get())) {
+            leadingLoaders.add(key);
+        }
+        return super.getDataLoader(key);
+    }
+
+    @Override
+    public void dispatchAll() {
+        dispatchIfIdle();
+    }
+
+    @Override
+    public int dispatchAllWithCount() {
+        return dispatchIfIdle();
+    }
+
+    private int dispatchIfIdle() {
+        int keys = 0;
+        while (busy.compareAndSet(0, 1)) {
+            int before = keys;
+            boolean dispatched = false;
+            boolean held = false;
+            for (Map.Entry<String, DataLoader<?, ?>> entry : dataLoaders.entrySet()) {
+                if (entry.getValue().dispatchDepth() == 0) {
+                    leadingLoaders.remove(entry.getKey());
+                } else if (leadingLoaders.contains(entry.getKey())
+                        && settings.apply(entry.getKey()).windowClosed(entry.getValue())) {
+                    leadingLoaders.remove(entry.getKey());
+                    keys += dispatch(entry.getValue());
+                    dispatched = true;
+                } else {
+                    held = true;
+                }
+            }
+            if (!dispatched && held) {
+                for (DataLoader<?, ?> dataLoader : dataLoaders.values()) {
+                    if (dataLoader.dispatchDepth() > 0) {
+                        keys += dispatch(dataLoader);
+                    }
+                }
+            }
+            // batches still in flight dispatch again when the last one completes; batches that
+            // completed on this thread may have queued more keys
+            if (busy.decrementAndGet() != 0 || keys == before) {
+                break;
+            }
+        }
+        return keys;
+    }
+
+    private int dispatch(DataLoader<?, ?> dataLoader) {
+        busy.incrementAndGet();
+        DispatchResult<?> result = dataLoader.dispatchWithCounts();
+        result.getPromisedResults().whenComplete((values, error) -> release());
+        return result.getKeysCount();
+    }
+
+    private static boolean hasLoadsBelow(DataFetchingEnvironment environment) {
+        GraphQLCodeRegistry codeRegistry = environment.getGraphQLSchema().getCodeRegistry();
+        for (SelectedField selected : environment.getSelectionSet().getFields()) {
+            for (GraphQLObjectType type : selected.getObjectTypes()) {
+                GraphQLFieldDefinition definition = type.getFieldDefinition(selected.getName());
+                if (definition != null && !(codeRegistry.getDataFetcher(type, definition) instanceof TrivialDataFetcher)) {
+                    return true;
+                }
+            }
+        }
+        return false;
+    }
+}
@@ -1,19 +1,30 @@
 package com.example.brewery_api.fetcher;
 
+import com.example.brewery_api.filter.BeerFilter;
+import com.example.brewery_api.filter.BeerSort;
+import com.example.brewery_api.dataloader.ProjectedKey;
 import com.example.brewery_api.model.Beer;
 import com.example.brewery_api.model.Brewery;
+import com.example.brewery_api.model.RatingSummary;
 import com.example.brewery_api.model.Review;
+import com.example.brewery_api.pagination.Connection;
+import com.example.brewery_api.pagination.Cursors;
+import com.example.brewery_api.pagination.PageKey;
 import com.example.brewery_api.service.BeerService;
 import com.example.brewery_api.service.BreweryService;
+import com.example.brewery_api.service.RatingAggregates;
 import com.example.brewery_api.service.ReviewService;
 import graphql.schema.DataFetcher;
 import org.dataloader.DataLoader;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.stereotype.Component;
 
 import java.util.List;
+import java.util.Set;
 import java.util.concurrent.CompletableFuture;
+import java.util.function.Function;
 
 @Component
 public class BeerDataFetcher {
@@ -21,32 +32,54 @@ public class BeerDataFetcher {
     private final BeerService beerService;
     private final BreweryService breweryService;
     private final ReviewService reviewService;
+    private final RatingAggregates ratingAggregates;
 
-    public BeerDataFetcher(BeerService beerService, BreweryService breweryService, ReviewService reviewService) {
+    @Value("${app.pagination.max-page-size:100}")
+    private int maxPageSize;
+
+    public BeerDataFetcher(BeerService beerService, BreweryService breweryService, ReviewService reviewService,
+                           RatingAggregates ratingAggregates) {
         this.beerService = beerService;
         this.breweryService = breweryService;
         this.reviewService = reviewService;
+        this.ratingAggregates = ratingAggregates;
     }
 
     public DataFetcher<Beer> getBeerById() {
         return environment -> {
             String beerId = environment.getArgument("id");
-            logger.info("Fetching beer with id: {}", beerId);
+            logger.debug("Fetching beer with id: {}", beerId);
             return beerService.getBeerById(beerId);
         };
     }
 
     public DataFetcher<List<Beer>> getAllBeers() {
         return environment -> {
-            logger.info("Fetching all beers");
-            return beerService.getAllBeers();
+            BeerFilter filter = BeerFilter.from(environment);
+            BeerSort sort = BeerSort.from(environment);
+            if (filter == BeerFilter.NONE && sort == null) {
+                logger.debug("Fetching all beers");
+                return beerService.getAllBeers();
+            }
+            logger.debug("Fetching beers matching {} sorted by {}", filter, sort);
+            Set<String> breweryIds = filter.breweryLocation() != null
+                    ? breweryService.getBreweryIdsByLocation(filter.breweryLocation())
+                    : null;
+            return beerService.findBeers(filter, breweryIds, sort);
         };
     }
 
+    public DataFetcher<Connection<Beer>> getBeersConnection() {
+        return environment -> Connection.of(
+                beerService.getBeersPage(Cursors.decode(environment.getArgument("after")),
+                        PageKey.first(environment, maxPageSize)),
+                Beer::getId);
+    }
+
     public DataFetcher<Brewery> getBeerBreweryWithoutDataLoader() {
         return environment -> {
             Beer beer = environment.getSource();
-            logger.info("Fetching brewery for beer {}: {} (without DataLoader - N+1 issue)",
+            logger.trace("Fetching brewery for beer {}: {} (without DataLoader - N+1 issue)",
                     beer.getId(), beer.getName());
             return breweryService.getBreweryById(beer.getBreweryId());
         };
@@ -56,7 +89,7 @@ public class BeerDataFetcher {
         return environment -> {
             Beer beer = environment.getSource();
             DataLoader<String, Brewery> dataLoader = environment.getDataLoader("breweryLoader");
-            logger.info("Fetching brewery for beer {}: {} (with DataLoader)",
+            logger.trace("Fetching brewery for beer {}: {} (with DataLoader)",
                     beer.getId(), beer.getName());
             return dataLoader.load(beer.getBreweryId());
         };
@@ -65,19 +98,57 @@ public class BeerDataFetcher {
     public DataFetcher<List<Review>> getBeerReviewsWithoutDataLoader() {
         return environment -> {
             Beer beer = environment.getSource();
-            logger.info("Fetching reviews for beer {}: {} (without DataLoader - N+1 issue)",
+            logger.trace("Fetching reviews for beer {}: {} (without DataLoader - N+1 issue)",
                     beer.getId(), beer.getName());
-            return reviewService.getReviewsByBeerId(beer.getId());
+            return reviewService.getReviewsByBeerId(beer.getId(), Selections.reviews(environment.getSelectionSet()));
         };
     }
 
     public DataFetcher<CompletableFuture<List<Review>>> getBeerReviewsWithDataLoader() {
         return environment -> {
             Beer beer = environment.getSource();
-            DataLoader<String, List<Review>> dataLoader = environment.getDataLoader("beerReviewsLoader");
-            logger.info("Fetching reviews for beer {}: {} (with DataLoader)",
+            DataLoader<ProjectedKey, List<Review>> dataLoader = environment.getDataLoader("beerReviewsLoader");
+            logger.trace("Fetching reviews for beer {}: {} (with DataLoader)",
                     beer.getId(), beer.getName());
-            return dataLoader.load(beer.getId());
+            return dataLoader.load(new ProjectedKey(beer.getId(), Selections.reviews(environment.getSelectionSet())));
+        };
+    }
+
+    public DataFetcher<Connection<Review>> getBeerReviewsConnectionWithoutDataLoader() {
+        return environment -> {
+            Beer beer = environment.getSource();
+            PageKey key = PageKey.of(beer.getId(), environment, maxPageSize);
+            return Connection.of(reviewService.getReviewsPageByBeerId(key.parentId(), key.afterId(), key.first()),
+                    Review::getId);
+        };
+    }
+
+    public DataFetcher<CompletableFuture<Connection<Review>>> getBeerReviewsConnectionWithDataLoader() {
+        return environment -> {
+            Beer beer = environment.getSource();
+            DataLoader<PageKey, Connection<Review>> dataLoader = environment.getDataLoader("beerReviewsPageLoader");
+            return dataLoader.load(PageKey.of(beer.getId(), environment, maxPageSize));
+        };
+    }
+
+    /**
+     * One field of the beer's {@link RatingSummary}, read from the precomputed aggregates.
+     */
+    public <V> DataFetcher<V> getBeerRatingWithoutDataLoader(Function<RatingSummary, V> field) {
+        return environment -> {
+            Beer beer = environment.getSource();
+            return field.apply(ratingAggregates.forBeer(beer.getId()));
+        };
+    }
+
+    /**
+     * One field of the beer's {@link RatingSummary}; the fields of one beer share a loader key.
+     */
+    public <V> DataFetcher<CompletableFuture<V>> getBeerRatingWithDataLoader(Function<RatingSummary, V> field) {
+        return environment -> {
+            Beer beer = environment.getSource();
+            DataLoader<String, RatingSummary> dataLoader = environment.getDataLoader("beerRatingsLoader");
+            return dataLoader.load(beer.getId()).thenApply(field);
         };
     }
-}
\ No newline at end of file
+}
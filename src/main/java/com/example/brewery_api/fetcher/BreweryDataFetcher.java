@@ -1,60 +1,116 @@
 package com.example.brewery_api.fetcher;
 
+import com.example.brewery_api.dataloader.ProjectedKey;
 import com.example.brewery_api.model.Beer;
 import com.example.brewery_api.model.Brewery;
+import com.example.brewery_api.model.RatingSummary;
+import com.example.brewery_api.pagination.Connection;
+import com.example.brewery_api.pagination.Cursors;
+import com.example.brewery_api.pagination.PageKey;
 import com.example.brewery_api.service.BeerService;
 import com.example.brewery_api.service.BreweryService;
+import com.example.brewery_api.service.RatingAggregates;
 import graphql.schema.DataFetcher;
 import org.dataloader.DataLoader;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.stereotype.Component;
 
 import java.util.List;
 import java.util.concurrent.CompletableFuture;
+import java.util.function.Function;
 
 @Component
 public class BreweryDataFetcher {
     private static final Logger logger = LoggerFactory.getLogger(BreweryDataFetcher.class);
     private final BreweryService breweryService;
     private final BeerService beerService;
+    private final RatingAggregates ratingAggregates;
 
-    public BreweryDataFetcher(BreweryService breweryService, BeerService beerService) {
+    @Value("${app.pagination.max-page-size:100}")
+    private int maxPageSize;
+
+    public BreweryDataFetcher(BreweryService breweryService, BeerService beerService,
+                              RatingAggregates ratingAggregates) {
         this.breweryService = breweryService;
         this.beerService = beerService;
+        this.ratingAggregates = ratingAggregates;
     }
 
     public DataFetcher<Brewery> getBreweryById() {
         return environment -> {
             String breweryId = environment.getArgument("id");
-            logger.info("Fetching brewery with id: {}", breweryId);
+            logger.debug("Fetching brewery with id: {}", breweryId);
             return breweryService.getBreweryById(breweryId);
         };
     }
 
     public DataFetcher<List<Brewery>> getAllBreweries() {
         return environment -> {
-            logger.info("Fetching all breweries");
+            logger.debug("Fetching all breweries");
             return breweryService.getAllBreweries();
         };
     }
 
+    public DataFetcher<Connection<Brewery>> getBreweriesConnection() {
+        return environment -> Connection.of(
+                breweryService.getBreweriesPage(Cursors.decode(environment.getArgument("after")),
+                        PageKey.first(environment, maxPageSize)),
+                Brewery::getId);
+    }
+
     public DataFetcher<List<Beer>> getBreweryBeersWithoutDataLoader() {
         return environment -> {
             Brewery brewery = environment.getSource();
-            logger.info("Fetching beers for brewery {}: {} (without DataLoader - N+1 issue)",
+            logger.trace("Fetching beers for brewery {}: {} (without DataLoader - N+1 issue)",
                     brewery.getId(), brewery.getName());
-            return beerService.getBeersByBreweryId(brewery.getId());
+            return beerService.getBeersByBreweryId(brewery.getId(), Selections.beers(environment.getSelectionSet()));
         };
     }
 
     public DataFetcher<CompletableFuture<List<Beer>>> getBreweryBeersWithDataLoader() {
         return environment -> {
             Brewery brewery = environment.getSource();
-            DataLoader<String, List<Beer>> dataLoader = environment.getDataLoader("breweryBeersLoader");
-            logger.info("Fetching beers for brewery {}: {} (with DataLoader)",
+            DataLoader<ProjectedKey, List<Beer>> dataLoader = environment.getDataLoader("breweryBeersLoader");
+            logger.trace("Fetching beers for brewery {}: {} (with DataLoader)",
                     brewery.getId(), brewery.getName());
-            return dataLoader.load(brewery.getId());
+            return dataLoader.load(new ProjectedKey(brewery.getId(), Selections.beers(environment.getSelectionSet())));
+        };
+    }
+
+    public DataFetcher<Connection<Beer>> getBreweryBeersConnectionWithoutDataLoader() {
+        return environment -> {
+            Brewery brewery = environment.getSource();
+            PageKey key = PageKey.of(brewery.getId(), environment, maxPageSize);
+            return Connection.of(beerService.getBeersPageByBreweryId(key.parentId(), key.afterId(), key.first()),
+                    Beer::getId);
+        };
+    }
+
+    public DataFetcher<CompletableFuture<Connection<Beer>>> getBreweryBeersConnectionWithDataLoader() {
+        return environment -> {
+            Brewery brewery = environment.getSource();
+            DataLoader<PageKey, Connection<Beer>> dataLoader = environment.getDataLoader("breweryBeersPageLoader");
+            return dataLoader.load(PageKey.of(brewery.getId(), environment, maxPageSize));
+        };
+    }
+
+    /**
+     * One field of the brewery's {@link RatingSummary}, rolled up over its beers.
+     */
+    public <V> DataFetcher<V> getBreweryRatingWithoutDataLoader(Function<RatingSummary, V> field) {
+        return environment -> {
+            Brewery brewery = environment.getSource();
+            return field.apply(ratingAggregates.forBrewery(brewery.getId()));
+        };
+    }
+
+    public <V> DataFetcher<CompletableFuture<V>> getBreweryRatingWithDataLoader(Function<RatingSummary, V> field) {
+        return environment -> {
+            Brewery brewery = environment.getSource();
+            DataLoader<String, RatingSummary> dataLoader = environment.getDataLoader("breweryRatingsLoader");
+            return dataLoader.load(brewery.getId()).thenApply(field);
         };
     }
-}
\ No newline at end of file
+}
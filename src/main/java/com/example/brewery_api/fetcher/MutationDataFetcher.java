@@ -0,0 +1,99 @@
+package com.example.brewery_api.fetcher;
+
+import com.example.brewery_api.model.Beer;
+import com.example.brewery_api.model.Brewery;
+import com.example.brewery_api.model.Review;
+import com.example.brewery_api.service.MutationService;
+import graphql.schema.DataFetcher;
+import graphql.schema.DataFetchingEnvironment;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.stereotype.Component;
+
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+
+/**
+ * Fetchers of the {@code Mutation} type. Each completes once the write is durable and visible to
+ * queries, see {@link MutationService}.
+ */
+@Component
+public class MutationDataFetcher {
+    private static final Logger logger = LoggerFactory.getLogger(MutationDataFetcher.class);
+    private final MutationService mutationService;
+
+    public MutationDataFetcher(MutationService mutationService) {
+        this.mutationService = mutationService;
+    }
+
+    public DataFetcher<CompletableFuture<Brewery>> addBrewery() {
+        return environment -> mutationService.addBrewery(brewery(input(environment)));
+    }
+
+    public DataFetcher<CompletableFuture<Brewery>> updateBrewery() {
+        return environment -> {
+            String id = environment.getArgument("id");
+            logger.debug("Updating brewery {}", id);
+            return mutationService.updateBrewery(id, brewery(input(environment)));
+        };
+    }
+
+    public DataFetcher<CompletableFuture<Beer>> addBeer() {
+        return environment -> mutationService.addBeer(beer(input(environment)));
+    }
+
+    public DataFetcher<CompletableFuture<Beer>> updateBeer() {
+        return environment -> {
+            String id = environment.getArgument("id");
+            logger.debug("Updating beer {}", id);
+            return mutationService.updateBeer(id, beer(input(environment)));
+        };
+    }
+
+    public DataFetcher<CompletableFuture<Review>> addReview() {
+        return environment -> mutationService.addReview(review(input(environment)));
+    }
+
+    public DataFetcher<CompletableFuture<Review>> updateReview() {
+        return environment -> {
+            String id = environment.getArgument("id");
+            logger.debug("Updating review {}", id);
+            return mutationService.updateReview(id, review(input(environment)));
+        };
+    }
+
+    private static Map<String, Object> input(DataFetchingEnvironment environment) {
+        return environment.getArgument("input");
+    }
+
+    private static Brewery brewery(Map<String, Object> input) {
+        Brewery brewery = new Brewery();
+        brewery.setName((String) input.get("name"));
+        brewery.setLocation((String) input.get("location"));
+        brewery.setEstablished((Integer) input.get("established"));
+        brewery.setDescription((String) input.get("description"));
+        return brewery;
+    }
+
+    private static Beer beer(Map<String, Object> input) {
+        Beer beer = new Beer();
+        beer.setName((String) input.get("name"));
+        beer.setStyle((String) input.get("style"));
+        // GraphQL Float arrives as Double while Beer.abv is a Float
+        beer.setAbv(input.get("abv") instanceof Number abv ? abv.floatValue() : null);
+        beer.setIbu((Integer) input.get("ibu"));
+        beer.setDescription((String) input.get("description"));
+        beer.setBreweryId((String) input.get("breweryId"));
+        return beer;
+    }
+
+    private static Review review(Map<String, Object> input) {
+        Review review = new Review();
+        review.setRating((Integer) input.get("rating"));
+        review.setComment((String) input.get("comment"));
+        review.setAuthor((String) input.get("author"));
+        review.setDate((String) input.get("date"));
+        review.setBeerId((String) input.get("beerId"));
+        return review;
+    }
+}
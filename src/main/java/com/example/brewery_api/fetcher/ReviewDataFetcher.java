@@ -1,13 +1,19 @@
 package com.example.brewery_api.fetcher;
 
+import com.example.brewery_api.filter.ReviewFilter;
+import com.example.brewery_api.filter.ReviewSort;
 import com.example.brewery_api.model.Beer;
 import com.example.brewery_api.model.Review;
+import com.example.brewery_api.pagination.Connection;
+import com.example.brewery_api.pagination.Cursors;
+import com.example.brewery_api.pagination.PageKey;
 import com.example.brewery_api.service.BeerService;
 import com.example.brewery_api.service.ReviewService;
 import graphql.schema.DataFetcher;
 import org.dataloader.DataLoader;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.stereotype.Component;
 
 import java.util.List;
@@ -19,6 +25,9 @@ public class ReviewDataFetcher {
     private final ReviewService reviewService;
     private final BeerService beerService;
 
+    @Value("${app.pagination.max-page-size:100}")
+    private int maxPageSize;
+
     public ReviewDataFetcher(ReviewService reviewService, BeerService beerService) {
         this.reviewService = reviewService;
         this.beerService = beerService;
@@ -27,22 +36,35 @@ public class ReviewDataFetcher {
     public DataFetcher<Review> getReviewById() {
         return environment -> {
             String reviewId = environment.getArgument("id");
-            logger.info("Fetching review with id: {}", reviewId);
+            logger.debug("Fetching review with id: {}", reviewId);
             return reviewService.getReviewById(reviewId);
         };
     }
 
     public DataFetcher<List<Review>> getAllReviews() {
         return environment -> {
-            logger.info("Fetching all reviews");
-            return reviewService.getAllReviews();
+            ReviewFilter filter = ReviewFilter.from(environment);
+            ReviewSort sort = ReviewSort.from(environment);
+            if (filter == ReviewFilter.NONE && sort == null) {
+                logger.debug("Fetching all reviews");
+                return reviewService.getAllReviews();
+            }
+            logger.debug("Fetching reviews matching {} sorted by {}", filter, sort);
+            return reviewService.findReviews(filter, sort);
         };
     }
 
+    public DataFetcher<Connection<Review>> getReviewsConnection() {
+        return environment -> Connection.of(
+                reviewService.getReviewsPage(Cursors.decode(environment.getArgument("after")),
+                        PageKey.first(environment, maxPageSize)),
+                Review::getId);
+    }
+
     public DataFetcher<Beer> getReviewBeerWithoutDataLoader() {
         return environment -> {
             Review review = environment.getSource();
-            logger.info("Fetching beer for review {}: {} (without DataLoader - N+1 issue)",
+            logger.trace("Fetching beer for review {}: {} (without DataLoader - N+1 issue)",
                     review.getId(), review.getAuthor());
             return beerService.getBeerById(review.getBeerId());
         };
@@ -52,7 +74,7 @@ public class ReviewDataFetcher {
         return environment -> {
             Review review = environment.getSource();
             DataLoader<String, Beer> dataLoader = environment.getDataLoader("beerLoader");
-            logger.info("Fetching beer for review {}: {} (with DataLoader)",
+            logger.trace("Fetching beer for review {}: {} (with DataLoader)",
                     review.getId(), review.getAuthor());
             return dataLoader.load(review.getBeerId());
         };
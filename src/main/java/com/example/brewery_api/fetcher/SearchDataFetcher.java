@@ -0,0 +1,54 @@
+package com.example.brewery_api.fetcher;
+
+import com.example.brewery_api.model.Beer;
+import com.example.brewery_api.model.Review;
+import com.example.brewery_api.search.SearchService;
+import graphql.GraphQLException;
+import graphql.schema.DataFetcher;
+import graphql.schema.DataFetchingEnvironment;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.util.List;
+
+@Component
+public class SearchDataFetcher {
+    private static final Logger logger = LoggerFactory.getLogger(SearchDataFetcher.class);
+    private final SearchService searchService;
+
+    @Value("${app.pagination.max-page-size:100}")
+    private int maxPageSize;
+
+    public SearchDataFetcher(SearchService searchService) {
+        this.searchService = searchService;
+    }
+
+    public DataFetcher<List<Beer>> searchBeers() {
+        return environment -> {
+            String text = environment.getArgument("text");
+            logger.debug("Searching beers for: {}", text);
+            return searchService.searchBeers(text, limit(environment));
+        };
+    }
+
+    public DataFetcher<List<Review>> searchReviews() {
+        return environment -> {
+            String text = environment.getArgument("text");
+            logger.debug("Searching reviews for: {}", text);
+            return searchService.searchReviews(text, limit(environment));
+        };
+    }
+
+    private int limit(DataFetchingEnvironment environment) {
+        Integer first = environment.getArgument("first");
+        if (first == null) {
+            return maxPageSize;
+        }
+        if (first < 0) {
+            throw new GraphQLException("first must not be negative");
+        }
+        return Math.min(first, maxPageSize);
+    }
+}
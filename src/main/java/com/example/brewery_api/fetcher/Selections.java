@@ -0,0 +1,24 @@
+package com.example.brewery_api.fetcher;
+
+import com.example.brewery_api.store.Projection;
+import graphql.schema.DataFetchingFieldSelectionSet;
+
+/**
+ * Projections derived from a field's selection set. Only fields that cost something to decode are
+ * candidates; the id lists of beers and breweries are not in the schema and are always left out.
+ */
+final class Selections {
+
+    private Selections() {
+    }
+
+    static Projection beers(DataFetchingFieldSelectionSet selectionSet) {
+        return selectionSet.contains("description")
+                ? Projection.omitting("reviewIds")
+                : Projection.omitting("reviewIds", "description");
+    }
+
+    static Projection reviews(DataFetchingFieldSelectionSet selectionSet) {
+        return selectionSet.contains("comment") ? Projection.ALL : Projection.omitting("comment");
+    }
+}
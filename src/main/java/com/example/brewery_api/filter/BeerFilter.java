@@ -0,0 +1,33 @@
+package com.example.brewery_api.filter;
+
+import graphql.schema.DataFetchingEnvironment;
+
+import java.util.Map;
+
+/**
+ * Arguments of the {@code BeerFilter} input type; every field is optional and ranges are inclusive.
+ */
+public record BeerFilter(String style, Float abvMin, Float abvMax, Integer ibuMin, Integer ibuMax,
+                         String breweryLocation) {
+
+    public static final BeerFilter NONE = new BeerFilter(null, null, null, null, null, null);
+
+    public static BeerFilter from(DataFetchingEnvironment environment) {
+        Map<String, Object> filter = environment.getArgument("filter");
+        if (filter == null) {
+            return NONE;
+        }
+        return new BeerFilter(
+                (String) filter.get("style"),
+                toFloat(filter.get("abvMin")),
+                toFloat(filter.get("abvMax")),
+                (Integer) filter.get("ibuMin"),
+                (Integer) filter.get("ibuMax"),
+                (String) filter.get("breweryLocation"));
+    }
+
+    private static Float toFloat(Object value) {
+        // GraphQL Float arrives as Double while Beer.abv is a Float
+        return value != null ? ((Number) value).floatValue() : null;
+    }
+}
@@ -0,0 +1,12 @@
+package com.example.brewery_api.filter;
+
+import graphql.schema.DataFetchingEnvironment;
+
+public enum BeerSort {
+    ID, NAME, ABV_ASC, ABV_DESC, IBU_ASC, IBU_DESC;
+
+    public static BeerSort from(DataFetchingEnvironment environment) {
+        String sort = environment.getArgument("sort");
+        return sort != null ? valueOf(sort) : null;
+    }
+}
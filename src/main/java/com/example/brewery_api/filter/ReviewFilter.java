@@ -0,0 +1,27 @@
+package com.example.brewery_api.filter;
+
+import graphql.schema.DataFetchingEnvironment;
+
+import java.util.Map;
+
+/**
+ * Arguments of the {@code ReviewFilter} input type; every field is optional and ranges are
+ * inclusive. Dates are ISO-8601 ({@code yyyy-MM-dd}) and compare as strings.
+ */
+public record ReviewFilter(String beerId, Integer ratingMin, Integer ratingMax, String dateFrom, String dateTo) {
+
+    public static final ReviewFilter NONE = new ReviewFilter(null, null, null, null, null);
+
+    public static ReviewFilter from(DataFetchingEnvironment environment) {
+        Map<String, Object> filter = environment.getArgument("filter");
+        if (filter == null) {
+            return NONE;
+        }
+        return new ReviewFilter(
+                (String) filter.get("beerId"),
+                (Integer) filter.get("ratingMin"),
+                (Integer) filter.get("ratingMax"),
+                (String) filter.get("dateFrom"),
+                (String) filter.get("dateTo"));
+    }
+}
@@ -0,0 +1,12 @@
+package com.example.brewery_api.filter;
+
+import graphql.schema.DataFetchingEnvironment;
+
+public enum ReviewSort {
+    ID, RATING_ASC, RATING_DESC, DATE_ASC, DATE_DESC;
+
+    public static ReviewSort from(DataFetchingEnvironment environment) {
+        String sort = environment.getArgument("sort");
+        return sort != null ? valueOf(sort) : null;
+    }
+}
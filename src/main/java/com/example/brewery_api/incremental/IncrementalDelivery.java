@@ -0,0 +1,107 @@
+package com.example.brewery_api.incremental;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import graphql.ExecutionResult;
+import graphql.GraphQLError;
+import graphql.incremental.DelayedIncrementalPartialResult;
+import graphql.incremental.IncrementalExecutionResult;
+import graphql.incremental.IncrementalPayload;
+import org.reactivestreams.Publisher;
+import org.springframework.graphql.server.WebGraphQlResponse;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.MediaType;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+import java.io.UncheckedIOException;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+
+/**
+ * Wire format of {@code @defer} results: the initial result followed by one payload per deferred
+ * fragment, each with {@code hasNext} telling whether more follow.
+ * <p>
+ * Over {@code /graphql-ws} every payload is a {@code next} message of the operation. Over HTTP a
+ * request that accepts {@code multipart/mixed} gets every payload as one JSON part, as described by
+ * the incremental delivery RFC ({@code deferSpec=20220824}).
+ */
+public final class IncrementalDelivery {
+    public static final MediaType MULTIPART_MIXED =
+            MediaType.parseMediaType("multipart/mixed; boundary=\"-\"; deferSpec=20220824");
+
+    private static final String PART = "\r\n---\r\nContent-Type: application/json; charset=utf-8\r\n\r\n";
+    private static final String END = "\r\n-----\r\n";
+
+    private IncrementalDelivery() {
+    }
+
+    public static boolean acceptsMultipart(HttpHeaders headers) {
+        for (MediaType accepted : headers.getAccept()) {
+            if (accepted.isCompatibleWith(MediaType.MULTIPART_MIXED) && !accepted.isWildcardType()) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    /**
+     * The initial result and then the deferred payloads, as results whose specification is the
+     * payload sent to the client.
+     */
+    static Flux<ExecutionResult> results(IncrementalExecutionResult result) {
+        return Flux.concat(Mono.just(result),
+                Flux.from(result.getIncrementalItemPublisher()).map(DelayedResult::new));
+    }
+
+    /**
+     * The response as a {@code multipart/mixed} body, one part per payload.
+     */
+    static Flux<String> multipart(WebGraphQlResponse response, ObjectMapper objectMapper) {
+        Flux<ExecutionResult> results = response.getData() instanceof Publisher<?> publisher
+                ? Flux.from(publisher).cast(ExecutionResult.class)
+                : Flux.just(response.getExecutionResult());
+        return results.map(result -> PART + json(result.toSpecification(), objectMapper)).concatWithValues(END);
+    }
+
+    private static String json(Map<String, Object> payload, ObjectMapper objectMapper) {
+        try {
+            return objectMapper.writeValueAsString(payload);
+        } catch (JsonProcessingException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    private record DelayedResult(DelayedIncrementalPartialResult partial) implements ExecutionResult {
+
+        @Override
+        public List<GraphQLError> getErrors() {
+            return partial.getIncremental() == null ? List.of() : partial.getIncremental().stream()
+                    .map(IncrementalPayload::getErrors)
+                    .filter(Objects::nonNull)
+                    .flatMap(List::stream)
+                    .toList();
+        }
+
+        @Override
+        public <T> T getData() {
+            return null;
+        }
+
+        @Override
+        public boolean isDataPresent() {
+            return false;
+        }
+
+        @Override
+        public Map<Object, Object> getExtensions() {
+            return partial.getExtensions();
+        }
+
+        @Override
+        public Map<String, Object> toSpecification() {
+            return partial.toSpecification();
+        }
+    }
+}
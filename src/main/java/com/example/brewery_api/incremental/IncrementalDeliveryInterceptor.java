@@ -0,0 +1,34 @@
+package com.example.brewery_api.incremental;
+
+import graphql.ExperimentalApi;
+import graphql.incremental.IncrementalExecutionResult;
+import org.springframework.graphql.server.WebGraphQlInterceptor;
+import org.springframework.graphql.server.WebGraphQlRequest;
+import org.springframework.graphql.server.WebGraphQlResponse;
+import org.springframework.graphql.server.WebSocketGraphQlRequest;
+import org.springframework.stereotype.Component;
+import reactor.core.publisher.Mono;
+
+/**
+ * Turns on graphql-java's {@code @defer} support for requests whose transport can stream the
+ * deferred payloads, WebSocket and {@code multipart/mixed} HTTP, and hands those payloads to the
+ * transport as a publisher. Other requests execute deferred fragments with the rest of the
+ * operation and get a single result.
+ */
+@Component
+public class IncrementalDeliveryInterceptor implements WebGraphQlInterceptor {
+
+    @Override
+    public Mono<WebGraphQlResponse> intercept(WebGraphQlRequest request, Chain chain) {
+        if (!(request instanceof WebSocketGraphQlRequest) && !IncrementalDelivery.acceptsMultipart(request.getHeaders())) {
+            return chain.next(request);
+        }
+        request.configureExecutionInput((input, builder) -> builder
+                .graphQLContext(context -> context.put(ExperimentalApi.ENABLE_INCREMENTAL_SUPPORT, true))
+                .build());
+        return chain.next(request).map(response ->
+                response.getExecutionResult() instanceof IncrementalExecutionResult result
+                        ? response.transform(builder -> builder.data(IncrementalDelivery.results(result)))
+                        : response);
+    }
+}
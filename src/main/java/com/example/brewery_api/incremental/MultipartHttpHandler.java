@@ -0,0 +1,48 @@
+package com.example.brewery_api.incremental;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import jakarta.servlet.ServletException;
+import org.springframework.core.ParameterizedTypeReference;
+import org.springframework.graphql.server.WebGraphQlHandler;
+import org.springframework.graphql.server.WebGraphQlRequest;
+import org.springframework.util.ObjectUtils;
+import org.springframework.web.servlet.function.ServerRequest;
+import org.springframework.web.servlet.function.ServerResponse;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.charset.StandardCharsets;
+import java.util.Map;
+
+/**
+ * Servlet handler for GraphQL over HTTP requests that accept {@code multipart/mixed}: writes and
+ * flushes every payload of the result as soon as it is ready, see {@link IncrementalDelivery}.
+ */
+public class MultipartHttpHandler {
+    private static final ParameterizedTypeReference<Map<String, Object>> BODY_TYPE = new ParameterizedTypeReference<>() {
+    };
+
+    private final WebGraphQlHandler graphQlHandler;
+    private final ObjectMapper objectMapper;
+
+    public MultipartHttpHandler(WebGraphQlHandler graphQlHandler, ObjectMapper objectMapper) {
+        this.graphQlHandler = graphQlHandler;
+        this.objectMapper = objectMapper;
+    }
+
+    public ServerResponse handleRequest(ServerRequest request) throws ServletException, IOException {
+        WebGraphQlRequest graphQlRequest = new WebGraphQlRequest(request.uri(), request.headers().asHttpHeaders(),
+                null, request.remoteAddress().orElse(null), request.attributes(), request.body(BODY_TYPE),
+                ObjectUtils.identityToString(request), request.servletRequest().getLocale());
+        return ServerResponse.async(graphQlHandler.handleRequest(graphQlRequest).map(response -> ServerResponse.ok()
+                .headers(headers -> headers.putAll(response.getResponseHeaders()))
+                .contentType(IncrementalDelivery.MULTIPART_MIXED)
+                .stream(stream -> IncrementalDelivery.multipart(response, objectMapper).subscribe(part -> {
+                    try {
+                        stream.write(part.getBytes(StandardCharsets.UTF_8)).flush();
+                    } catch (IOException e) {
+                        throw new UncheckedIOException(e);
+                    }
+                }, stream::error, stream::complete))));
+    }
+}
@@ -0,0 +1,39 @@
+package com.example.brewery_api.incremental;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.springframework.core.ParameterizedTypeReference;
+import org.springframework.graphql.server.WebGraphQlHandler;
+import org.springframework.graphql.server.WebGraphQlRequest;
+import org.springframework.web.reactive.function.server.ServerRequest;
+import org.springframework.web.reactive.function.server.ServerResponse;
+import reactor.core.publisher.Mono;
+
+import java.util.Map;
+
+/**
+ * WebFlux counterpart of {@link MultipartHttpHandler}.
+ */
+public class ReactiveMultipartHttpHandler {
+    private static final ParameterizedTypeReference<Map<String, Object>> BODY_TYPE = new ParameterizedTypeReference<>() {
+    };
+
+    private final WebGraphQlHandler graphQlHandler;
+    private final ObjectMapper objectMapper;
+
+    public ReactiveMultipartHttpHandler(WebGraphQlHandler graphQlHandler, ObjectMapper objectMapper) {
+        this.graphQlHandler = graphQlHandler;
+        this.objectMapper = objectMapper;
+    }
+
+    public Mono<ServerResponse> handleRequest(ServerRequest request) {
+        return request.bodyToMono(BODY_TYPE)
+                .flatMap(body -> graphQlHandler.handleRequest(new WebGraphQlRequest(request.uri(),
+                        request.headers().asHttpHeaders(), request.cookies(), request.remoteAddress().orElse(null),
+                        request.attributes(), body, request.exchange().getRequest().getId(),
+                        request.exchange().getLocaleContext().getLocale())))
+                .flatMap(response -> ServerResponse.ok()
+                        .headers(headers -> headers.putAll(response.getResponseHeaders()))
+                        .contentType(IncrementalDelivery.MULTIPART_MIXED)
+                        .body(IncrementalDelivery.multipart(response, objectMapper), String.class));
+    }
+}
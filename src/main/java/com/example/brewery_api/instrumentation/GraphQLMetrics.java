@@ -0,0 +1,98 @@
+package com.example.brewery_api.instrumentation;
+
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import org.dataloader.stats.Statistics;
+import org.springframework.stereotype.Component;
+
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Supplier;
+
+/**
+ * Meters for resolver and batch loader behaviour, tagged by field ({@code Type.field}) or loader
+ * name. Meters are cached per tag value so the hot path does a map lookup instead of a registry
+ * lookup.
+ */
+@Component
+public class GraphQLMetrics {
+    private final MeterRegistry registry;
+    private final Map<String, Timer> fieldFetchTimers = new ConcurrentHashMap<>();
+    private final Map<String, LoaderMeters> loaderMeters = new ConcurrentHashMap<>();
+
+    public GraphQLMetrics(MeterRegistry registry) {
+        this.registry = registry;
+    }
+
+    public void recordFieldFetch(String field, long nanos) {
+        fieldFetchTimers.computeIfAbsent(field, name -> Timer.builder("graphql.field.fetch")
+                        .description("Time from resolver invocation until its value is available")
+                        .tag("field", name)
+                        .publishPercentileHistogram()
+                        .register(registry))
+                .record(nanos, TimeUnit.NANOSECONDS);
+    }
+
+    /**
+     * Wraps a batch function so that each invocation records its batch size and latency.
+     */
+    public <T> Supplier<T> timedBatch(String loader, int batchSize, Supplier<T> batchFunction) {
+        return () -> {
+            LoaderMeters meters = meters(loader);
+            meters.batchSize.record(batchSize);
+            long start = System.nanoTime();
+            try {
+                return batchFunction.get();
+            } finally {
+                meters.batchLatency.record(System.nanoTime() - start, TimeUnit.NANOSECONDS);
+            }
+        };
+    }
+
+    /**
+     * Records one request's worth of DataLoader statistics for a loader.
+     */
+    public void recordRequestStatistics(String loader, Statistics statistics) {
+        if (statistics.getLoadCount() == 0) {
+            return;
+        }
+        LoaderMeters meters = meters(loader);
+        meters.dispatches.record(statistics.getBatchInvokeCount());
+        if (statistics.getBatchInvokeCount() > 0) {
+            meters.keysPerDispatch.record((double) statistics.getBatchLoadCount() / statistics.getBatchInvokeCount());
+        }
+        meters.cacheHitRatio.record(statistics.getCacheHitRatio());
+    }
+
+    private LoaderMeters meters(String loader) {
+        return loaderMeters.computeIfAbsent(loader, name -> new LoaderMeters(registry, name));
+    }
+
+    private static final class LoaderMeters {
+        final DistributionSummary batchSize;
+        final Timer batchLatency;
+        final DistributionSummary dispatches;
+        final DistributionSummary keysPerDispatch;
+        final DistributionSummary cacheHitRatio;
+
+        LoaderMeters(MeterRegistry registry, String loader) {
+            batchSize = DistributionSummary.builder("graphql.dataloader.batch.size")
+                    .description("Keys passed to one batch function call")
+                    .tag("loader", loader).publishPercentileHistogram().register(registry);
+            batchLatency = Timer.builder("graphql.dataloader.batch.latency")
+                    .description("Time spent in one batch function call")
+                    .tag("loader", loader).publishPercentileHistogram().register(registry);
+            dispatches = DistributionSummary.builder("graphql.dataloader.dispatches")
+                    .description("Batch function calls per request")
+                    .tag("loader", loader).register(registry);
+            keysPerDispatch = DistributionSummary.builder("graphql.dataloader.keys.per.dispatch")
+                    .description("Average keys per batch function call within one request")
+                    .tag("loader", loader).register(registry);
+            cacheHitRatio = DistributionSummary.builder("graphql.dataloader.cache.hit.ratio")
+                    .description("Share of loads answered by the request-scoped DataLoader cache")
+                    .tag("loader", loader).register(registry);
+        }
+    }
+}
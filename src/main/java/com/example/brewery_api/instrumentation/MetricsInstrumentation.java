@@ -0,0 +1,48 @@
+package com.example.brewery_api.instrumentation;
+
+import graphql.ExecutionResult;
+import graphql.execution.instrumentation.InstrumentationContext;
+import graphql.execution.instrumentation.InstrumentationState;
+import graphql.execution.instrumentation.SimpleInstrumentationContext;
+import graphql.execution.instrumentation.SimplePerformantInstrumentation;
+import graphql.execution.instrumentation.parameters.InstrumentationExecutionParameters;
+import graphql.execution.instrumentation.parameters.InstrumentationFieldFetchParameters;
+import org.dataloader.DataLoaderRegistry;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Component;
+
+/**
+ * Records per-field fetch time for every non-trivial resolver and, when a request finishes, the
+ * per-loader DataLoader statistics of that request (dispatch count, keys per dispatch and cache
+ * hit ratio). Property fetchers are skipped, so plain scalar fields cost nothing extra.
+ */
+@Component
+@ConditionalOnProperty(name = "app.metrics.graphql.enabled", havingValue = "true", matchIfMissing = true)
+public class MetricsInstrumentation extends SimplePerformantInstrumentation {
+    private final GraphQLMetrics metrics;
+
+    public MetricsInstrumentation(GraphQLMetrics metrics) {
+        this.metrics = metrics;
+    }
+
+    @Override
+    public InstrumentationContext<ExecutionResult> beginExecution(InstrumentationExecutionParameters parameters,
+                                                                  InstrumentationState state) {
+        DataLoaderRegistry registry = parameters.getExecutionInput().getDataLoaderRegistry();
+        return SimpleInstrumentationContext.whenCompleted((result, throwable) ->
+                registry.getDataLoadersMap().forEach((name, dataLoader) ->
+                        metrics.recordRequestStatistics(name, dataLoader.getStatistics())));
+    }
+
+    @Override
+    public InstrumentationContext<Object> beginFieldFetch(InstrumentationFieldFetchParameters parameters,
+                                                          InstrumentationState state) {
+        if (parameters.isTrivialDataFetcher()) {
+            return null;
+        }
+        String field = parameters.getExecutionStepInfo().getObjectType().getName() + "." + parameters.getField().getName();
+        long start = System.nanoTime();
+        return SimpleInstrumentationContext.whenCompleted((value, throwable) ->
+                metrics.recordFieldFetch(field, System.nanoTime() - start));
+    }
+}
@@ -0,0 +1,9 @@
+package com.example.brewery_api.model;
+
+/**
+ * Rating summary of one beer, as published by the {@code beerRatingChanged} subscription.
+ *
+ * @param averageRating {@code null} when the beer has no rated reviews
+ */
+public record BeerRating(String beerId, Double averageRating, int reviewCount) {
+}
@@ -0,0 +1,7 @@
+package com.example.brewery_api.model;
+
+/**
+ * Number of reviews with one star rating, a bucket of a {@link RatingSummary} histogram.
+ */
+public record RatingCount(int rating, int count) {
+}
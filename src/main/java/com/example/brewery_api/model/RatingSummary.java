@@ -0,0 +1,13 @@
+package com.example.brewery_api.model;
+
+import java.util.List;
+
+/**
+ * Review statistics of a beer, or of all beers of a brewery.
+ *
+ * @param averageRating   mean of the rated reviews, {@code null} when there are none
+ * @param reviewCount     number of reviews, rated or not
+ * @param ratingHistogram review counts for ratings 1 to 5, in that order
+ */
+public record RatingSummary(Double averageRating, int reviewCount, List<RatingCount> ratingHistogram) {
+}
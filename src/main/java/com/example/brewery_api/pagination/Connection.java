@@ -0,0 +1,22 @@
+package com.example.brewery_api.pagination;
+
+import com.example.brewery_api.store.Page;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.function.Function;
+
+/**
+ * Relay connection built from one {@link Page} of a service.
+ */
+public record Connection<T>(List<Edge<T>> edges, PageInfo pageInfo, int totalCount) {
+
+    public static <T> Connection<T> of(Page<T> page, Function<T, String> idOf) {
+        List<Edge<T>> edges = new ArrayList<>(page.items().size());
+        for (T item : page.items()) {
+            edges.add(new Edge<>(Cursors.encode(idOf.apply(item)), item));
+        }
+        String endCursor = edges.isEmpty() ? null : edges.get(edges.size() - 1).cursor();
+        return new Connection<>(edges, new PageInfo(page.hasNext(), endCursor), page.totalCount());
+    }
+}
@@ -0,0 +1,39 @@
+package com.example.brewery_api.pagination;
+
+import graphql.GraphQLException;
+
+import java.nio.charset.StandardCharsets;
+import java.util.Base64;
+
+/**
+ * Opaque cursors: the base64url-encoded id of the entity the cursor points at.
+ */
+public final class Cursors {
+    private static final String PREFIX = "id:";
+
+    private Cursors() {
+    }
+
+    public static String encode(String id) {
+        return Base64.getUrlEncoder().withoutPadding()
+                .encodeToString((PREFIX + id).getBytes(StandardCharsets.UTF_8));
+    }
+
+    /**
+     * @return the id encoded in the cursor, or {@code null} for a {@code null} cursor
+     */
+    public static String decode(String cursor) {
+        if (cursor == null) {
+            return null;
+        }
+        try {
+            String decoded = new String(Base64.getUrlDecoder().decode(cursor), StandardCharsets.UTF_8);
+            if (decoded.startsWith(PREFIX)) {
+                return decoded.substring(PREFIX.length());
+            }
+        } catch (IllegalArgumentException e) {
+            // fall through
+        }
+        throw new GraphQLException("Invalid cursor: " + cursor);
+    }
+}
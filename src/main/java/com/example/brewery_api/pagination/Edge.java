@@ -0,0 +1,4 @@
+package com.example.brewery_api.pagination;
+
+public record Edge<T>(String cursor, T node) {
+}
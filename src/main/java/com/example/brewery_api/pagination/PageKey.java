@@ -0,0 +1,34 @@
+package com.example.brewery_api.pagination;
+
+import graphql.GraphQLException;
+import graphql.schema.DataFetchingEnvironment;
+
+/**
+ * DataLoader key for a page of a nested connection: the parent id plus the page arguments, so
+ * sibling parents asking for pages are batched together while different pages stay distinct.
+ *
+ * @param parentId id of the entity that owns the connection
+ * @param afterId  decoded {@code after} cursor, or {@code null} for the first page
+ * @param first    page size, already clamped
+ */
+public record PageKey(String parentId, String afterId, int first) {
+
+    public static PageKey of(String parentId, DataFetchingEnvironment environment, int maxPageSize) {
+        return new PageKey(parentId, Cursors.decode(environment.getArgument("after")), first(environment, maxPageSize));
+    }
+
+    /**
+     * The clamped page size, or 0 when the selection asks for neither edges nor page info, so a
+     * query for {@code totalCount} alone is answered from the index size without reading rows.
+     */
+    public static int first(DataFetchingEnvironment environment, int maxPageSize) {
+        Integer first = environment.getArgument("first");
+        if (first != null && first < 0) {
+            throw new GraphQLException("first must not be negative");
+        }
+        if (!environment.getSelectionSet().contains("edges") && !environment.getSelectionSet().contains("pageInfo")) {
+            return 0;
+        }
+        return first != null ? Math.min(first, maxPageSize) : maxPageSize;
+    }
+}
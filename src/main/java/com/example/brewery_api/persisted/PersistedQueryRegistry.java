@@ -0,0 +1,89 @@
+package com.example.brewery_api.persisted;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.core.io.Resource;
+import org.springframework.core.io.support.PathMatchingResourcePatternResolver;
+import org.springframework.stereotype.Component;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.HexFormat;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Query texts known by their SHA-256 hash.
+ * <p>
+ * The allowlist is read at startup from {@code app.persisted-queries.allowlist-location}, one
+ * operation per file, hashed over the trimmed file content. Unless
+ * {@code app.persisted-queries.allowlist-only} is set, clients may also register further queries
+ * with the automatic persisted query protocol; those are kept in a bounded cache of
+ * {@code app.persisted-queries.max-registered} entries.
+ */
+@Component
+public class PersistedQueryRegistry {
+    private static final Logger logger = LoggerFactory.getLogger(PersistedQueryRegistry.class);
+
+    private final Map<String, String> allowlist = new ConcurrentHashMap<>();
+    private final Cache<String, String> registered;
+    private final boolean allowlistOnly;
+
+    public PersistedQueryRegistry(@Value("${app.persisted-queries.allowlist-location:classpath*:persisted-queries/*.graphql}") String allowlistLocation,
+                                  @Value("${app.persisted-queries.allowlist-only:false}") boolean allowlistOnly,
+                                  @Value("${app.persisted-queries.max-registered:1000}") long maxRegistered) throws IOException {
+        this.allowlistOnly = allowlistOnly;
+        this.registered = Caffeine.newBuilder().maximumSize(maxRegistered).build();
+        for (Resource resource : new PathMatchingResourcePatternResolver().getResources(allowlistLocation)) {
+            String query = resource.getContentAsString(StandardCharsets.UTF_8).trim();
+            allowlist.put(sha256(query), query);
+        }
+        logger.info("Loaded {} allowlisted persisted queries from {}", allowlist.size(), allowlistLocation);
+    }
+
+    public boolean isAllowlistOnly() {
+        return allowlistOnly;
+    }
+
+    public boolean isAllowlisted(String hash) {
+        return allowlist.containsKey(hash);
+    }
+
+    /**
+     * @return the query text for the hash, or {@code null} if it is neither allowlisted nor registered
+     */
+    public String lookup(String hash) {
+        String query = allowlist.get(hash);
+        return query != null ? query : registered.getIfPresent(hash);
+    }
+
+    /**
+     * Remembers a client-supplied query whose hash has already been verified.
+     *
+     * @return {@code false} if only allowlisted queries are accepted and this one is not among them
+     */
+    public boolean register(String hash, String query) {
+        if (allowlist.containsKey(hash)) {
+            return true;
+        }
+        if (allowlistOnly) {
+            return false;
+        }
+        registered.put(hash, query);
+        return true;
+    }
+
+    public static String sha256(String query) {
+        try {
+            MessageDigest digest = MessageDigest.getInstance("SHA-256");
+            return HexFormat.of().formatHex(digest.digest(query.getBytes(StandardCharsets.UTF_8)));
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException("SHA-256 is not available", e);
+        }
+    }
+}
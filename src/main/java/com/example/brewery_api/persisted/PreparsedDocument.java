@@ -0,0 +1,45 @@
+package com.example.brewery_api.persisted;
+
+import graphql.execution.preparsed.PreparsedDocumentEntry;
+
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.Supplier;
+
+/**
+ * A parsed and validated document together with plans computed for it, such as the normalized
+ * operation its {@link com.example.brewery_api.cost.QueryCost cost} is estimated from. Plans are
+ * kept as long as the document, so they may depend only on the document, operation and variables,
+ * never on the data. The document of the current request is put into the GraphQL context under
+ * this class.
+ */
+public class PreparsedDocument {
+    // plans differ by operation name and variables; bound them per document
+    private static final int MAX_PLANS = 32;
+
+    private final PreparsedDocumentEntry entry;
+    private final Map<Object, Object> plans = new ConcurrentHashMap<>();
+
+    PreparsedDocument(PreparsedDocumentEntry entry) {
+        this.entry = entry;
+    }
+
+    public PreparsedDocumentEntry entry() {
+        return entry;
+    }
+
+    /**
+     * Returns the plan cached under {@code key}, computing it on first use.
+     */
+    @SuppressWarnings("unchecked")
+    public <P> P plan(Object key, Supplier<P> planner) {
+        Object plan = plans.get(key);
+        if (plan == null) {
+            plan = planner.get();
+            if (plans.size() < MAX_PLANS) {
+                plans.putIfAbsent(key, plan);
+            }
+        }
+        return (P) plan;
+    }
+}
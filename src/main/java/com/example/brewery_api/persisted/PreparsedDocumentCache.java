@@ -0,0 +1,97 @@
+package com.example.brewery_api.persisted;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import graphql.ErrorClassification;
+import graphql.ExecutionInput;
+import graphql.GraphQLError;
+import graphql.GraphqlErrorBuilder;
+import graphql.execution.preparsed.PreparsedDocumentEntry;
+import graphql.execution.preparsed.PreparsedDocumentProvider;
+import graphql.execution.preparsed.persisted.PersistedQueryIdInvalid;
+import graphql.execution.preparsed.persisted.PersistedQueryNotFound;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.graphql.execution.ErrorType;
+import org.springframework.stereotype.Component;
+
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.function.Function;
+
+/**
+ * Serves parsed and validated documents from a bounded cache keyed by query text, and resolves
+ * automatic persisted queries: a request whose {@code persistedQuery} extension carries only a
+ * {@code sha256Hash} is answered from the {@link PersistedQueryRegistry}, one that carries the query
+ * as well registers it after the hash is checked.
+ * <p>
+ * With {@code app.persisted-queries.allowlist-only} set, any query whose hash is not allowlisted is
+ * rejected before parsing. A request with neither a query nor a hash is rejected as a bad request.
+ */
+@Component
+@ConditionalOnProperty(name = "app.persisted-queries.enabled", havingValue = "true", matchIfMissing = true)
+public class PreparsedDocumentCache implements PreparsedDocumentProvider {
+    private final PersistedQueryRegistry registry;
+    private final Cache<String, PreparsedDocument> documents;
+
+    public PreparsedDocumentCache(PersistedQueryRegistry registry, MeterRegistry meterRegistry,
+                                  @Value("${app.persisted-queries.document-cache-size:500}") long maxDocuments) {
+        this.registry = registry;
+        this.documents = Caffeine.newBuilder().maximumSize(maxDocuments).recordStats().build();
+        CaffeineCacheMetrics.monitor(meterRegistry, documents, "graphql.documents");
+    }
+
+    @Override
+    public CompletableFuture<PreparsedDocumentEntry> getDocumentAsync(ExecutionInput executionInput,
+                                                                     Function<ExecutionInput, PreparsedDocumentEntry> parseAndValidate) {
+        String hash = persistedQueryHash(executionInput);
+        String query = executionInput.getQuery();
+        if (hash == null && (query == null || query.isBlank())) {
+            return error(ErrorType.BAD_REQUEST,
+                    "GraphQL operations must contain a non-empty query or a persistedQuery extension", "BAD_REQUEST");
+        }
+        if (hash != null) {
+            if (query == null || query.isBlank()) {
+                query = registry.lookup(hash);
+                if (query == null) {
+                    return error(new PersistedQueryNotFound(hash), "PersistedQueryNotFound", "PERSISTED_QUERY_NOT_FOUND");
+                }
+            } else if (!hash.equalsIgnoreCase(PersistedQueryRegistry.sha256(query))) {
+                return error(new PersistedQueryIdInvalid(hash), "PersistedQueryIdInvalid", "PERSISTED_QUERY_ID_INVALID");
+            } else if (!registry.register(hash, query)) {
+                return error(ErrorType.FORBIDDEN, "PersistedQueryNotAllowed", "PERSISTED_QUERY_NOT_ALLOWED");
+            }
+        } else if (registry.isAllowlistOnly() && !registry.isAllowlisted(PersistedQueryRegistry.sha256(query.trim()))) {
+            return error(ErrorType.FORBIDDEN, "PersistedQueryNotAllowed", "PERSISTED_QUERY_NOT_ALLOWED");
+        }
+
+        String text = query;
+        ExecutionInput resolved = text.equals(executionInput.getQuery())
+                ? executionInput
+                : executionInput.transform(builder -> builder.query(text));
+        PreparsedDocument document = documents.get(text, key -> new PreparsedDocument(parseAndValidate.apply(resolved)));
+        executionInput.getGraphQLContext().put(PreparsedDocument.class, document);
+        return CompletableFuture.completedFuture(document.entry());
+    }
+
+    private static String persistedQueryHash(ExecutionInput executionInput) {
+        Map<String, Object> extensions = executionInput.getExtensions();
+        Object persistedQuery = extensions != null ? extensions.get("persistedQuery") : null;
+        if (persistedQuery instanceof Map<?, ?> map && map.get("sha256Hash") instanceof String hash) {
+            return hash;
+        }
+        return null;
+    }
+
+    private static CompletableFuture<PreparsedDocumentEntry> error(ErrorClassification type, String message, String code) {
+        // Apollo clients look at the message to decide whether to resend the full query
+        GraphQLError error = GraphqlErrorBuilder.newError()
+                .message(message)
+                .errorType(type)
+                .extensions(Map.of("code", code))
+                .build();
+        return CompletableFuture.completedFuture(new PreparsedDocumentEntry(error));
+    }
+}
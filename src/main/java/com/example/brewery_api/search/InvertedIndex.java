@@ -0,0 +1,225 @@
+package com.example.brewery_api.search;
+
+import com.example.brewery_api.store.EntityIds;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.PriorityQueue;
+import java.util.Set;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+
+/**
+ * In-memory full-text index of one entity type, with positional postings and BM25 ranking.
+ * <p>
+ * Each document is the text of one or more fields. Postings map a word to the documents that
+ * contain it and the word's positions in each; fields are indexed {@value #FIELD_GAP} positions
+ * apart, so a phrase never matches across two fields. A query is a list of words and
+ * double-quoted phrases: a document matches if it contains every word and every phrase, and is
+ * scored with BM25 over the query words. Candidates come from the postings of the rarest query
+ * word and are checked against the others by lookup, so a search costs about the document
+ * frequency of its most selective word rather than the size of the index.
+ * <p>
+ * Writers replace a document's postings under a write lock; searches share a read lock, so a
+ * search never sees a document half updated.
+ */
+public class InvertedIndex {
+    static final double K1 = 1.2;
+    static final double B = 0.75;
+    static final int FIELD_GAP = 100;
+
+    private static final Comparator<SearchHit> RANKING = Comparator.comparingDouble(SearchHit::score).reversed()
+            .thenComparing(SearchHit::id, EntityIds.ORDER);
+
+    private final ReentrantReadWriteLock lock = new ReentrantReadWriteLock();
+    // word -> document id -> ascending positions
+    private final Map<String, Map<String, int[]>> postings = new HashMap<>();
+    private final Map<String, Document> documents = new HashMap<>();
+    private long totalLength;
+
+    private record Document(int length, Set<String> words) {
+    }
+
+    /**
+     * Indexes a document, replacing any earlier version with the same id. Null fields are skipped.
+     */
+    public void put(String id, String... fields) {
+        Map<String, List<Integer>> positions = new HashMap<>();
+        int position = 0;
+        int length = 0;
+        for (String field : fields) {
+            List<String> tokens = Tokenizer.tokenize(field);
+            for (String token : tokens) {
+                positions.computeIfAbsent(token, word -> new ArrayList<>()).add(position++);
+            }
+            length += tokens.size();
+            position += FIELD_GAP;
+        }
+        lock.writeLock().lock();
+        try {
+            removeLocked(id);
+            if (positions.isEmpty()) {
+                return;
+            }
+            positions.forEach((word, list) -> postings.computeIfAbsent(word, key -> new HashMap<>())
+                    .put(id, list.stream().mapToInt(Integer::intValue).toArray()));
+            documents.put(id, new Document(length, Set.copyOf(positions.keySet())));
+            totalLength += length;
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    public void remove(String id) {
+        lock.writeLock().lock();
+        try {
+            removeLocked(id);
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    public void clear() {
+        lock.writeLock().lock();
+        try {
+            postings.clear();
+            documents.clear();
+            totalLength = 0;
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    public int size() {
+        lock.readLock().lock();
+        try {
+            return documents.size();
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    /**
+     * Returns up to {@code limit} documents matching {@code query}, best first; equal scores are in
+     * id order.
+     */
+    public List<SearchHit> search(String query, int limit) {
+        List<List<String>> phrases = new ArrayList<>();
+        Set<String> words = new LinkedHashSet<>();
+        parse(query, phrases, words);
+        if (words.isEmpty() || limit <= 0) {
+            return List.of();
+        }
+        lock.readLock().lock();
+        try {
+            List<Map<String, int[]>> postingLists = new ArrayList<>(words.size());
+            for (String word : words) {
+                Map<String, int[]> postingList = postings.get(word);
+                if (postingList == null) {
+                    return List.of();
+                }
+                postingLists.add(postingList);
+            }
+            postingLists.sort(Comparator.comparingInt(Map::size));
+            int documentCount = documents.size();
+            double averageLength = (double) totalLength / documentCount;
+            double[] idf = new double[postingLists.size()];
+            for (int i = 0; i < idf.length; i++) {
+                int frequency = postingLists.get(i).size();
+                idf[i] = Math.log(1 + (documentCount - frequency + 0.5) / (frequency + 0.5));
+            }
+
+            PriorityQueue<SearchHit> top = new PriorityQueue<>(limit + 1, RANKING.reversed());
+            candidates:
+            for (Map.Entry<String, int[]> candidate : postingLists.get(0).entrySet()) {
+                String id = candidate.getKey();
+                double norm = K1 * (1 - B + B * documents.get(id).length() / averageLength);
+                double score = 0;
+                for (int i = 0; i < idf.length; i++) {
+                    int[] positions = i == 0 ? candidate.getValue() : postingLists.get(i).get(id);
+                    if (positions == null) {
+                        continue candidates;
+                    }
+                    score += idf[i] * positions.length * (K1 + 1) / (positions.length + norm);
+                }
+                for (List<String> phrase : phrases) {
+                    if (!containsPhrase(id, phrase)) {
+                        continue candidates;
+                    }
+                }
+                if (top.size() == limit && !outranks(id, score, top.peek())) {
+                    continue;
+                }
+                top.add(new SearchHit(id, score));
+                if (top.size() > limit) {
+                    top.poll();
+                }
+            }
+            List<SearchHit> hits = new ArrayList<>(top);
+            hits.sort(RANKING);
+            return hits;
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    private static boolean outranks(String id, double score, SearchHit lowest) {
+        return score > lowest.score() || score == lowest.score() && EntityIds.ORDER.compare(id, lowest.id()) < 0;
+    }
+
+    private void removeLocked(String id) {
+        Document document = documents.remove(id);
+        if (document == null) {
+            return;
+        }
+        for (String word : document.words()) {
+            Map<String, int[]> postingList = postings.get(word);
+            postingList.remove(id);
+            if (postingList.isEmpty()) {
+                postings.remove(word);
+            }
+        }
+        totalLength -= document.length();
+    }
+
+    // a phrase matches where each word follows the previous one at the next position
+    private boolean containsPhrase(String id, List<String> phrase) {
+        int[][] positions = new int[phrase.size()][];
+        for (int i = 0; i < phrase.size(); i++) {
+            Map<String, int[]> postingList = postings.get(phrase.get(i));
+            positions[i] = postingList != null ? postingList.get(id) : null;
+            if (positions[i] == null) {
+                return false;
+            }
+        }
+        for (int start : positions[0]) {
+            int i = 1;
+            while (i < positions.length && Arrays.binarySearch(positions[i], start + i) >= 0) {
+                i++;
+            }
+            if (i == positions.length) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    private static void parse(String query, List<List<String>> phrases, Set<String> words) {
+        if (query == null) {
+            return;
+        }
+        String[] parts = query.split("\"", -1);
+        for (int i = 0; i < parts.length; i++) {
+            List<String> tokens = Tokenizer.tokenize(parts[i]);
+            words.addAll(tokens);
+            // odd parts are inside quotes; an unclosed quote runs to the end of the query
+            if (i % 2 == 1 && tokens.size() > 1) {
+                phrases.add(tokens);
+            }
+        }
+    }
+}
@@ -0,0 +1,10 @@
+package com.example.brewery_api.search;
+
+/**
+ * One document matched by an {@link InvertedIndex} search.
+ *
+ * @param id    id of the matching entity
+ * @param score BM25 score; higher is a better match
+ */
+public record SearchHit(String id, double score) {
+}
@@ -0,0 +1,83 @@
+package com.example.brewery_api.search;
+
+import com.example.brewery_api.model.Beer;
+import com.example.brewery_api.model.Review;
+import com.example.brewery_api.service.BeerService;
+import com.example.brewery_api.service.ReviewService;
+import com.example.brewery_api.store.EntityChangeListener;
+import org.springframework.stereotype.Service;
+
+import java.util.List;
+import java.util.Objects;
+
+/**
+ * Full-text search over beer names and descriptions and review comments.
+ * <p>
+ * The indexes follow the stores through change listeners, so they fill as {@code DataLoader}
+ * ingests the data and stay current with every write; a snapshot restore rebuilds them. Writes
+ * that leave the indexed text unchanged, such as a new rating, do not touch the index.
+ */
+@Service
+public class SearchService {
+    private final BeerService beerService;
+    private final ReviewService reviewService;
+    private final InvertedIndex beers = new InvertedIndex();
+    private final InvertedIndex reviews = new InvertedIndex();
+
+    public SearchService(BeerService beerService, ReviewService reviewService) {
+        this.beerService = beerService;
+        this.reviewService = reviewService;
+        beerService.addChangeListener(new EntityChangeListener<>() {
+            @Override
+            public void onChange(Beer previous, Beer current) {
+                if (current == null) {
+                    beers.remove(previous.getId());
+                } else if (previous == null || !Objects.equals(previous.getName(), current.getName())
+                        || !Objects.equals(previous.getDescription(), current.getDescription())) {
+                    beers.put(current.getId(), current.getName(), current.getDescription());
+                }
+            }
+
+            @Override
+            public void onReload() {
+                beers.clear();
+                for (Beer beer : beerService.getAllBeers()) {
+                    beers.put(beer.getId(), beer.getName(), beer.getDescription());
+                }
+            }
+        });
+        reviewService.addChangeListener(new EntityChangeListener<>() {
+            @Override
+            public void onChange(Review previous, Review current) {
+                if (current == null) {
+                    reviews.remove(previous.getId());
+                } else if (previous == null || !Objects.equals(previous.getComment(), current.getComment())) {
+                    reviews.put(current.getId(), current.getComment());
+                }
+            }
+
+            @Override
+            public void onReload() {
+                reviews.clear();
+                for (Review review : reviewService.getAllReviews()) {
+                    reviews.put(review.getId(), review.getComment());
+                }
+            }
+        });
+    }
+
+    /**
+     * Beers matching {@code text}, best match first, fetched from the store in one batch.
+     */
+    public List<Beer> searchBeers(String text, int limit) {
+        return beerService.getBeersByIds(ids(beers.search(text, limit)));
+    }
+
+    public List<Review> searchReviews(String text, int limit) {
+        return reviewService.getReviewsByIds(ids(reviews.search(text, limit)));
+    }
+
+    private static List<String> ids(List<SearchHit> hits) {
+        return hits.stream().map(SearchHit::id).toList();
+    }
+}
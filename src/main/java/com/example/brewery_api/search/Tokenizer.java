@@ -0,0 +1,52 @@
+package com.example.brewery_api.search;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Splits text into lower-case words for the {@link InvertedIndex}.
+ * <p>
+ * A word is a run of Unicode letters and digits, so Cyrillic and Latin text tokenize alike.
+ * Apostrophes inside a word ({@code '}, {@code ’}, {@code ʼ}) are dropped rather than split on, so
+ * {@code п’ять} and {@code п'ять} are one and the same word, and stress marks are ignored. Letters
+ * are not folded otherwise: {@code ї}, {@code й} and {@code ґ} stay distinct from {@code і},
+ * {@code и} and {@code г}. There is no stemming, so inflected forms are separate words.
+ */
+final class Tokenizer {
+    private static final int COMBINING_ACUTE = 0x0301;
+
+    private Tokenizer() {
+    }
+
+    static List<String> tokenize(String text) {
+        List<String> tokens = new ArrayList<>();
+        if (text == null) {
+            return tokens;
+        }
+        StringBuilder word = new StringBuilder();
+        int length = text.length();
+        for (int i = 0; i < length; ) {
+            int codePoint = text.codePointAt(i);
+            i += Character.charCount(codePoint);
+            if (Character.isLetterOrDigit(codePoint)) {
+                word.appendCodePoint(Character.toLowerCase(codePoint));
+            } else if (codePoint == COMBINING_ACUTE) {
+                continue;
+            } else if (isApostrophe(codePoint) && !word.isEmpty() && i < length
+                    && Character.isLetter(text.codePointAt(i))) {
+                continue;
+            } else if (!word.isEmpty()) {
+                tokens.add(word.toString());
+                word.setLength(0);
+            }
+        }
+        if (!word.isEmpty()) {
+            tokens.add(word.toString());
+        }
+        return tokens;
+    }
+
+    private static boolean isApostrophe(int codePoint) {
+        return codePoint == '\'' || codePoint == '’' || codePoint == 'ʼ';
+    }
+}
@@ -0,0 +1,49 @@
+package com.example.brewery_api.service;
+
+import com.example.brewery_api.model.Beer;
+import com.example.brewery_api.store.Projection;
+import com.example.brewery_api.store.RowCodec;
+import com.example.brewery_api.store.StringDictionary;
+
+/**
+ * Compact rows for {@link com.example.brewery_api.store.StoreLayout#COMPACT}: abv and ibu are
+ * primitives, and the style and brewery id are dictionary codes.
+ */
+final class BeerRowCodec implements RowCodec<Beer> {
+    private final StringDictionary styles = new StringDictionary();
+    private final StringDictionary breweryIds = new StringDictionary();
+
+    @Override
+    public Object encode(Beer beer) {
+        return new Row(beer.getId(), beer.getName(), beer.getDescription(),
+                beer.getAbv() != null ? beer.getAbv() : Float.NaN, CompactValues.ofInteger(beer.getIbu()),
+                styles.encode(beer.getStyle()), breweryIds.encode(beer.getBreweryId()),
+                CompactValues.toArray(beer.getReviewIds()));
+    }
+
+    @Override
+    public Beer decode(Object encoded) {
+        return decode(encoded, Projection.ALL);
+    }
+
+    @Override
+    public Beer decode(Object encoded, Projection projection) {
+        Row row = (Row) encoded;
+        Beer beer = new Beer();
+        beer.setId(row.id());
+        beer.setName(row.name());
+        beer.setDescription(row.description());
+        beer.setAbv(Float.isNaN(row.abv()) ? null : row.abv());
+        beer.setIbu(CompactValues.toInteger(row.ibu()));
+        beer.setStyle(styles.decode(row.style()));
+        beer.setBreweryId(breweryIds.decode(row.breweryId()));
+        if (projection.includes("reviewIds")) {
+            beer.setReviewIds(CompactValues.toList(row.reviewIds()));
+        }
+        return beer;
+    }
+
+    private record Row(String id, String name, String description, float abv, int ibu, int style, int breweryId,
+                       String[] reviewIds) {
+    }
+}
@@ -1,6 +1,19 @@
 package com.example.brewery_api.service;
 
+import com.example.brewery_api.filter.BeerFilter;
+import com.example.brewery_api.filter.BeerSort;
 import com.example.brewery_api.model.Beer;
+import com.example.brewery_api.store.EntityChangeListener;
+import com.example.brewery_api.store.EntityStore;
+import com.example.brewery_api.store.ForeignKeyIndex;
+import com.example.brewery_api.store.IndexQuery;
+import com.example.brewery_api.store.Page;
+import com.example.brewery_api.store.Projection;
+import com.example.brewery_api.store.RowCodec;
+import com.example.brewery_api.store.SortedIndex;
+import com.example.brewery_api.store.StoreLayout;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.stereotype.Service;
 
 import java.util.*;
@@ -8,10 +21,34 @@ import java.util.stream.Collectors;
 
 @Service
 public class BeerService {
-    private final Map<String, Beer> beers = new HashMap<>();
+    private final EntityStore<Beer> beers;
+    private final ForeignKeyIndex<Beer> beersByBreweryId;
+    private final ForeignKeyIndex<Beer> beersByStyle;
+    private final SortedIndex<Beer, Float> beersByAbv;
+    private final SortedIndex<Beer, Integer> beersByIbu;
+    private final Comparator<Beer> byName;
+
+    public BeerService() {
+        this(StoreLayout.OBJECTS);
+    }
+
+    @Autowired
+    public BeerService(@Value("${app.store.layout:objects}") StoreLayout layout) {
+        beers = new EntityStore<>(Beer::getId, layout == StoreLayout.COMPACT ? new BeerRowCodec() : RowCodec.identity());
+        beersByBreweryId = beers.addIndex(Beer::getBreweryId);
+        beersByStyle = beers.addIndex(beer -> normalizeStyle(beer.getStyle()));
+        beersByAbv = beers.addSortedIndex(Beer::getAbv);
+        beersByIbu = beers.addSortedIndex(Beer::getIbu);
+        byName = Comparator.comparing(Beer::getName, Comparator.nullsLast(Comparator.<String>naturalOrder()))
+                .thenComparing(beers.idOrder());
+    }
 
     public void addBeer(Beer beer) {
-        beers.put(beer.getId(), beer);
+        beers.put(beer);
+    }
+
+    public Beer removeBeer(String id) {
+        return beers.remove(id);
     }
 
     public Beer getBeerById(String id) {
@@ -22,6 +59,41 @@ public class BeerService {
         return new ArrayList<>(beers.values());
     }
 
+    /**
+     * Beers matching the filter, in the requested order (id order when {@code sort} is {@code null}).
+     * The most selective of the style, abv, ibu and brewery indexes drives the query.
+     *
+     * @param breweryIds breweries the beers must belong to, or {@code null} for no restriction
+     */
+    public List<Beer> findBeers(BeerFilter filter, Set<String> breweryIds, BeerSort sort) {
+        IndexQuery<Beer> query = IndexQuery.over(beers);
+        if (filter.style() != null) {
+            query.whereEquals(beersByStyle, normalizeStyle(filter.style()));
+        }
+        if (filter.abvMin() != null || filter.abvMax() != null) {
+            query.whereBetween(beersByAbv, filter.abvMin(), filter.abvMax());
+        }
+        if (filter.ibuMin() != null || filter.ibuMax() != null) {
+            query.whereBetween(beersByIbu, filter.ibuMin(), filter.ibuMax());
+        }
+        if (breweryIds != null) {
+            query.whereIn(beersByBreweryId, breweryIds);
+        }
+        switch (sort != null ? sort : BeerSort.ID) {
+            case ID -> query.orderBy(beers.idOrder());
+            case NAME -> query.orderBy(byName);
+            case ABV_ASC -> query.orderBy(beersByAbv, false);
+            case ABV_DESC -> query.orderBy(beersByAbv, true);
+            case IBU_ASC -> query.orderBy(beersByIbu, false);
+            case IBU_DESC -> query.orderBy(beersByIbu, true);
+        }
+        return query.list();
+    }
+
+    public Page<Beer> getBeersPage(String afterId, int first) {
+        return beers.page(afterId, first);
+    }
+
     public List<Beer> getBeersByIds(Collection<String> ids) {
         return ids.stream()
                 .map(this::getBeerById)
@@ -30,12 +102,47 @@ public class BeerService {
     }
 
     public List<Beer> getBeersByBreweryId(String breweryId) {
-        return beers.values().stream()
-                .filter(beer -> beer.getBreweryId().equals(breweryId))
-                .collect(Collectors.toList());
+        return beersByBreweryId.get(breweryId);
+    }
+
+    public List<Beer> getBeersByBreweryId(String breweryId, Projection projection) {
+        return beersByBreweryId.get(breweryId, projection);
+    }
+
+    public Page<Beer> getBeersPageByBreweryId(String breweryId, String afterId, int first) {
+        return beersByBreweryId.page(breweryId, afterId, first);
+    }
+
+    public int countBeersByBreweryId(String breweryId) {
+        return beersByBreweryId.count(breweryId);
+    }
+
+    public Map<String, List<Beer>> getBeersByBreweryIds(Collection<String> breweryIds) {
+        return getBeersByBreweryIds(breweryIds, Projection.ALL);
+    }
+
+    public Map<String, List<Beer>> getBeersByBreweryIds(Collection<String> breweryIds, Projection projection) {
+        Map<String, List<Beer>> beersByBrewery = new HashMap<>(breweryIds.size() * 2);
+        for (String breweryId : breweryIds) {
+            beersByBrewery.put(breweryId, getBeersByBreweryId(breweryId, projection));
+        }
+        return beersByBrewery;
+    }
+
+    public void addChangeListener(EntityChangeListener<Beer> listener) {
+        beers.addListener(listener);
     }
 
     public int getBeerCount() {
         return beers.size();
     }
-}
\ No newline at end of file
+
+    // for SnapshotService
+    EntityStore<Beer> store() {
+        return beers;
+    }
+
+    private static String normalizeStyle(String style) {
+        return style != null ? style.trim().toLowerCase(Locale.ROOT) : null;
+    }
+}
@@ -0,0 +1,44 @@
+package com.example.brewery_api.service;
+
+import com.example.brewery_api.model.Brewery;
+import com.example.brewery_api.store.Projection;
+import com.example.brewery_api.store.RowCodec;
+import com.example.brewery_api.store.StringDictionary;
+
+/**
+ * Compact rows for {@link com.example.brewery_api.store.StoreLayout#COMPACT}: the founding year is a
+ * primitive and the location is a dictionary code.
+ */
+final class BreweryRowCodec implements RowCodec<Brewery> {
+    private final StringDictionary locations = new StringDictionary();
+
+    @Override
+    public Object encode(Brewery brewery) {
+        return new Row(brewery.getId(), brewery.getName(), brewery.getDescription(),
+                locations.encode(brewery.getLocation()), CompactValues.ofInteger(brewery.getEstablished()),
+                CompactValues.toArray(brewery.getBeerIds()));
+    }
+
+    @Override
+    public Brewery decode(Object encoded) {
+        return decode(encoded, Projection.ALL);
+    }
+
+    @Override
+    public Brewery decode(Object encoded, Projection projection) {
+        Row row = (Row) encoded;
+        Brewery brewery = new Brewery();
+        brewery.setId(row.id());
+        brewery.setName(row.name());
+        brewery.setDescription(row.description());
+        brewery.setLocation(locations.decode(row.location()));
+        brewery.setEstablished(CompactValues.toInteger(row.established()));
+        if (projection.includes("beerIds")) {
+            brewery.setBeerIds(CompactValues.toList(row.beerIds()));
+        }
+        return brewery;
+    }
+
+    private record Row(String id, String name, String description, int location, int established, String[] beerIds) {
+    }
+}
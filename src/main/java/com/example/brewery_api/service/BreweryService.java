@@ -1,58 +1,49 @@
 package com.example.brewery_api.service;
 
 import com.example.brewery_api.model.Brewery;
-import com.fasterxml.jackson.core.type.TypeReference;
-import com.fasterxml.jackson.databind.ObjectMapper;
+import com.example.brewery_api.store.EntityChangeListener;
+import com.example.brewery_api.store.EntityStore;
+import com.example.brewery_api.store.ForeignKeyIndex;
+import com.example.brewery_api.store.Page;
+import com.example.brewery_api.store.RowCodec;
+import com.example.brewery_api.store.StoreLayout;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.stereotype.Service;
 
-import jakarta.annotation.PostConstruct;
 import java.util.ArrayList;
-import java.io.IOException;
-import java.io.InputStream;
-import java.util.HashMap;
+import java.util.Collection;
 import java.util.List;
-import java.util.Map;
+import java.util.Locale;
 import java.util.Set;
 import java.util.stream.Collectors;
 
 @Service
 public class BreweryService {
     private static final Logger logger = LoggerFactory.getLogger(BreweryService.class);
-    private final Map<String, Brewery> breweries = new HashMap<>();
-    private final ObjectMapper objectMapper;
+    private final EntityStore<Brewery> breweries;
+    private final ForeignKeyIndex<Brewery> breweriesByCity;
 
-    public BreweryService(ObjectMapper objectMapper) {
-        this.objectMapper = objectMapper;
+    public BreweryService() {
+        this(StoreLayout.OBJECTS);
     }
 
-    @PostConstruct
-    public void init() {
-        // Load breweries from JSON file
-        try (InputStream inputStream = getClass().getResourceAsStream("/data/breweries.json")) {
-            if (inputStream == null) {
-                logger.error("Breweries JSON file not found at /data/breweries.json");
-                return;
-            }
-            List<Brewery> breweryList = objectMapper.readValue(inputStream, new TypeReference<List<Brewery>>() {});
-            for (Brewery brewery : breweryList) {
-                breweries.put(brewery.getId(), brewery);
-            }
-            logger.info("Loaded {} breweries from JSON", breweryList.size());
-        } catch (IOException e) {
-            logger.error("Failed to load breweries from JSON: {}", e.getMessage(), e);
-        }
+    @Autowired
+    public BreweryService(@Value("${app.store.layout:objects}") StoreLayout layout) {
+        breweries = new EntityStore<>(Brewery::getId, layout == StoreLayout.COMPACT ? new BreweryRowCodec() : RowCodec.identity());
+        breweriesByCity = breweries.addIndex(brewery -> cityOf(brewery.getLocation()));
     }
 
     public void addBrewery(Brewery brewery) {
-        breweries.put(brewery.getId(), brewery);
+        breweries.put(brewery);
     }
 
     public Brewery getBreweryById(String id) {
         Brewery brewery = breweries.get(id);
         if (brewery == null) {
-            logger.warn("Brewery with ID {} not found", id);
+            logger.debug("Brewery with ID {} not found", id);
             return null;
         }
         return brewery;
@@ -62,13 +53,52 @@ public class BreweryService {
         return new ArrayList<>(breweries.values());
     }
 
-    public List<Brewery> getBreweriesByIds(Set<String> ids) {
-        return breweries.values().stream()
-                .filter(brewery -> ids.contains(brewery.getId()))
-                .collect(Collectors.toList());
+    public Page<Brewery> getBreweriesPage(String afterId, int first) {
+        return breweries.page(afterId, first);
+    }
+
+    /**
+     * The breweries with the given ids, in the order of the ids; ids without a brewery are skipped.
+     */
+    public List<Brewery> getBreweriesByIds(Collection<String> ids) {
+        List<Brewery> found = new ArrayList<>(ids.size());
+        for (String id : ids) {
+            Brewery brewery = breweries.get(id);
+            if (brewery != null) {
+                found.add(brewery);
+            }
+        }
+        return found;
+    }
+
+    /**
+     * Ids of the breweries in the given location. Matching is by city, case-insensitively, so
+     * {@code "Львів"} and {@code "Львів, Україна"} are equivalent.
+     */
+    public Set<String> getBreweryIdsByLocation(String location) {
+        return breweriesByCity.view(cityOf(location)).stream()
+                .map(Brewery::getId)
+                .collect(Collectors.toSet());
+    }
+
+    public void addChangeListener(EntityChangeListener<Brewery> listener) {
+        breweries.addListener(listener);
     }
 
     public int getBreweryCount() {
         return breweries.size();
     }
+
+    // for SnapshotService
+    EntityStore<Brewery> store() {
+        return breweries;
+    }
+
+    private static String cityOf(String location) {
+        if (location == null) {
+            return null;
+        }
+        int comma = location.indexOf(',');
+        return (comma >= 0 ? location.substring(0, comma) : location).trim().toLowerCase(Locale.ROOT);
+    }
 }
\ No newline at end of file
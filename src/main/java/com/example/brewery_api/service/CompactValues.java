@@ -0,0 +1,53 @@
+package com.example.brewery_api.service;
+
+import java.time.LocalDate;
+import java.time.format.DateTimeParseException;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * Conversions shared by the compact row codecs.
+ */
+final class CompactValues {
+    // stands in for null in primitive int columns
+    static final int NULL_INT = Integer.MIN_VALUE;
+
+    private CompactValues() {
+    }
+
+    static int ofInteger(Integer value) {
+        return value != null ? value : NULL_INT;
+    }
+
+    static Integer toInteger(int value) {
+        return value != NULL_INT ? value : null;
+    }
+
+    /**
+     * @return the epoch day of an ISO date that prints back identically, otherwise {@link #NULL_INT}
+     */
+    static int epochDay(String date) {
+        if (date == null) {
+            return NULL_INT;
+        }
+        try {
+            LocalDate parsed = LocalDate.parse(date);
+            return parsed.toString().equals(date) ? Math.toIntExact(parsed.toEpochDay()) : NULL_INT;
+        } catch (DateTimeParseException | ArithmeticException e) {
+            return NULL_INT;
+        }
+    }
+
+    static String isoDate(int epochDay) {
+        return epochDay != NULL_INT ? LocalDate.ofEpochDay(epochDay).toString() : null;
+    }
+
+    static String[] toArray(List<String> values) {
+        return values != null ? values.toArray(String[]::new) : null;
+    }
+
+    static List<String> toList(String[] values) {
+        return values != null ? new ArrayList<>(Arrays.asList(values)) : null;
+    }
+}
@@ -3,20 +3,46 @@ package com.example.brewery_api.service;
 import com.example.brewery_api.model.Beer;
 import com.example.brewery_api.model.Brewery;
 import com.example.brewery_api.model.Review;
-import com.fasterxml.jackson.core.type.TypeReference;
+import com.fasterxml.jackson.core.JsonParser;
+import com.fasterxml.jackson.core.JsonToken;
 import com.fasterxml.jackson.databind.ObjectMapper;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Value;
 import org.springframework.boot.CommandLineRunner;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
 import org.springframework.core.io.Resource;
 import org.springframework.stereotype.Component;
 
 import java.io.IOException;
 import java.io.InputStream;
-import java.util.List;
+import java.io.UncheckedIOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Consumer;
 
+/**
+ * Startup ingestion. Each JSON file is parsed on its own thread with Jackson's streaming
+ * {@link JsonParser}, binding one record at a time and inserting it straight into its service, so
+ * peak heap stays at one record per file rather than a full {@code List} per file. The stores
+ * build their foreign-key indexes on insert, and inserts from different files never contend, so
+ * the files do not need to be loaded in dependency order.
+ * <p>
+ * With {@code app.snapshot.path} set, startup first restores the binary snapshot at that path (see
+ * {@link SnapshotService}) and only imports JSON when there is no snapshot yet, writing a fresh
+ * snapshot after the import. A snapshot that exists but cannot be restored fails startup: it may
+ * hold writes that are no longer in the log, and importing JSON would overwrite it without them.
+ * Writes logged since (see {@link MutationService}) are then replayed, and folded into a new
+ * snapshot so the log starts empty.
+ * <p>
+ * Disabled with {@code app.data.load-on-startup=false}, e.g. by benchmarks that bring their own data.
+ */
 @Component
+@ConditionalOnProperty(name = "app.data.load-on-startup", havingValue = "true", matchIfMissing = true)
 public class DataLoader implements CommandLineRunner {
     private static final Logger logger = LoggerFactory.getLogger(DataLoader.class);
 
@@ -24,6 +50,8 @@ public class DataLoader implements CommandLineRunner {
     private final BeerService beerService;
     private final ReviewService reviewService;
     private final ObjectMapper objectMapper;
+    private final SnapshotService snapshotService;
+    private final MutationService mutationService;
 
     @Value("classpath:data/breweries.json")
     private Resource breweriesResource;
@@ -34,47 +62,104 @@ public class DataLoader implements CommandLineRunner {
     @Value("classpath:data/reviews.json")
     private Resource reviewsResource;
 
+    @Value("${app.snapshot.path:}")
+    private String snapshotPath;
+
     public DataLoader(BreweryService breweryService, BeerService beerService,
-                      ReviewService reviewService, ObjectMapper objectMapper) {
+                      ReviewService reviewService, ObjectMapper objectMapper, SnapshotService snapshotService,
+                      MutationService mutationService) {
         this.breweryService = breweryService;
         this.beerService = beerService;
         this.reviewService = reviewService;
         this.objectMapper = objectMapper;
+        this.snapshotService = snapshotService;
+        this.mutationService = mutationService;
     }
 
     @Override
     public void run(String... args) throws Exception {
-        loadBreweries();
-        loadBeers();
-        loadReviews();
-
-        logger.info("Loaded {} breweries, {} beers, and {} reviews into memory",
-                breweryService.getBreweryCount(),
-                beerService.getBeerCount(),
-                reviewService.getReviewCount());
+        Path snapshot = snapshotPath.isBlank() ? null : Path.of(snapshotPath);
+        boolean fromSnapshot = snapshot != null && Files.exists(snapshot);
+        if (fromSnapshot) {
+            restore(snapshot);
+            logCounts("snapshot");
+        } else {
+            importJson();
+        }
+        int replayed = mutationService.recover();
+        if (snapshot != null && (!fromSnapshot || replayed > 0)) {
+            try {
+                mutationService.checkpoint(snapshot);
+            } catch (IOException | RuntimeException e) {
+                logger.warn("Could not write snapshot {}", snapshot, e);
+            }
+        }
     }
 
-    private void loadBreweries() throws IOException {
-        try (InputStream is = breweriesResource.getInputStream()) {
-            List<Brewery> breweries = objectMapper.readValue(is, new TypeReference<List<Brewery>>() {});
-            breweries.forEach(breweryService::addBrewery);
-            logger.info("Loaded {} breweries from file", breweries.size());
+    private void restore(Path snapshot) {
+        try {
+            snapshotService.restore(snapshot);
+        } catch (IOException | RuntimeException e) {
+            throw new IllegalStateException("Could not restore snapshot " + snapshot
+                    + "; move it aside to start from the JSON data instead", e);
         }
     }
 
-    private void loadBeers() throws IOException {
-        try (InputStream is = beersResource.getInputStream()) {
-            List<Beer> beers = objectMapper.readValue(is, new TypeReference<List<Beer>>() {});
-            beers.forEach(beerService::addBeer);
-            logger.info("Loaded {} beers from file", beers.size());
+    private void importJson() throws InterruptedException {
+        long start = System.nanoTime();
+        ExecutorService ingestPool = Executors.newFixedThreadPool(3, runnable -> {
+            Thread thread = new Thread(runnable, "data-ingest");
+            thread.setDaemon(true);
+            return thread;
+        });
+        try {
+            CompletableFuture.allOf(
+                    ingestAsync(breweriesResource, Brewery.class, breweryService::addBrewery, ingestPool),
+                    ingestAsync(beersResource, Beer.class, beerService::addBeer, ingestPool),
+                    ingestAsync(reviewsResource, Review.class, reviewService::addReview, ingestPool)
+            ).join();
+        } finally {
+            ingestPool.shutdown();
+            ingestPool.awaitTermination(1, TimeUnit.MINUTES);
         }
+
+        logCounts("JSON in " + TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start) + " ms");
+    }
+
+    private void logCounts(String source) {
+        logger.info("Loaded {} breweries, {} beers, and {} reviews into memory from {}",
+                breweryService.getBreweryCount(),
+                beerService.getBeerCount(),
+                reviewService.getReviewCount(),
+                source);
+    }
+
+    private <T> CompletableFuture<Void> ingestAsync(Resource resource, Class<T> type, Consumer<T> sink,
+                                                    ExecutorService executor) {
+        return CompletableFuture.runAsync(() -> {
+            try {
+                ingest(resource, type, sink);
+            } catch (IOException e) {
+                throw new UncheckedIOException("Failed to load " + resource.getDescription(), e);
+            }
+        }, executor);
     }
 
-    private void loadReviews() throws IOException {
-        try (InputStream is = reviewsResource.getInputStream()) {
-            List<Review> reviews = objectMapper.readValue(is, new TypeReference<List<Review>>() {});
-            reviews.forEach(reviewService::addReview);
-            logger.info("Loaded {} reviews from file", reviews.size());
+    <T> long ingest(Resource resource, Class<T> type, Consumer<T> sink) throws IOException {
+        long start = System.nanoTime();
+        long count = 0;
+        try (InputStream is = resource.getInputStream();
+             JsonParser parser = objectMapper.getFactory().createParser(is)) {
+            if (parser.nextToken() != JsonToken.START_ARRAY) {
+                throw new IOException("Expected a JSON array in " + resource.getDescription());
+            }
+            while (parser.nextToken() == JsonToken.START_OBJECT) {
+                sink.accept(objectMapper.readValue(parser, type));
+                count++;
+            }
         }
+        logger.info("Loaded {} {} records from {} in {} ms", count, type.getSimpleName(),
+                resource.getFilename(), TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start));
+        return count;
     }
-}
\ No newline at end of file
+}
@@ -0,0 +1,13 @@
+package com.example.brewery_api.service;
+
+/**
+ * Mutation input that fails validation, such as a missing required field or a reference to an
+ * entity that does not exist. Reported to the client as a bad request.
+ */
+public class InvalidInputException extends RuntimeException {
+    private static final long serialVersionUID = 1L;
+
+    public InvalidInputException(String message) {
+        super(message);
+    }
+}
@@ -0,0 +1,406 @@
+package com.example.brewery_api.service;
+
+import com.example.brewery_api.model.Beer;
+import com.example.brewery_api.model.Brewery;
+import com.example.brewery_api.model.Review;
+import com.example.brewery_api.store.RowSerializer;
+import com.example.brewery_api.store.SnapshotInput;
+import com.example.brewery_api.store.SnapshotOutput;
+import com.example.brewery_api.store.WriteAheadLog;
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+import org.springframework.util.unit.DataSize;
+
+import java.io.IOException;
+import java.nio.file.Path;
+import java.util.Collection;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.BiConsumer;
+import java.util.function.BinaryOperator;
+import java.util.function.Consumer;
+import java.util.function.Function;
+import java.util.function.Supplier;
+
+/**
+ * Creates and updates breweries, beers and reviews on behalf of the GraphQL mutations.
+ * <p>
+ * With {@code app.wal.path} set, every write is a record in a {@link WriteAheadLog} and reaches the
+ * stores (and through their listeners the indexes and caches) only after its batch is synced, in
+ * log order. Updates are logged as patches and merged when applied, so concurrent updates of one
+ * entity never lose each other's fields, and replaying a record twice leaves the same state.
+ * {@link #recover} replays the log after the startup load. Without a path, writes are applied
+ * immediately and are lost on restart.
+ * <p>
+ * Once the log has grown past {@code app.wal.checkpoint-size}, the next write queues a checkpoint
+ * into {@code app.snapshot.path}, which empties the log, so it stays bounded however long the node
+ * runs. A log therefore requires a snapshot path.
+ */
+@Service
+public class MutationService {
+    private static final Logger logger = LoggerFactory.getLogger(MutationService.class);
+    private static final byte INSERT = 1;
+    private static final byte PATCH = 2;
+
+    private final BreweryService breweryService;
+    private final BeerService beerService;
+    private final ReviewService reviewService;
+    private final SnapshotService snapshotService;
+    private final WriteAheadLog log;
+    private final Kind<Brewery> breweries;
+    private final Kind<Beer> beers;
+    private final Kind<Review> reviews;
+    private final Path snapshot;
+    private final long checkpointBytes;
+    private final AtomicBoolean checkpointing = new AtomicBoolean();
+    private volatile boolean recovered;
+
+    @Autowired
+    public MutationService(BreweryService breweryService, BeerService beerService, ReviewService reviewService,
+                           SnapshotService snapshotService,
+                           @Value("${app.wal.path:}") String walPath,
+                           @Value("${app.wal.fsync:true}") boolean fsync,
+                           @Value("${app.wal.max-batch:1024}") int maxBatch,
+                           @Value("${app.wal.checkpoint-size:64MB}") DataSize checkpointSize,
+                           @Value("${app.snapshot.path:}") String snapshotPath) throws IOException {
+        this(breweryService, beerService, reviewService, snapshotService,
+                walPath.isBlank() ? null : openLog(walPath, snapshotPath, fsync, maxBatch),
+                snapshotPath.isBlank() ? null : Path.of(snapshotPath), checkpointSize.toBytes());
+    }
+
+    MutationService(BreweryService breweryService, BeerService beerService, ReviewService reviewService,
+                    SnapshotService snapshotService, WriteAheadLog log, Path snapshot, long checkpointBytes) {
+        this.breweryService = breweryService;
+        this.beerService = beerService;
+        this.reviewService = reviewService;
+        this.snapshotService = snapshotService;
+        this.log = log;
+        this.snapshot = snapshot;
+        this.checkpointBytes = checkpointBytes;
+        this.breweries = new Kind<>((byte) 1, RowSerializers.BREWERY, Brewery::getId, Brewery::setId,
+                breweryService::getBreweryById, breweryService::addBrewery, MutationService::merge,
+                () -> breweryService.getAllBreweries().stream().map(Brewery::getId).toList());
+        this.beers = new Kind<>((byte) 2, RowSerializers.BEER, Beer::getId, Beer::setId,
+                beerService::getBeerById, beerService::addBeer, MutationService::merge,
+                () -> beerService.getAllBeers().stream().map(Beer::getId).toList());
+        this.reviews = new Kind<>((byte) 3, RowSerializers.REVIEW, Review::getId, Review::setId,
+                reviewService::getReviewById, reviewService::addReview, MutationService::merge,
+                () -> reviewService.getAllReviews().stream().map(Review::getId).toList());
+    }
+
+    private static WriteAheadLog openLog(String walPath, String snapshotPath, boolean fsync, int maxBatch)
+            throws IOException {
+        if (snapshotPath.isBlank()) {
+            throw new IllegalStateException("app.wal.path requires app.snapshot.path: the log is only emptied"
+                    + " by checkpointing it into a snapshot, and would otherwise grow without bound");
+        }
+        return new WriteAheadLog(Path.of(walPath), fsync, maxBatch);
+    }
+
+    public CompletableFuture<Brewery> addBrewery(Brewery brewery) {
+        require(brewery.getName(), "name");
+        require(brewery.getLocation(), "location");
+        return insert(breweries, brewery);
+    }
+
+    /**
+     * @return the updated brewery, or {@code null} if there is none with that id
+     */
+    public CompletableFuture<Brewery> updateBrewery(String id, Brewery patch) {
+        return patch(breweries, id, patch);
+    }
+
+    public CompletableFuture<Beer> addBeer(Beer beer) {
+        require(beer.getName(), "name");
+        require(beer.getStyle(), "style");
+        requireBrewery(beer.getBreweryId());
+        return insert(beers, beer);
+    }
+
+    public CompletableFuture<Beer> updateBeer(String id, Beer patch) {
+        if (patch.getBreweryId() != null) {
+            requireBrewery(patch.getBreweryId());
+        }
+        return patch(beers, id, patch);
+    }
+
+    public CompletableFuture<Review> addReview(Review review) {
+        require(review.getAuthor(), "author");
+        if (review.getRating() == null) {
+            throw new InvalidInputException("rating is required");
+        }
+        requireRating(review.getRating());
+        requireBeer(review.getBeerId());
+        return insert(reviews, review);
+    }
+
+    public CompletableFuture<Review> updateReview(String id, Review patch) {
+        if (patch.getRating() != null) {
+            requireRating(patch.getRating());
+        }
+        if (patch.getBeerId() != null) {
+            requireBeer(patch.getBeerId());
+        }
+        return patch(reviews, id, patch);
+    }
+
+    /**
+     * Replays the write-ahead log into the stores; called once the startup load has finished.
+     *
+     * @return the number of records replayed
+     */
+    public int recover() throws IOException {
+        if (log == null) {
+            return 0;
+        }
+        long start = System.nanoTime();
+        int records = log.replay(this::replay);
+        logger.info("Replayed {} write-ahead log records in {} ms", records,
+                TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start));
+        // checkpoints before this would snapshot stores that are still being loaded
+        recovered = true;
+        return records;
+    }
+
+    /**
+     * Writes a snapshot that includes every write applied so far and then empties the log, with
+     * no write applied in between.
+     */
+    public void checkpoint(Path snapshot) throws IOException {
+        if (log == null) {
+            snapshotService.write(snapshot);
+            return;
+        }
+        try {
+            log.barrier(() -> foldInto(snapshot)).join();
+        } catch (CompletionException e) {
+            if (e.getCause() instanceof IOException io) {
+                throw io;
+            }
+            throw e;
+        }
+    }
+
+    private void foldInto(Path snapshot) throws IOException {
+        snapshotService.write(snapshot);
+        log.truncate();
+    }
+
+    /**
+     * Queues a checkpoint behind the current write once the log is over its size limit, unless one
+     * is already queued.
+     */
+    private void checkpointIfLarge() {
+        long size = log.size();
+        if (!recovered || snapshot == null || size < checkpointBytes || !checkpointing.compareAndSet(false, true)) {
+            return;
+        }
+        log.barrier(() -> foldInto(snapshot)).whenComplete((ignored, e) -> {
+            checkpointing.set(false);
+            if (e != null) {
+                logger.warn("Could not checkpoint the write-ahead log into {}", snapshot, e);
+            } else {
+                logger.info("Checkpointed {} bytes of write-ahead log into {}", size, snapshot);
+            }
+        });
+    }
+
+    @PreDestroy
+    public void close() throws IOException {
+        if (log != null) {
+            log.close();
+        }
+    }
+
+    private <T> CompletableFuture<T> insert(Kind<T> kind, T entity) {
+        kind.setId().accept(entity, kind.ids().next());
+        return write(kind, INSERT, kind.idOf().apply(entity), entity);
+    }
+
+    private <T> CompletableFuture<T> patch(Kind<T> kind, String id, T patch) {
+        kind.setId().accept(patch, id);
+        return write(kind, PATCH, id, patch);
+    }
+
+    private <T> CompletableFuture<T> write(Kind<T> kind, byte op, String id, T entity) {
+        if (log == null) {
+            synchronized (this) {
+                return CompletableFuture.completedFuture(apply(kind, op, entity));
+            }
+        }
+        CompletableFuture<T> result = log.append(out -> {
+            out.writeByte(kind.tag());
+            out.writeByte(op);
+            out.writeString(id);
+            kind.serializer().write(out, entity);
+        }, () -> apply(kind, op, entity));
+        checkpointIfLarge();
+        return result;
+    }
+
+    private void replay(SnapshotInput in) {
+        byte tag = in.readByte();
+        byte op = in.readByte();
+        String id = in.readString();
+        if (tag == breweries.tag()) {
+            replay(breweries, op, breweries.serializer().read(in, id));
+        } else if (tag == beers.tag()) {
+            replay(beers, op, beers.serializer().read(in, id));
+        } else if (tag == reviews.tag()) {
+            replay(reviews, op, reviews.serializer().read(in, id));
+        } else {
+            throw new IllegalStateException("Unknown write-ahead log record type " + tag);
+        }
+    }
+
+    private <T> void replay(Kind<T> kind, byte op, T entity) {
+        if (apply(kind, op, entity) == null) {
+            logger.warn("Skipped write-ahead log patch of {} {}, which is not in the store",
+                    entity.getClass().getSimpleName(), kind.idOf().apply(entity));
+        }
+    }
+
+    /**
+     * Applies one logged write; runs on the log's committer thread, or under this service's lock
+     * without a log.
+     */
+    private <T> T apply(Kind<T> kind, byte op, T entity) {
+        String id = kind.idOf().apply(entity);
+        kind.ids().observe(id);
+        T result = entity;
+        if (op == PATCH) {
+            T current = kind.get().apply(id);
+            if (current == null) {
+                return null;
+            }
+            result = kind.merge().apply(current, entity);
+        }
+        kind.put().accept(result);
+        return result;
+    }
+
+    private void requireBrewery(String breweryId) {
+        if (breweryService.getBreweryById(breweryId) == null) {
+            throw new InvalidInputException("Unknown brewery: " + breweryId);
+        }
+    }
+
+    private void requireBeer(String beerId) {
+        if (beerService.getBeerById(beerId) == null) {
+            throw new InvalidInputException("Unknown beer: " + beerId);
+        }
+    }
+
+    private static void requireRating(int rating) {
+        if (rating < 1 || rating > 5) {
+            throw new InvalidInputException("rating must be between 1 and 5");
+        }
+    }
+
+    private static void require(String value, String field) {
+        if (value == null || value.isBlank()) {
+            throw new InvalidInputException(field + " is required");
+        }
+    }
+
+    // merges copy the stored entity, which the OBJECTS layout shares with the store and its indexes
+
+    static Brewery merge(Brewery current, Brewery patch) {
+        Brewery merged = new Brewery();
+        merged.setId(current.getId());
+        merged.setName(patch.getName() != null ? patch.getName() : current.getName());
+        merged.setLocation(patch.getLocation() != null ? patch.getLocation() : current.getLocation());
+        merged.setEstablished(patch.getEstablished() != null ? patch.getEstablished() : current.getEstablished());
+        merged.setDescription(patch.getDescription() != null ? patch.getDescription() : current.getDescription());
+        merged.setBeerIds(patch.getBeerIds() != null ? patch.getBeerIds() : current.getBeerIds());
+        return merged;
+    }
+
+    static Beer merge(Beer current, Beer patch) {
+        Beer merged = new Beer();
+        merged.setId(current.getId());
+        merged.setName(patch.getName() != null ? patch.getName() : current.getName());
+        merged.setStyle(patch.getStyle() != null ? patch.getStyle() : current.getStyle());
+        merged.setAbv(patch.getAbv() != null ? patch.getAbv() : current.getAbv());
+        merged.setIbu(patch.getIbu() != null ? patch.getIbu() : current.getIbu());
+        merged.setDescription(patch.getDescription() != null ? patch.getDescription() : current.getDescription());
+        merged.setBreweryId(patch.getBreweryId() != null ? patch.getBreweryId() : current.getBreweryId());
+        merged.setReviewIds(patch.getReviewIds() != null ? patch.getReviewIds() : current.getReviewIds());
+        return merged;
+    }
+
+    static Review merge(Review current, Review patch) {
+        Review merged = new Review();
+        merged.setId(current.getId());
+        merged.setRating(patch.getRating() != null ? patch.getRating() : current.getRating());
+        merged.setComment(patch.getComment() != null ? patch.getComment() : current.getComment());
+        merged.setAuthor(patch.getAuthor() != null ? patch.getAuthor() : current.getAuthor());
+        merged.setDate(patch.getDate() != null ? patch.getDate() : current.getDate());
+        merged.setBeerId(patch.getBeerId() != null ? patch.getBeerId() : current.getBeerId());
+        return merged;
+    }
+
+    /**
+     * How one entity type is logged, looked up, stored and merged.
+     */
+    private record Kind<T>(byte tag, RowSerializer<T> serializer, Function<T, String> idOf,
+                           BiConsumer<T, String> setId, Function<String, T> get,
+                           Consumer<T> put, BinaryOperator<T> merge, IdSequence ids) {
+
+        Kind(byte tag, RowSerializer<T> serializer, Function<T, String> idOf,
+             BiConsumer<T, String> setId, Function<String, T> get, Consumer<T> put,
+             BinaryOperator<T> merge, Supplier<Collection<String>> existingIds) {
+            this(tag, serializer, idOf, setId, get, put, merge, new IdSequence(existingIds));
+        }
+    }
+
+    /**
+     * Numeric ids for new entities, continuing after the largest numeric id in the store. Seeded
+     * lazily, since a store may be filled after this service is created.
+     */
+    private static final class IdSequence {
+        private final Supplier<Collection<String>> existingIds;
+        private final AtomicLong last = new AtomicLong();
+        private volatile boolean seeded;
+
+        IdSequence(Supplier<Collection<String>> existingIds) {
+            this.existingIds = existingIds;
+        }
+
+        String next() {
+            if (!seeded) {
+                seed();
+            }
+            return Long.toString(last.incrementAndGet());
+        }
+
+        void observe(String id) {
+            long numeric = parse(id);
+            if (numeric > 0) {
+                last.accumulateAndGet(numeric, Math::max);
+            }
+        }
+
+        private synchronized void seed() {
+            if (!seeded) {
+                existingIds.get().forEach(this::observe);
+                seeded = true;
+            }
+        }
+
+        private static long parse(String id) {
+            try {
+                return Long.parseLong(id);
+            } catch (NumberFormatException e) {
+                return -1;
+            }
+        }
+    }
+}
@@ -0,0 +1,194 @@
+package com.example.brewery_api.service;
+
+import com.example.brewery_api.model.Beer;
+import com.example.brewery_api.model.RatingCount;
+import com.example.brewery_api.model.RatingSummary;
+import com.example.brewery_api.model.Review;
+import com.example.brewery_api.store.EntityChangeListener;
+import org.springframework.stereotype.Service;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Review count, average rating and rating histogram per beer and per brewery, kept current from
+ * the review and beer change listeners in O(1) per write rather than recomputed from review lists.
+ * <p>
+ * Each beer's counters carry the brewery they are rolled up into. A review write and a beer moving
+ * to another brewery both lock the beer's counters first and the brewery's second, so a review
+ * is never added to a brewery the beer has just left. Reviews may arrive before their beer, as in
+ * the parallel startup load; they are rolled up once the beer is stored.
+ */
+@Service
+public class RatingAggregates {
+    static final int MAX_RATING = 5;
+
+    private final BeerService beerService;
+    private final ReviewService reviewService;
+    private final Map<String, BeerCounters> beers = new ConcurrentHashMap<>();
+    private final Map<String, Counters> breweries = new ConcurrentHashMap<>();
+
+    public RatingAggregates(BeerService beerService, ReviewService reviewService) {
+        this.beerService = beerService;
+        this.reviewService = reviewService;
+        beerService.addChangeListener(new EntityChangeListener<>() {
+            @Override
+            public void onChange(Beer previous, Beer current) {
+                if (current != null) {
+                    moveBeer(current.getId(), current.getBreweryId());
+                } else if (previous != null) {
+                    moveBeer(previous.getId(), null);
+                }
+            }
+
+            @Override
+            public void onReload() {
+                rebuild();
+            }
+        });
+        reviewService.addChangeListener(new EntityChangeListener<>() {
+            @Override
+            public void onChange(Review previous, Review current) {
+                if (previous != null && current != null
+                        && Objects.equals(previous.getBeerId(), current.getBeerId())
+                        && Objects.equals(previous.getRating(), current.getRating())) {
+                    return;
+                }
+                if (previous != null) {
+                    addReview(previous.getBeerId(), previous.getRating(), -1);
+                }
+                if (current != null) {
+                    addReview(current.getBeerId(), current.getRating(), 1);
+                }
+            }
+
+            @Override
+            public void onReload() {
+                rebuild();
+            }
+        });
+    }
+
+    public RatingSummary forBeer(String beerId) {
+        Counters counters = beerId != null ? beers.get(beerId) : null;
+        return counters != null ? counters.summary() : Counters.EMPTY;
+    }
+
+    public RatingSummary forBrewery(String breweryId) {
+        Counters counters = breweryId != null ? breweries.get(breweryId) : null;
+        return counters != null ? counters.summary() : Counters.EMPTY;
+    }
+
+    public Map<String, RatingSummary> forBeers(Collection<String> beerIds) {
+        Map<String, RatingSummary> summaries = new HashMap<>(beerIds.size() * 2);
+        for (String beerId : beerIds) {
+            summaries.put(beerId, forBeer(beerId));
+        }
+        return summaries;
+    }
+
+    public Map<String, RatingSummary> forBreweries(Collection<String> breweryIds) {
+        Map<String, RatingSummary> summaries = new HashMap<>(breweryIds.size() * 2);
+        for (String breweryId : breweryIds) {
+            summaries.put(breweryId, forBrewery(breweryId));
+        }
+        return summaries;
+    }
+
+    /**
+     * Recomputes every aggregate from the stores, after they were reloaded without per-entity
+     * change calls.
+     */
+    synchronized void rebuild() {
+        beers.clear();
+        breweries.clear();
+        for (Beer beer : beerService.getAllBeers()) {
+            moveBeer(beer.getId(), beer.getBreweryId());
+        }
+        for (Review review : reviewService.getAllReviews()) {
+            addReview(review.getBeerId(), review.getRating(), 1);
+        }
+    }
+
+    private void addReview(String beerId, Integer rating, int sign) {
+        if (beerId == null) {
+            return;
+        }
+        BeerCounters counters = beers.computeIfAbsent(beerId, id -> new BeerCounters());
+        synchronized (counters) {
+            counters.add(rating, sign);
+            if (counters.breweryId != null) {
+                brewery(counters.breweryId).add(rating, sign);
+            }
+        }
+    }
+
+    private void moveBeer(String beerId, String breweryId) {
+        BeerCounters counters = beers.computeIfAbsent(beerId, id -> new BeerCounters());
+        synchronized (counters) {
+            if (Objects.equals(counters.breweryId, breweryId)) {
+                return;
+            }
+            if (counters.breweryId != null) {
+                brewery(counters.breweryId).addAll(counters, -1);
+            }
+            counters.breweryId = breweryId;
+            if (breweryId != null) {
+                brewery(breweryId).addAll(counters, 1);
+            }
+        }
+    }
+
+    private Counters brewery(String breweryId) {
+        return breweries.computeIfAbsent(breweryId, id -> new Counters());
+    }
+
+    private static class Counters {
+        static final RatingSummary EMPTY = new Counters().summary();
+
+        private int reviews;
+        private int rated;
+        private long sum;
+        // reviews per rating 1..MAX_RATING; other ratings count towards the average only
+        private final int[] histogram = new int[MAX_RATING];
+
+        synchronized void add(Integer rating, int sign) {
+            reviews += sign;
+            if (rating != null) {
+                rated += sign;
+                sum += (long) sign * rating;
+                if (rating >= 1 && rating <= MAX_RATING) {
+                    histogram[rating - 1] += sign;
+                }
+            }
+        }
+
+        // other is locked by the caller
+        synchronized void addAll(Counters other, int sign) {
+            reviews += sign * other.reviews;
+            rated += sign * other.rated;
+            sum += (long) sign * other.sum;
+            for (int i = 0; i < MAX_RATING; i++) {
+                histogram[i] += sign * other.histogram[i];
+            }
+        }
+
+        synchronized RatingSummary summary() {
+            List<RatingCount> buckets = new ArrayList<>(MAX_RATING);
+            for (int i = 0; i < MAX_RATING; i++) {
+                buckets.add(new RatingCount(i + 1, histogram[i]));
+            }
+            return new RatingSummary(rated > 0 ? (double) sum / rated : null, reviews, List.copyOf(buckets));
+        }
+    }
+
+    private static final class BeerCounters extends Counters {
+        // guarded by this
+        private String breweryId;
+    }
+}
@@ -0,0 +1,41 @@
+package com.example.brewery_api.service;
+
+import com.example.brewery_api.model.Review;
+import com.example.brewery_api.store.RowCodec;
+import com.example.brewery_api.store.StringDictionary;
+
+/**
+ * Compact rows for {@link com.example.brewery_api.store.StoreLayout#COMPACT}: the rating is a
+ * primitive, ISO dates are epoch days, and the beer id and author are dictionary codes.
+ */
+final class ReviewRowCodec implements RowCodec<Review> {
+    private final StringDictionary beerIds = new StringDictionary();
+    private final StringDictionary authors = new StringDictionary();
+
+    @Override
+    public Object encode(Review review) {
+        String date = review.getDate();
+        int epochDay = CompactValues.epochDay(date);
+        return new Row(review.getId(), CompactValues.ofInteger(review.getRating()), epochDay,
+                epochDay == CompactValues.NULL_INT && date != null ? date : null,
+                beerIds.encode(review.getBeerId()), authors.encode(review.getAuthor()), review.getComment());
+    }
+
+    @Override
+    public Review decode(Object encoded) {
+        Row row = (Row) encoded;
+        Review review = new Review();
+        review.setId(row.id());
+        review.setRating(CompactValues.toInteger(row.rating()));
+        review.setDate(row.rawDate() != null ? row.rawDate() : CompactValues.isoDate(row.epochDay()));
+        review.setBeerId(beerIds.decode(row.beerId()));
+        review.setAuthor(authors.decode(row.author()));
+        review.setComment(row.comment());
+        return review;
+    }
+
+    // rawDate holds a date that does not round-trip through an epoch day; it costs no space on a
+    // 64-bit JVM with compressed references because the row is padded to 40 bytes anyway
+    private record Row(String id, int rating, int epochDay, String rawDate, int beerId, int author, String comment) {
+    }
+}
@@ -1,6 +1,19 @@
 package com.example.brewery_api.service;
 
+import com.example.brewery_api.filter.ReviewFilter;
+import com.example.brewery_api.filter.ReviewSort;
 import com.example.brewery_api.model.Review;
+import com.example.brewery_api.store.EntityChangeListener;
+import com.example.brewery_api.store.EntityStore;
+import com.example.brewery_api.store.ForeignKeyIndex;
+import com.example.brewery_api.store.IndexQuery;
+import com.example.brewery_api.store.Page;
+import com.example.brewery_api.store.Projection;
+import com.example.brewery_api.store.RowCodec;
+import com.example.brewery_api.store.SortedIndex;
+import com.example.brewery_api.store.StoreLayout;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.stereotype.Service;
 
 import java.util.*;
@@ -8,10 +21,30 @@ import java.util.stream.Collectors;
 
 @Service
 public class ReviewService {
-    private final Map<String, Review> reviews = new HashMap<>();
+    private final EntityStore<Review> reviews;
+    private final ForeignKeyIndex<Review> reviewsByBeerId;
+    private final SortedIndex<Review, Integer> reviewsByRating;
+    private final SortedIndex<Review, String> reviewsByDate;
+
+    public ReviewService() {
+        this(StoreLayout.OBJECTS);
+    }
+
+    @Autowired
+    public ReviewService(@Value("${app.store.layout:objects}") StoreLayout layout) {
+        reviews = new EntityStore<>(Review::getId, layout == StoreLayout.COMPACT ? new ReviewRowCodec() : RowCodec.identity());
+        reviewsByBeerId = reviews.addIndex(Review::getBeerId);
+        reviewsByRating = reviews.addSortedIndex(Review::getRating);
+        // ISO-8601 dates order correctly as strings
+        reviewsByDate = reviews.addSortedIndex(Review::getDate);
+    }
 
     public void addReview(Review review) {
-        reviews.put(review.getId(), review);
+        reviews.put(review);
+    }
+
+    public Review removeReview(String id) {
+        return reviews.remove(id);
     }
 
     public Review getReviewById(String id) {
@@ -22,6 +55,35 @@ public class ReviewService {
         return new ArrayList<>(reviews.values());
     }
 
+    /**
+     * Reviews matching the filter, in the requested order (id order when {@code sort} is
+     * {@code null}). The most selective of the beer, rating and date indexes drives the query.
+     */
+    public List<Review> findReviews(ReviewFilter filter, ReviewSort sort) {
+        IndexQuery<Review> query = IndexQuery.over(reviews);
+        if (filter.beerId() != null) {
+            query.whereEquals(reviewsByBeerId, filter.beerId());
+        }
+        if (filter.ratingMin() != null || filter.ratingMax() != null) {
+            query.whereBetween(reviewsByRating, filter.ratingMin(), filter.ratingMax());
+        }
+        if (filter.dateFrom() != null || filter.dateTo() != null) {
+            query.whereBetween(reviewsByDate, filter.dateFrom(), filter.dateTo());
+        }
+        switch (sort != null ? sort : ReviewSort.ID) {
+            case ID -> query.orderBy(reviews.idOrder());
+            case RATING_ASC -> query.orderBy(reviewsByRating, false);
+            case RATING_DESC -> query.orderBy(reviewsByRating, true);
+            case DATE_ASC -> query.orderBy(reviewsByDate, false);
+            case DATE_DESC -> query.orderBy(reviewsByDate, true);
+        }
+        return query.list();
+    }
+
+    public Page<Review> getReviewsPage(String afterId, int first) {
+        return reviews.page(afterId, first);
+    }
+
     public List<Review> getReviewsByIds(Collection<String> ids) {
         return ids.stream()
                 .map(this::getReviewById)
@@ -30,20 +92,43 @@ public class ReviewService {
     }
 
     public List<Review> getReviewsByBeerId(String beerId) {
-        return reviews.values().stream()
-                .filter(review -> review.getBeerId().equals(beerId))
-                .collect(Collectors.toList());
+        return reviewsByBeerId.get(beerId);
     }
 
-    public Map<String, List<Review>> getReviewsByBeerIds(Set<String> beerIds) {
-        Map<String, List<Review>> reviewsByBeerId = new HashMap<>();
-        beerIds.forEach(beerId ->
-                reviewsByBeerId.put(beerId, getReviewsByBeerId(beerId))
-        );
-        return reviewsByBeerId;
+    public List<Review> getReviewsByBeerId(String beerId, Projection projection) {
+        return reviewsByBeerId.get(beerId, projection);
+    }
+
+    public Page<Review> getReviewsPageByBeerId(String beerId, String afterId, int first) {
+        return reviewsByBeerId.page(beerId, afterId, first);
+    }
+
+    public int countReviewsByBeerId(String beerId) {
+        return reviewsByBeerId.count(beerId);
+    }
+
+    public Map<String, List<Review>> getReviewsByBeerIds(Collection<String> beerIds) {
+        return getReviewsByBeerIds(beerIds, Projection.ALL);
+    }
+
+    public Map<String, List<Review>> getReviewsByBeerIds(Collection<String> beerIds, Projection projection) {
+        Map<String, List<Review>> reviewsByBeer = new HashMap<>(beerIds.size() * 2);
+        for (String beerId : beerIds) {
+            reviewsByBeer.put(beerId, getReviewsByBeerId(beerId, projection));
+        }
+        return reviewsByBeer;
+    }
+
+    public void addChangeListener(EntityChangeListener<Review> listener) {
+        reviews.addListener(listener);
     }
 
     public int getReviewCount() {
         return reviews.size();
     }
-}
\ No newline at end of file
+
+    // for SnapshotService
+    EntityStore<Review> store() {
+        return reviews;
+    }
+}
@@ -0,0 +1,127 @@
+package com.example.brewery_api.service;
+
+import com.example.brewery_api.model.Beer;
+import com.example.brewery_api.model.Brewery;
+import com.example.brewery_api.model.Review;
+import com.example.brewery_api.store.Projection;
+import com.example.brewery_api.store.RowSerializer;
+import com.example.brewery_api.store.SnapshotInput;
+import com.example.brewery_api.store.SnapshotOutput;
+
+import java.io.IOException;
+
+/**
+ * Snapshot field layouts of the entity types. Nullable numbers use the sentinels of the compact
+ * codecs, see {@link CompactValues}. Changing a layout requires bumping the snapshot version.
+ * Projected reads skip the bytes of omitted text and id-list fields instead of decoding them.
+ */
+final class RowSerializers {
+
+    static final RowSerializer<Brewery> BREWERY = new RowSerializer<>() {
+        @Override
+        public void write(SnapshotOutput out, Brewery brewery) throws IOException {
+            out.writeString(brewery.getName());
+            out.writeString(brewery.getLocation());
+            out.writeInt(CompactValues.ofInteger(brewery.getEstablished()));
+            out.writeString(brewery.getDescription());
+            out.writeStrings(brewery.getBeerIds());
+        }
+
+        @Override
+        public Brewery read(SnapshotInput in, String id) {
+            return read(in, id, Projection.ALL);
+        }
+
+        @Override
+        public Brewery read(SnapshotInput in, String id, Projection projection) {
+            Brewery brewery = new Brewery();
+            brewery.setId(id);
+            brewery.setName(in.readString());
+            brewery.setLocation(in.readString());
+            brewery.setEstablished(CompactValues.toInteger(in.readInt()));
+            if (projection.includes("description")) {
+                brewery.setDescription(in.readString());
+            } else {
+                in.skipString();
+            }
+            if (projection.includes("beerIds")) {
+                brewery.setBeerIds(in.readStrings());
+            }
+            return brewery;
+        }
+    };
+
+    static final RowSerializer<Beer> BEER = new RowSerializer<>() {
+        @Override
+        public void write(SnapshotOutput out, Beer beer) throws IOException {
+            out.writeString(beer.getName());
+            out.writeString(beer.getStyle());
+            out.writeFloat(beer.getAbv() != null ? beer.getAbv() : Float.NaN);
+            out.writeInt(CompactValues.ofInteger(beer.getIbu()));
+            out.writeString(beer.getDescription());
+            out.writeString(beer.getBreweryId());
+            out.writeStrings(beer.getReviewIds());
+        }
+
+        @Override
+        public Beer read(SnapshotInput in, String id) {
+            return read(in, id, Projection.ALL);
+        }
+
+        @Override
+        public Beer read(SnapshotInput in, String id, Projection projection) {
+            Beer beer = new Beer();
+            beer.setId(id);
+            beer.setName(in.readString());
+            beer.setStyle(in.readString());
+            float abv = in.readFloat();
+            beer.setAbv(Float.isNaN(abv) ? null : abv);
+            beer.setIbu(CompactValues.toInteger(in.readInt()));
+            if (projection.includes("description")) {
+                beer.setDescription(in.readString());
+            } else {
+                in.skipString();
+            }
+            beer.setBreweryId(in.readString());
+            if (projection.includes("reviewIds")) {
+                beer.setReviewIds(in.readStrings());
+            }
+            return beer;
+        }
+    };
+
+    static final RowSerializer<Review> REVIEW = new RowSerializer<>() {
+        @Override
+        public void write(SnapshotOutput out, Review review) throws IOException {
+            out.writeInt(CompactValues.ofInteger(review.getRating()));
+            out.writeString(review.getComment());
+            out.writeString(review.getAuthor());
+            out.writeString(review.getDate());
+            out.writeString(review.getBeerId());
+        }
+
+        @Override
+        public Review read(SnapshotInput in, String id) {
+            return read(in, id, Projection.ALL);
+        }
+
+        @Override
+        public Review read(SnapshotInput in, String id, Projection projection) {
+            Review review = new Review();
+            review.setId(id);
+            review.setRating(CompactValues.toInteger(in.readInt()));
+            if (projection.includes("comment")) {
+                review.setComment(in.readString());
+            } else {
+                in.skipString();
+            }
+            review.setAuthor(in.readString());
+            review.setDate(in.readString());
+            review.setBeerId(in.readString());
+            return review;
+        }
+    };
+
+    private RowSerializers() {
+    }
+}
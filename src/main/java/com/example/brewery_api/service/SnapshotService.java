@@ -0,0 +1,58 @@
+package com.example.brewery_api.service;
+
+import com.example.brewery_api.store.Snapshot;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.stereotype.Service;
+
+import java.io.IOException;
+import java.nio.file.Path;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Writes and restores a binary {@link Snapshot} of the brewery, beer and review stores together
+ * with their indexes, so a restart can map the snapshot instead of re-importing JSON.
+ */
+@Service
+public class SnapshotService {
+    private static final Logger logger = LoggerFactory.getLogger(SnapshotService.class);
+
+    private final BreweryService breweryService;
+    private final BeerService beerService;
+    private final ReviewService reviewService;
+
+    public SnapshotService(BreweryService breweryService, BeerService beerService, ReviewService reviewService) {
+        this.breweryService = breweryService;
+        this.beerService = beerService;
+        this.reviewService = reviewService;
+    }
+
+    public void write(Path path) throws IOException {
+        long start = System.nanoTime();
+        Snapshot.write(path, entries());
+        logger.info("Wrote snapshot {} in {} ms", path, TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start));
+    }
+
+    /**
+     * Restores every store from the snapshot. The stores must be empty.
+     *
+     * @throws IOException if the file is missing, truncated or from another version
+     * @throws IllegalStateException if its sections do not fit the stores' indexes
+     */
+    public void restore(Path path) throws IOException {
+        long start = System.nanoTime();
+        Snapshot snapshot = Snapshot.open(path);
+        for (Snapshot.Entry<?> entry : entries()) {
+            snapshot.restore(entry);
+        }
+        logger.info("Restored snapshot {} in {} ms", path, TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start));
+    }
+
+    private List<Snapshot.Entry<?>> entries() {
+        return List.of(
+                new Snapshot.Entry<>("breweries", breweryService.store(), RowSerializers.BREWERY),
+                new Snapshot.Entry<>("beers", beerService.store(), RowSerializers.BEER),
+                new Snapshot.Entry<>("reviews", reviewService.store(), RowSerializers.REVIEW));
+    }
+}
@@ -0,0 +1,52 @@
+package com.example.brewery_api.store;
+
+import java.util.AbstractCollection;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Iterator;
+import java.util.List;
+
+/**
+ * Read-side helpers that turn collections of encoded rows back into entities.
+ */
+final class DecodedRows {
+
+    private DecodedRows() {
+    }
+
+    /**
+     * Live, unmodifiable view that decodes each row as it is iterated.
+     */
+    static <T> Collection<T> view(Collection<Object> rows, RowCodec<T> codec) {
+        return new AbstractCollection<>() {
+            @Override
+            public Iterator<T> iterator() {
+                Iterator<Object> iterator = rows.iterator();
+                return new Iterator<>() {
+                    @Override
+                    public boolean hasNext() {
+                        return iterator.hasNext();
+                    }
+
+                    @Override
+                    public T next() {
+                        return codec.decode(iterator.next());
+                    }
+                };
+            }
+
+            @Override
+            public int size() {
+                return rows.size();
+            }
+        };
+    }
+
+    static <T> List<T> copy(Collection<Object> rows, RowCodec<T> codec) {
+        List<T> entities = new ArrayList<>(rows.size());
+        for (Object row : rows) {
+            entities.add(codec.decode(row));
+        }
+        return entities;
+    }
+}
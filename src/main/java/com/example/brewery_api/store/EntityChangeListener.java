@@ -0,0 +1,24 @@
+package com.example.brewery_api.store;
+
+/**
+ * Callback for writes to an {@link EntityStore}.
+ * <p>
+ * Invoked under the entity's stripe lock, so calls for one entity arrive in write order; listeners
+ * must be quick and must not write back into the same store.
+ */
+@FunctionalInterface
+public interface EntityChangeListener<T> {
+
+    /**
+     * @param previous the entity before the write, or {@code null} for an insert
+     * @param current  the entity after the write, or {@code null} for a remove
+     */
+    void onChange(T previous, T current);
+
+    /**
+     * Called instead of {@link #onChange} when the store's contents were replaced as a whole, as by
+     * a {@link Snapshot} restore; listeners that derive state from the entities must rebuild it.
+     */
+    default void onReload() {
+    }
+}
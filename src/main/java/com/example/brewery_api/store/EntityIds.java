@@ -0,0 +1,52 @@
+package com.example.brewery_api.store;
+
+import java.util.Comparator;
+
+/**
+ * Ordering shared by every store and index. Numeric ids (the common case in our data) sort by
+ * value, so {@code "2"} comes before {@code "10"}; anything else falls back to string order after
+ * all numeric ids.
+ */
+public final class EntityIds {
+    public static final Comparator<String> ORDER = EntityIds::compare;
+
+    private EntityIds() {
+    }
+
+    public static int compare(String a, String b) {
+        boolean aNumeric = isNumeric(a);
+        boolean bNumeric = isNumeric(b);
+        if (aNumeric && bNumeric) {
+            String x = stripLeadingZeros(a);
+            String y = stripLeadingZeros(b);
+            int byValue = x.length() != y.length() ? Integer.compare(x.length(), y.length()) : x.compareTo(y);
+            // "7" and "007" are equal in value but still distinct ids
+            return byValue != 0 ? byValue : a.compareTo(b);
+        }
+        if (aNumeric != bNumeric) {
+            return aNumeric ? -1 : 1;
+        }
+        return a.compareTo(b);
+    }
+
+    private static boolean isNumeric(String s) {
+        if (s.isEmpty()) {
+            return false;
+        }
+        for (int i = 0; i < s.length(); i++) {
+            char c = s.charAt(i);
+            if (c < '0' || c > '9') {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    private static String stripLeadingZeros(String s) {
+        int i = 0;
+        while (i < s.length() - 1 && s.charAt(i) == '0') {
+            i++;
+        }
+        return s.substring(i);
+    }
+}
@@ -0,0 +1,67 @@
+package com.example.brewery_api.store;
+
+import java.io.IOException;
+import java.util.Arrays;
+
+/**
+ * Secondary index maintained by an {@link EntityStore}. The store calls {@link #update} under the
+ * entity's stripe lock for every put and remove.
+ */
+abstract class EntityIndex<T> {
+
+    /**
+     * Moves an entity from the position of {@code previous} to that of {@code current}; either may
+     * be {@code null} for an insert or a remove.
+     *
+     * @param id  the entity id, shared with the store's own key
+     * @param row the encoded form of {@code current} that the index retains
+     */
+    abstract void update(String id, T previous, T current, Object row);
+
+    /**
+     * Writes the buckets of this index for a {@link Snapshot}, referring to rows by their position
+     * in {@code ids}. Called with every stripe lock of the store held.
+     *
+     * @param ids the store's ids in {@link EntityIds#ORDER}
+     */
+    abstract void writeSnapshot(SnapshotOutput out, String[] ids) throws IOException;
+
+    /**
+     * Reads back what {@link #writeSnapshot} wrote. Nothing is changed until the returned action
+     * runs, so that the store can install all of its indexes or none of them.
+     *
+     * @param ids  restored ids in {@link EntityIds#ORDER}
+     * @param rows restored rows, aligned with {@code ids}
+     */
+    abstract Runnable restore(SnapshotInput in, String[] ids, Object[] rows);
+
+    static int ordinalOf(String[] ids, String id) {
+        int ordinal = Arrays.binarySearch(ids, id, EntityIds.ORDER);
+        if (ordinal < 0) {
+            throw new IllegalStateException("Indexed id " + id + " is not a row of the store");
+        }
+        return ordinal;
+    }
+
+    static void writeBucket(SnapshotOutput out, IndexBucket bucket, String[] ids) throws IOException {
+        out.writeInt(bucket.size());
+        for (String id : bucket.rows().keySet()) {
+            out.writeInt(ordinalOf(ids, id));
+        }
+    }
+
+    static IndexBucket readBucket(SnapshotInput in, String[] ids, Object[] rows) {
+        int[] ordinals = new int[in.readInt()];
+        for (int i = 0; i < ordinals.length; i++) {
+            ordinals[i] = in.readInt();
+        }
+        return new IndexBucket(new SortedRun(ids, rows, ordinals));
+    }
+
+    static void checkKind(SnapshotInput in, byte expected) {
+        byte kind = in.readByte();
+        if (kind != expected) {
+            throw new IllegalStateException("Snapshot index kind " + kind + " does not match " + expected);
+        }
+    }
+}
@@ -0,0 +1,279 @@
+package com.example.brewery_api.store;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Map;
+import java.util.NavigableMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentSkipListMap;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.function.Function;
+import java.util.stream.Stream;
+
+/**
+ * Concurrent id-keyed store shared by the services.
+ * <p>
+ * Reads go straight to a {@link ConcurrentHashMap} and never take a lock. Writes take one of a
+ * fixed set of striped locks chosen by entity id, so writes to different entities proceed in
+ * parallel while a replace or remove of the same entity updates the row and all of its
+ * secondary indexes ({@link ForeignKeyIndex}, {@link SortedIndex}) as one step. Rows are retained in
+ * the form chosen by the store's {@link RowCodec}, or as {@link MappedRow positions} in a
+ * {@link Snapshot} until they are first replaced.
+ */
+public class EntityStore<T> {
+    private static final int DEFAULT_STRIPES = 64;
+
+    private final Function<T, String> idOf;
+    private final RowCodec<T> codec;
+    // encoded rows, see RowCodec; both maps are replaced only by a snapshot restore
+    private volatile Map<String, Object> rows = new ConcurrentHashMap<>();
+    // same rows in id order, for paging; written under the stripe lock together with rows
+    private volatile NavigableMap<String, Object> ordered = new ConcurrentSkipListMap<>(EntityIds.ORDER);
+    private final Comparator<T> idOrder;
+    private final List<EntityIndex<T>> indexes = new CopyOnWriteArrayList<>();
+    private final List<EntityChangeListener<T>> listeners = new CopyOnWriteArrayList<>();
+    private final ReentrantLock[] stripes;
+
+    public EntityStore(Function<T, String> idOf) {
+        this(idOf, RowCodec.identity());
+    }
+
+    public EntityStore(Function<T, String> idOf, RowCodec<T> codec) {
+        this(idOf, codec, DEFAULT_STRIPES);
+    }
+
+    public EntityStore(Function<T, String> idOf, int stripeCount) {
+        this(idOf, RowCodec.identity(), stripeCount);
+    }
+
+    public EntityStore(Function<T, String> idOf, RowCodec<T> codec, int stripeCount) {
+        this.idOf = idOf;
+        this.codec = MappedRow.decoding(codec);
+        this.idOrder = Comparator.comparing(idOf, EntityIds.ORDER);
+        // round up to a power of two so the stripe can be picked with a mask
+        int size = Integer.highestOneBit(Math.max(1, stripeCount - 1)) << 1;
+        this.stripes = new ReentrantLock[size];
+        for (int i = 0; i < size; i++) {
+            stripes[i] = new ReentrantLock();
+        }
+    }
+
+    /**
+     * Registers an index over the given foreign key. Indexes should be added before the first write;
+     * rows already present are back-filled.
+     */
+    public ForeignKeyIndex<T> addIndex(Function<T, String> keyOf) {
+        ForeignKeyIndex<T> index = new ForeignKeyIndex<>(keyOf, codec);
+        backfill(index);
+        indexes.add(index);
+        return index;
+    }
+
+    /**
+     * Registers an index ordered by the given attribute, for range queries and sorted scans. Rows
+     * whose attribute is {@code null} are left out of the index.
+     */
+    public <K extends Comparable<? super K>> SortedIndex<T, K> addSortedIndex(Function<T, K> keyOf) {
+        SortedIndex<T, K> index = new SortedIndex<>(idOf, keyOf, codec);
+        backfill(index);
+        indexes.add(index);
+        return index;
+    }
+
+    /**
+     * Registers a listener that is told about every put and remove, in per-entity order.
+     */
+    public void addListener(EntityChangeListener<T> listener) {
+        listeners.add(listener);
+    }
+
+    /**
+     * Inserts or replaces the entity with the same id.
+     *
+     * @return the entity previously stored under that id, or {@code null}
+     */
+    public T put(T entity) {
+        String id = idOf.apply(entity);
+        ReentrantLock lock = stripeFor(id);
+        lock.lock();
+        try {
+            Object row = codec.encode(entity);
+            Object previousRow = rows.put(id, row);
+            ordered.put(id, row);
+            T previous = previousRow != null ? codec.decode(previousRow) : null;
+            for (EntityIndex<T> index : indexes) {
+                index.update(id, previous, entity, row);
+            }
+            notifyListeners(previous, entity);
+            return previous;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    public T remove(String id) {
+        ReentrantLock lock = stripeFor(id);
+        lock.lock();
+        try {
+            Object removedRow = rows.remove(id);
+            if (removedRow == null) {
+                return null;
+            }
+            ordered.remove(id);
+            T removed = codec.decode(removedRow);
+            for (EntityIndex<T> index : indexes) {
+                index.update(id, removed, null, null);
+            }
+            notifyListeners(removed, null);
+            return removed;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    public T get(String id) {
+        Object row = id != null ? rows.get(id) : null;
+        return row != null ? codec.decode(row) : null;
+    }
+
+    /**
+     * Live, unmodifiable view of the stored entities; iteration is weakly consistent.
+     */
+    public Collection<T> values() {
+        return DecodedRows.view(rows.values(), codec);
+    }
+
+    /**
+     * Returns up to {@code limit} entities that sort after {@code afterId}, in id order.
+     */
+    public Page<T> page(String afterId, int limit) {
+        return Page.slice(ordered, afterId, limit, rows.size(), codec);
+    }
+
+    /**
+     * Comparator matching the order of {@link #page} and of full scans in an {@link IndexQuery}.
+     */
+    public Comparator<T> idOrder() {
+        return idOrder;
+    }
+
+    Stream<T> streamInIdOrder() {
+        return ordered.values().stream().map(codec::decode);
+    }
+
+    public int size() {
+        return rows.size();
+    }
+
+    /**
+     * Writes this store's section of a {@link Snapshot} with every stripe lock held, so rows and
+     * indexes are written as of one point in time.
+     */
+    Snapshot.Section writeSnapshot(SnapshotOutput out, RowSerializer<T> serializer) throws IOException {
+        lockAll();
+        try {
+            String[] ids = ordered.keySet().toArray(String[]::new);
+            int[] offsets = new int[ids.length];
+            int i = 0;
+            for (Object row : ordered.values()) {
+                offsets[i] = out.position();
+                out.writeString(ids[i]);
+                serializer.write(out, codec.decode(row));
+                i++;
+            }
+            int offsetsAt = out.position();
+            for (int offset : offsets) {
+                out.writeInt(offset);
+            }
+            int indexesAt = out.position();
+            out.writeInt(indexes.size());
+            for (EntityIndex<T> index : indexes) {
+                index.writeSnapshot(out, ids);
+            }
+            return new Snapshot.Section(ids.length, offsetsAt, indexesAt);
+        } finally {
+            unlockAll();
+        }
+    }
+
+    /**
+     * Fills this empty store from a {@link Snapshot} section. Rows stay in the mapping and the id
+     * maps and index buckets are built from sorted runs; listeners get one
+     * {@link EntityChangeListener#onReload} instead of a call per row. Either the whole section is
+     * installed or, on an exception, nothing is.
+     */
+    void restore(SnapshotInput input, Snapshot.Section section, RowSerializer<T> serializer) {
+        lockAll();
+        try {
+            if (!rows.isEmpty()) {
+                throw new IllegalStateException("Snapshots restore into empty stores only");
+            }
+            MappedRow.Source<T> source = new MappedRow.Source<>(input, serializer);
+            String[] ids = new String[section.rowCount()];
+            Object[] mapped = new Object[ids.length];
+            SnapshotInput offsets = input.at(section.offsetsAt());
+            for (int i = 0; i < ids.length; i++) {
+                SnapshotInput record = input.at(offsets.readInt());
+                ids[i] = record.readString();
+                if (i > 0 && EntityIds.ORDER.compare(ids[i - 1], ids[i]) >= 0) {
+                    throw new IllegalStateException("Snapshot ids are not in id order at " + ids[i]);
+                }
+                mapped[i] = new MappedRow(source, record.position(), ids[i]);
+            }
+
+            SnapshotInput indexInput = input.at(section.indexesAt());
+            int indexCount = indexInput.readInt();
+            if (indexCount != indexes.size()) {
+                throw new IllegalStateException("Snapshot has " + indexCount + " indexes, store has " + indexes.size());
+            }
+            List<Runnable> installs = new ArrayList<>(indexCount);
+            for (EntityIndex<T> index : indexes) {
+                installs.add(index.restore(indexInput, ids, mapped));
+            }
+
+            Map<String, Object> restoredRows = new ConcurrentHashMap<>(Math.max(16, ids.length * 4 / 3 + 1));
+            for (int i = 0; i < ids.length; i++) {
+                restoredRows.put(ids[i], mapped[i]);
+            }
+            NavigableMap<String, Object> restoredOrder = new ConcurrentSkipListMap<>(new SortedRun(ids, mapped, null));
+            installs.forEach(Runnable::run);
+            rows = restoredRows;
+            ordered = restoredOrder;
+        } finally {
+            unlockAll();
+        }
+        listeners.forEach(EntityChangeListener::onReload);
+    }
+
+    private void lockAll() {
+        for (ReentrantLock stripe : stripes) {
+            stripe.lock();
+        }
+    }
+
+    private void unlockAll() {
+        for (int i = stripes.length - 1; i >= 0; i--) {
+            stripes[i].unlock();
+        }
+    }
+
+    private void backfill(EntityIndex<T> index) {
+        rows.forEach((id, row) -> index.update(id, null, codec.decode(row), row));
+    }
+
+    private void notifyListeners(T previous, T current) {
+        for (EntityChangeListener<T> listener : listeners) {
+            listener.onChange(previous, current);
+        }
+    }
+
+    private ReentrantLock stripeFor(String id) {
+        int h = id.hashCode();
+        h ^= (h >>> 16);
+        return stripes[h & (stripes.length - 1)];
+    }
+}
@@ -0,0 +1,114 @@
+package com.example.brewery_api.store;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.Function;
+
+/**
+ * Secondary index from a foreign key (e.g. {@code breweryId}) to the entities that reference it.
+ * <p>
+ * Buckets are concurrent skip lists ordered by entity id, so readers see a stable ordering without
+ * locking and a lookup costs the size of its result. Mutation happens only through the owning
+ * {@link EntityStore}, under that entity's stripe lock.
+ */
+public class ForeignKeyIndex<T> extends EntityIndex<T> {
+    private static final byte KIND = 1;
+
+    private final Function<T, String> keyOf;
+    private final RowCodec<T> codec;
+    // replaced only by a snapshot restore
+    private volatile Map<String, IndexBucket> buckets = new ConcurrentHashMap<>();
+
+    ForeignKeyIndex(Function<T, String> keyOf, RowCodec<T> codec) {
+        this.keyOf = keyOf;
+        this.codec = codec;
+    }
+
+    @Override
+    void update(String id, T previous, T current, Object row) {
+        String previousKey = previous != null ? keyOf.apply(previous) : null;
+        String currentKey = current != null ? keyOf.apply(current) : null;
+        if (previousKey != null && !Objects.equals(previousKey, currentKey)) {
+            buckets.computeIfPresent(previousKey, (key, bucket) -> bucket.remove(id) ? null : bucket);
+        }
+        if (currentKey != null) {
+            buckets.compute(currentKey, (key, bucket) -> {
+                IndexBucket target = bucket != null ? bucket : new IndexBucket();
+                target.put(id, row);
+                return target;
+            });
+        }
+    }
+
+    @Override
+    void writeSnapshot(SnapshotOutput out, String[] ids) throws IOException {
+        out.writeByte(KIND);
+        out.writeInt(buckets.size());
+        for (Map.Entry<String, IndexBucket> entry : buckets.entrySet()) {
+            out.writeString(entry.getKey());
+            writeBucket(out, entry.getValue(), ids);
+        }
+    }
+
+    @Override
+    Runnable restore(SnapshotInput in, String[] ids, Object[] rows) {
+        checkKind(in, KIND);
+        int keys = in.readInt();
+        Map<String, IndexBucket> restored = new ConcurrentHashMap<>(Math.max(16, keys * 4 / 3 + 1));
+        for (int i = 0; i < keys; i++) {
+            String key = in.readString();
+            restored.put(key, readBucket(in, ids, rows));
+        }
+        return () -> buckets = restored;
+    }
+
+    public List<T> get(String key) {
+        return get(key, Projection.ALL);
+    }
+
+    public List<T> get(String key, Projection projection) {
+        IndexBucket bucket = key != null ? buckets.get(key) : null;
+        return bucket != null ? DecodedRows.copy(bucket.values(), codec.projecting(projection)) : new ArrayList<>();
+    }
+
+    /**
+     * Live, unmodifiable view of one bucket, ordered by entity id.
+     */
+    public Collection<T> view(String key) {
+        IndexBucket bucket = key != null ? buckets.get(key) : null;
+        return bucket != null ? DecodedRows.view(bucket.values(), codec) : Collections.emptyList();
+    }
+
+    /**
+     * Returns up to {@code limit} entities of one bucket that sort after {@code afterId}.
+     */
+    public Page<T> page(String key, String afterId, int limit) {
+        IndexBucket bucket = key != null ? buckets.get(key) : null;
+        return bucket != null ? Page.slice(bucket.rows(), afterId, limit, bucket.size(), codec) : Page.empty();
+    }
+
+    public boolean matches(T entity, String key) {
+        return key != null && key.equals(keyOf.apply(entity));
+    }
+
+    public boolean matchesAny(T entity, Set<String> keys) {
+        String key = keyOf.apply(entity);
+        return key != null && keys.contains(key);
+    }
+
+    public int count(String key) {
+        IndexBucket bucket = key != null ? buckets.get(key) : null;
+        return bucket != null ? bucket.size() : 0;
+    }
+
+    public int keyCount() {
+        return buckets.size();
+    }
+}
@@ -0,0 +1,57 @@
+package com.example.brewery_api.store;
+
+import java.util.Collection;
+import java.util.NavigableMap;
+import java.util.SortedMap;
+import java.util.concurrent.ConcurrentSkipListMap;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Encoded rows sharing one index key, ordered by id. The size is kept in its own counter because
+ * {@link ConcurrentSkipListMap#size()} is linear.
+ */
+final class IndexBucket {
+    private final NavigableMap<String, Object> rows;
+    private final AtomicInteger size;
+
+    IndexBucket() {
+        this.rows = new ConcurrentSkipListMap<>(EntityIds.ORDER);
+        this.size = new AtomicInteger();
+    }
+
+    /**
+     * Bulk-builds a bucket from rows already in {@link EntityIds#ORDER}, in linear time.
+     */
+    IndexBucket(SortedMap<String, Object> sorted) {
+        this.rows = new ConcurrentSkipListMap<>(sorted);
+        this.size = new AtomicInteger(sorted.size());
+    }
+
+    void put(String id, Object row) {
+        if (rows.put(id, row) == null) {
+            size.incrementAndGet();
+        }
+    }
+
+    /**
+     * @return whether the bucket is empty afterwards and can be dropped
+     */
+    boolean remove(String id) {
+        if (rows.remove(id) != null) {
+            size.decrementAndGet();
+        }
+        return rows.isEmpty();
+    }
+
+    NavigableMap<String, Object> rows() {
+        return rows;
+    }
+
+    Collection<Object> values() {
+        return rows.values();
+    }
+
+    int size() {
+        return size.get();
+    }
+}
@@ -0,0 +1,110 @@
+package com.example.brewery_api.store;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Set;
+import java.util.function.Predicate;
+import java.util.function.Supplier;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+
+/**
+ * Filtered, optionally sorted read over an {@link EntityStore}.
+ * <p>
+ * Every index condition offers its index lookup as a candidate row source together with the exact
+ * size of that lookup. The query drives from the smallest source, preferring one that already
+ * yields the requested order on ties, and checks the remaining conditions against those candidates
+ * only, so a selective query touches roughly the rows it returns. A full id-ordered scan of the
+ * store is the fallback when no condition is given.
+ */
+public final class IndexQuery<T> {
+    private final EntityStore<T> store;
+    private final List<Candidate<T>> candidates = new ArrayList<>();
+    private final List<Predicate<T>> predicates = new ArrayList<>();
+    private Comparator<T> order;
+
+    private IndexQuery(EntityStore<T> store) {
+        this.store = store;
+        candidates.add(new Candidate<>(store.size(), store::streamInIdOrder, store.idOrder()));
+    }
+
+    public static <T> IndexQuery<T> over(EntityStore<T> store) {
+        return new IndexQuery<>(store);
+    }
+
+    public IndexQuery<T> whereEquals(ForeignKeyIndex<T> index, String key) {
+        candidates.add(new Candidate<>(index.count(key), () -> index.view(key).stream(), store.idOrder()));
+        predicates.add(entity -> index.matches(entity, key));
+        return this;
+    }
+
+    public IndexQuery<T> whereIn(ForeignKeyIndex<T> index, Set<String> keys) {
+        int estimate = 0;
+        for (String key : keys) {
+            estimate += index.count(key);
+        }
+        candidates.add(new Candidate<>(estimate, () -> keys.stream().flatMap(key -> index.view(key).stream()), null));
+        predicates.add(entity -> index.matchesAny(entity, keys));
+        return this;
+    }
+
+    /**
+     * Keeps entities whose indexed attribute lies in {@code [from, to]}; a {@code null} bound is open.
+     */
+    public <K extends Comparable<? super K>> IndexQuery<T> whereBetween(SortedIndex<T, K> index, K from, K to) {
+        int estimate = index.count(from, to);
+        candidates.add(new Candidate<>(estimate, () -> index.range(from, to, false), index.order(false)));
+        candidates.add(new Candidate<>(estimate, () -> index.range(from, to, true), index.order(true)));
+        predicates.add(entity -> index.matches(entity, from, to));
+        return this;
+    }
+
+    /**
+     * Residual condition with no index behind it; it is checked against the driving candidates.
+     */
+    public IndexQuery<T> where(Predicate<T> predicate) {
+        predicates.add(predicate);
+        return this;
+    }
+
+    /**
+     * Sorts by an indexed attribute. When the index covers every row it can also drive an
+     * unfiltered query, which then needs no sort at all.
+     */
+    public <K extends Comparable<? super K>> IndexQuery<T> orderBy(SortedIndex<T, K> index, boolean descending) {
+        if (index.size() == store.size()) {
+            candidates.add(new Candidate<>(index.size(), () -> index.range(null, null, descending), index.order(descending)));
+        }
+        return orderBy(index.order(descending));
+    }
+
+    public IndexQuery<T> orderBy(Comparator<T> order) {
+        this.order = order;
+        return this;
+    }
+
+    public List<T> list() {
+        Candidate<T> driver = candidates.get(0);
+        for (Candidate<T> candidate : candidates) {
+            if (candidate.estimate() < driver.estimate()
+                    || candidate.estimate() == driver.estimate() && candidate.produces(order) && !driver.produces(order)) {
+                driver = candidate;
+            }
+        }
+        Stream<T> rows = driver.rows().get();
+        for (Predicate<T> predicate : predicates) {
+            rows = rows.filter(predicate);
+        }
+        if (order != null && !driver.produces(order)) {
+            rows = rows.sorted(order);
+        }
+        return rows.collect(Collectors.toCollection(ArrayList::new));
+    }
+
+    private record Candidate<T>(int estimate, Supplier<Stream<T>> rows, Comparator<T> orderedBy) {
+        boolean produces(Comparator<T> order) {
+            return order == null || order == orderedBy;
+        }
+    }
+}
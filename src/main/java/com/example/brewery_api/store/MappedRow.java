@@ -0,0 +1,49 @@
+package com.example.brewery_api.store;
+
+/**
+ * A row restored from a {@link Snapshot}: a position in the mapped file, decoded field by field on
+ * every read. Until a row is replaced it costs 24 bytes of heap plus its id; the rest of the row
+ * stays in the page cache.
+ */
+final class MappedRow {
+    private final Source<?> source;
+    private final int position;
+    private final String id;
+
+    MappedRow(Source<?> source, int position, String id) {
+        this.source = source;
+        this.position = position;
+        this.id = id;
+    }
+
+    Object decode(Projection projection) {
+        return source.serializer().read(source.input().at(position), id, projection);
+    }
+
+    record Source<T>(SnapshotInput input, RowSerializer<T> serializer) {
+    }
+
+    /**
+     * Wraps a store's codec so that mapped rows decode from the snapshot and all other rows as before.
+     */
+    static <T> RowCodec<T> decoding(RowCodec<T> codec) {
+        return new RowCodec<>() {
+            @Override
+            public Object encode(T entity) {
+                return codec.encode(entity);
+            }
+
+            @Override
+            @SuppressWarnings("unchecked")
+            public T decode(Object row) {
+                return row instanceof MappedRow mapped ? (T) mapped.decode(Projection.ALL) : codec.decode(row);
+            }
+
+            @Override
+            @SuppressWarnings("unchecked")
+            public T decode(Object row, Projection projection) {
+                return row instanceof MappedRow mapped ? (T) mapped.decode(projection) : codec.decode(row, projection);
+            }
+        };
+    }
+}
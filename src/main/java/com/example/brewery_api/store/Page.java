@@ -0,0 +1,38 @@
+package com.example.brewery_api.store;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.NavigableMap;
+
+/**
+ * One page of entities in id order.
+ *
+ * @param items      at most the requested number of entities
+ * @param hasNext    whether more entities follow the last item
+ * @param totalCount number of entities across all pages
+ */
+public record Page<T>(List<T> items, boolean hasNext, int totalCount) {
+
+    public static <T> Page<T> empty() {
+        return new Page<>(List.of(), false, 0);
+    }
+
+    /**
+     * Reads {@code limit} rows after {@code afterId} (exclusive) from an id-ordered map; the
+     * cost is a log-time seek plus the page itself.
+     */
+    static <T> Page<T> slice(NavigableMap<String, Object> ordered, String afterId, int limit, int totalCount,
+                             RowCodec<T> codec) {
+        NavigableMap<String, Object> tail = afterId != null ? ordered.tailMap(afterId, false) : ordered;
+        List<T> items = new ArrayList<>(Math.min(limit, 64));
+        boolean hasNext = false;
+        for (Object row : tail.values()) {
+            if (items.size() == limit) {
+                hasNext = true;
+                break;
+            }
+            items.add(codec.decode(row));
+        }
+        return new Page<>(items, hasNext, totalCount);
+    }
+}
@@ -0,0 +1,30 @@
+package com.example.brewery_api.store;
+
+import java.util.Set;
+
+/**
+ * Fields of an entity a reader will not look at. Codecs that build a fresh entity per read may
+ * leave omitted fields unset instead of copying or decoding them; the identity codec returns its
+ * shared entities whole, since they cost nothing to hand out.
+ *
+ * @param omitted names of the entity properties that may be left unset
+ */
+public record Projection(Set<String> omitted) {
+    public static final Projection ALL = new Projection(Set.of());
+
+    public Projection {
+        omitted = Set.copyOf(omitted);
+    }
+
+    public static Projection omitting(String... fields) {
+        return fields.length == 0 ? ALL : new Projection(Set.of(fields));
+    }
+
+    public boolean includes(String field) {
+        return !omitted.contains(field);
+    }
+
+    public boolean isAll() {
+        return omitted.isEmpty();
+    }
+}
@@ -0,0 +1,63 @@
+package com.example.brewery_api.store;
+
+/**
+ * How an {@link EntityStore} represents its rows in memory. The store and its indexes retain only
+ * encoded rows and decode one whenever an entity is read, so a compact encoding saves heap for every
+ * row at the price of a short-lived object per read.
+ */
+public interface RowCodec<T> {
+
+    Object encode(T entity);
+
+    T decode(Object row);
+
+    /**
+     * Decodes a row for a reader that needs only the fields of {@code projection}.
+     */
+    default T decode(Object row, Projection projection) {
+        return decode(row);
+    }
+
+    /**
+     * This codec with {@code projection} applied to every decode, for the bulk read paths.
+     */
+    default RowCodec<T> projecting(Projection projection) {
+        if (projection.isAll()) {
+            return this;
+        }
+        RowCodec<T> codec = this;
+        return new RowCodec<>() {
+            @Override
+            public Object encode(T entity) {
+                return codec.encode(entity);
+            }
+
+            @Override
+            public T decode(Object row) {
+                return codec.decode(row, projection);
+            }
+        };
+    }
+
+    /**
+     * Keeps the entities themselves; decoding is a cast.
+     */
+    @SuppressWarnings("unchecked")
+    static <T> RowCodec<T> identity() {
+        return (RowCodec<T>) Identity.INSTANCE;
+    }
+
+    enum Identity implements RowCodec<Object> {
+        INSTANCE;
+
+        @Override
+        public Object encode(Object entity) {
+            return entity;
+        }
+
+        @Override
+        public Object decode(Object row) {
+            return row;
+        }
+    }
+}
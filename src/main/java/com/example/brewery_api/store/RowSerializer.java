@@ -0,0 +1,21 @@
+package com.example.brewery_api.store;
+
+import java.io.IOException;
+
+/**
+ * Field layout of one entity type in a {@link Snapshot}. The id is written and read by the store,
+ * so implementations handle the remaining fields only.
+ */
+public interface RowSerializer<T> {
+
+    void write(SnapshotOutput out, T entity) throws IOException;
+
+    T read(SnapshotInput in, String id);
+
+    /**
+     * Reads a row, skipping over the fields {@code projection} omits where the layout allows it.
+     */
+    default T read(SnapshotInput in, String id, Projection projection) {
+        return read(in, id);
+    }
+}
@@ -0,0 +1,144 @@
+package com.example.brewery_api.store;
+
+import java.io.BufferedOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Binary image of a set of {@link EntityStore stores} and their indexes, restored by mapping the
+ * file with {@link FileChannel#map} instead of parsing it.
+ * <p>
+ * Each store is written as a section: its rows in id order, a table of row offsets, and the
+ * buckets of each index as row ordinals. A directory of sections at the end of the file is found
+ * through a fixed-size trailer. Restoring reads only ids, offsets and ordinals; the remaining
+ * fields stay in the mapping until a row is read (see {@link MappedRow}), and the id maps and
+ * index buckets are bulk-built from already sorted runs rather than inserted one row at a time.
+ * <p>
+ * A restored store must have the same indexes, registered in the same order, as the store that was
+ * written; anything else is rejected so the caller can fall back to its import path.
+ */
+public final class Snapshot {
+    private static final byte[] MAGIC = "BRWSNAP1".getBytes(StandardCharsets.US_ASCII);
+    // bump whenever the layout or a RowSerializer changes
+    private static final int VERSION = 1;
+    private static final int TRAILER = Integer.BYTES + MAGIC.length;
+
+    private final SnapshotInput input;
+    private final Map<String, Section> sections;
+
+    private Snapshot(SnapshotInput input, Map<String, Section> sections) {
+        this.input = input;
+        this.sections = sections;
+    }
+
+    /**
+     * One store in a snapshot, named so that sections can be matched up on restore.
+     */
+    public record Entry<T>(String name, EntityStore<T> store, RowSerializer<T> serializer) {
+    }
+
+    record Section(int rowCount, int offsetsAt, int indexesAt) {
+    }
+
+    /**
+     * Writes the stores to {@code path}. The file is written next to the target and moved into
+     * place, so a crash never leaves a partial snapshot behind. Each store is consistent in itself;
+     * writes to other stores may interleave.
+     */
+    public static void write(Path path, List<Entry<?>> entries) throws IOException {
+        Path temp = path.resolveSibling(path.getFileName() + ".tmp");
+        try (OutputStream stream = new BufferedOutputStream(Files.newOutputStream(temp), 1 << 16)) {
+            SnapshotOutput out = new SnapshotOutput(stream);
+            out.writeBytes(MAGIC);
+            out.writeInt(VERSION);
+            Map<String, Section> written = new HashMap<>();
+            for (Entry<?> entry : entries) {
+                written.put(entry.name(), writeSection(out, entry));
+            }
+            int directoryAt = out.position();
+            out.writeInt(entries.size());
+            for (Entry<?> entry : entries) {
+                Section section = written.get(entry.name());
+                out.writeString(entry.name());
+                out.writeInt(section.rowCount());
+                out.writeInt(section.offsetsAt());
+                out.writeInt(section.indexesAt());
+            }
+            out.writeInt(directoryAt);
+            out.writeBytes(MAGIC);
+            out.flush();
+            // rejects a file that the trailer pushed past 2 GiB
+            out.position();
+        }
+        Files.move(temp, path, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+    }
+
+    private static <T> Section writeSection(SnapshotOutput out, Entry<T> entry) throws IOException {
+        return entry.store().writeSnapshot(out, entry.serializer());
+    }
+
+    /**
+     * Maps a snapshot written by {@link #write} and reads its directory.
+     */
+    public static Snapshot open(Path path) throws IOException {
+        MappedByteBuffer buffer;
+        try (FileChannel channel = FileChannel.open(path, StandardOpenOption.READ)) {
+            long size = channel.size();
+            if (size > Integer.MAX_VALUE) {
+                throw new IOException("Snapshot exceeds 2 GiB: " + path);
+            }
+            if (size < MAGIC.length + Integer.BYTES + TRAILER) {
+                throw new IOException("Snapshot is truncated: " + path);
+            }
+            buffer = channel.map(FileChannel.MapMode.READ_ONLY, 0, size);
+        }
+        SnapshotInput input = new SnapshotInput(buffer, 0);
+        int limit = buffer.limit();
+        if (!Arrays.equals(input.readBytes(MAGIC.length), MAGIC)
+                || !Arrays.equals(input.at(limit - MAGIC.length).readBytes(MAGIC.length), MAGIC)) {
+            throw new IOException("Not a snapshot or truncated: " + path);
+        }
+        int version = input.readInt();
+        if (version != VERSION) {
+            throw new IOException("Unsupported snapshot version " + version + ": " + path);
+        }
+        SnapshotInput directory = input.at(input.at(limit - TRAILER).readInt());
+        int count = directory.readInt();
+        Map<String, Section> sections = new HashMap<>();
+        for (int i = 0; i < count; i++) {
+            String name = directory.readString();
+            sections.put(name, new Section(directory.readInt(), directory.readInt(), directory.readInt()));
+        }
+        return new Snapshot(input, sections);
+    }
+
+    /**
+     * Replaces the contents of an empty store with the named section.
+     *
+     * @throws IOException if the snapshot has no such section
+     * @throws IllegalStateException if the section does not fit the store's indexes
+     */
+    public <T> void restore(Entry<T> entry) throws IOException {
+        Section section = sections.get(entry.name());
+        if (section == null) {
+            throw new IOException("Snapshot has no section " + entry.name());
+        }
+        entry.store().restore(input, section, entry.serializer());
+    }
+
+    public int rowCount(String name) {
+        Section section = sections.get(name);
+        return section != null ? section.rowCount() : 0;
+    }
+}
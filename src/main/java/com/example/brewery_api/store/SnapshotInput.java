@@ -0,0 +1,95 @@
+package com.example.brewery_api.store;
+
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Cursor over a mapped snapshot. Reads use absolute positions on the shared buffer, so cursors are
+ * cheap and any number of threads can decode rows from the same mapping.
+ */
+public final class SnapshotInput {
+    private final ByteBuffer buffer;
+    private int position;
+
+    SnapshotInput(ByteBuffer buffer, int position) {
+        this.buffer = buffer;
+        this.position = position;
+    }
+
+    SnapshotInput at(int position) {
+        return new SnapshotInput(buffer, position);
+    }
+
+    int position() {
+        return position;
+    }
+
+    public byte readByte() {
+        return buffer.get(position++);
+    }
+
+    public int readInt() {
+        int value = buffer.getInt(position);
+        position += Integer.BYTES;
+        return value;
+    }
+
+    public float readFloat() {
+        float value = buffer.getFloat(position);
+        position += Float.BYTES;
+        return value;
+    }
+
+    public String readString() {
+        int length = readInt();
+        if (length < 0) {
+            return null;
+        }
+        return new String(readBytes(length), StandardCharsets.UTF_8);
+    }
+
+    public void skipString() {
+        int length = readInt();
+        if (length > 0) {
+            position += length;
+        }
+    }
+
+    public List<String> readStrings() {
+        int size = readInt();
+        if (size < 0) {
+            return null;
+        }
+        List<String> values = new ArrayList<>(size);
+        for (int i = 0; i < size; i++) {
+            values.add(readString());
+        }
+        return values;
+    }
+
+    public void skipStrings() {
+        int size = readInt();
+        for (int i = 0; i < size; i++) {
+            skipString();
+        }
+    }
+
+    byte[] readBytes(int length) {
+        byte[] bytes = new byte[length];
+        buffer.get(position, bytes);
+        position += length;
+        return bytes;
+    }
+
+    Object readKey() {
+        byte tag = readByte();
+        return switch (tag) {
+            case SnapshotOutput.KEY_STRING -> readString();
+            case SnapshotOutput.KEY_INTEGER -> readInt();
+            case SnapshotOutput.KEY_FLOAT -> readFloat();
+            default -> throw new IllegalStateException("Unknown index key tag " + tag + " at " + (position - 1));
+        };
+    }
+}
@@ -0,0 +1,93 @@
+package com.example.brewery_api.store;
+
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.List;
+
+/**
+ * Sequential writer for the snapshot format read back by {@link SnapshotInput}. Strings are UTF-8
+ * with an {@code int} byte length, {@code -1} standing for {@code null}.
+ */
+public final class SnapshotOutput {
+    static final byte KEY_STRING = 1;
+    static final byte KEY_INTEGER = 2;
+    static final byte KEY_FLOAT = 3;
+
+    private final DataOutputStream out;
+
+    SnapshotOutput(OutputStream out) {
+        this.out = new DataOutputStream(out);
+    }
+
+    /**
+     * Bytes written so far; snapshots are limited to 2 GiB, the size of one mapped buffer.
+     */
+    public int position() throws IOException {
+        int position = out.size();
+        if (position < 0) {
+            throw new IOException("Snapshot exceeds 2 GiB");
+        }
+        return position;
+    }
+
+    public void writeByte(int value) throws IOException {
+        out.writeByte(value);
+    }
+
+    public void writeInt(int value) throws IOException {
+        out.writeInt(value);
+    }
+
+    public void writeFloat(float value) throws IOException {
+        out.writeFloat(value);
+    }
+
+    public void writeBytes(byte[] bytes) throws IOException {
+        out.write(bytes);
+    }
+
+    public void writeString(String value) throws IOException {
+        if (value == null) {
+            out.writeInt(-1);
+            return;
+        }
+        byte[] bytes = value.getBytes(StandardCharsets.UTF_8);
+        out.writeInt(bytes.length);
+        out.write(bytes);
+    }
+
+    public void writeStrings(List<String> values) throws IOException {
+        if (values == null) {
+            out.writeInt(-1);
+            return;
+        }
+        out.writeInt(values.size());
+        for (String value : values) {
+            writeString(value);
+        }
+    }
+
+    /**
+     * Writes a tagged index key; only the key types used by the services are supported.
+     */
+    void writeKey(Object key) throws IOException {
+        if (key instanceof String string) {
+            out.writeByte(KEY_STRING);
+            writeString(string);
+        } else if (key instanceof Integer integer) {
+            out.writeByte(KEY_INTEGER);
+            out.writeInt(integer);
+        } else if (key instanceof Float number) {
+            out.writeByte(KEY_FLOAT);
+            out.writeFloat(number);
+        } else {
+            throw new IOException("Unsupported index key type " + key.getClass().getName());
+        }
+    }
+
+    void flush() throws IOException {
+        out.flush();
+    }
+}
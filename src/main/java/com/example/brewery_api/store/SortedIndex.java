@@ -0,0 +1,147 @@
+package com.example.brewery_api.store;
+
+import java.io.IOException;
+import java.util.Comparator;
+import java.util.Map;
+import java.util.NavigableMap;
+import java.util.Objects;
+import java.util.concurrent.ConcurrentSkipListMap;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Function;
+import java.util.stream.Stream;
+
+/**
+ * Secondary index ordered by an attribute (e.g. {@code abv} or {@code rating}), for range queries
+ * and sorted scans.
+ * <p>
+ * Distinct attribute values map to id-ordered buckets, so a range lookup is a log-time seek
+ * followed by the matching rows only, and counting a range costs the number of distinct values in
+ * it rather than the number of rows.
+ */
+public class SortedIndex<T, K extends Comparable<? super K>> extends EntityIndex<T> {
+    private static final byte KIND = 2;
+
+    private final Function<T, K> keyOf;
+    private final RowCodec<T> codec;
+    // replaced only by a snapshot restore
+    private volatile ConcurrentSkipListMap<K, IndexBucket> buckets = new ConcurrentSkipListMap<>();
+    private final AtomicInteger size = new AtomicInteger();
+    private final Comparator<T> ascending;
+    private final Comparator<T> descending;
+
+    SortedIndex(Function<T, String> idOf, Function<T, K> keyOf, RowCodec<T> codec) {
+        this.keyOf = keyOf;
+        this.codec = codec;
+        Comparator<T> byId = Comparator.comparing(idOf, EntityIds.ORDER);
+        this.ascending = Comparator.comparing(keyOf, Comparator.nullsLast(Comparator.<K>naturalOrder())).thenComparing(byId);
+        this.descending = Comparator.comparing(keyOf, Comparator.nullsLast(Comparator.<K>reverseOrder())).thenComparing(byId);
+    }
+
+    @Override
+    void update(String id, T previous, T current, Object row) {
+        K previousKey = previous != null ? keyOf.apply(previous) : null;
+        K currentKey = current != null ? keyOf.apply(current) : null;
+        if (previousKey != null && !Objects.equals(previousKey, currentKey)) {
+            buckets.computeIfPresent(previousKey, (key, bucket) -> {
+                int before = bucket.size();
+                boolean empty = bucket.remove(id);
+                size.addAndGet(bucket.size() - before);
+                return empty ? null : bucket;
+            });
+        }
+        if (currentKey != null) {
+            buckets.compute(currentKey, (key, bucket) -> {
+                IndexBucket target = bucket != null ? bucket : new IndexBucket();
+                int before = target.size();
+                target.put(id, row);
+                size.addAndGet(target.size() - before);
+                return target;
+            });
+        }
+    }
+
+    @Override
+    void writeSnapshot(SnapshotOutput out, String[] ids) throws IOException {
+        out.writeByte(KIND);
+        out.writeInt(buckets.size());
+        for (Map.Entry<K, IndexBucket> entry : buckets.entrySet()) {
+            out.writeKey(entry.getKey());
+            writeBucket(out, entry.getValue(), ids);
+        }
+    }
+
+    @Override
+    @SuppressWarnings("unchecked")
+    Runnable restore(SnapshotInput in, String[] ids, Object[] rows) {
+        checkKind(in, KIND);
+        int keys = in.readInt();
+        ConcurrentSkipListMap<K, IndexBucket> restored = new ConcurrentSkipListMap<>();
+        int total = 0;
+        for (int i = 0; i < keys; i++) {
+            K key = (K) in.readKey();
+            IndexBucket bucket = readBucket(in, ids, rows);
+            restored.put(key, bucket);
+            total += bucket.size();
+        }
+        int restoredSize = total;
+        return () -> {
+            buckets = restored;
+            size.set(restoredSize);
+        };
+    }
+
+    /**
+     * Entities whose attribute lies in {@code [from, to]}, ordered by attribute and then by id. A
+     * {@code null} bound leaves that side open.
+     */
+    public Stream<T> range(K from, K to, boolean descending) {
+        NavigableMap<K, IndexBucket> range = slice(from, to);
+        if (descending) {
+            range = range.descendingMap();
+        }
+        return range.values().stream().flatMap(bucket -> bucket.values().stream()).map(codec::decode);
+    }
+
+    public boolean matches(T entity, K from, K to) {
+        K key = keyOf.apply(entity);
+        return key != null && (from == null || key.compareTo(from) >= 0) && (to == null || key.compareTo(to) <= 0);
+    }
+
+    /**
+     * Order of {@link #range} scans: by attribute, then by id; {@code null} attributes sort last.
+     */
+    public Comparator<T> order(boolean descending) {
+        return descending ? this.descending : ascending;
+    }
+
+    /**
+     * Number of entities whose attribute lies in {@code [from, to]}.
+     */
+    public int count(K from, K to) {
+        if (from == null && to == null) {
+            return size.get();
+        }
+        int count = 0;
+        for (IndexBucket bucket : slice(from, to).values()) {
+            count += bucket.size();
+        }
+        return count;
+    }
+
+    /**
+     * Number of indexed entities; rows with a {@code null} attribute are not indexed.
+     */
+    public int size() {
+        return size.get();
+    }
+
+    private NavigableMap<K, IndexBucket> slice(K from, K to) {
+        if (from != null && to != null) {
+            return from.compareTo(to) > 0 ? new ConcurrentSkipListMap<>() : buckets.subMap(from, true, to, true);
+        }
+        if (from != null) {
+            return buckets.tailMap(from, true);
+        }
+        return to != null ? buckets.headMap(to, true) : buckets;
+    }
+}
@@ -0,0 +1,102 @@
+package com.example.brewery_api.store;
+
+import java.util.AbstractMap;
+import java.util.AbstractSet;
+import java.util.Comparator;
+import java.util.Iterator;
+import java.util.NoSuchElementException;
+import java.util.Set;
+import java.util.SortedMap;
+
+/**
+ * Id-ordered run of restored rows, presented as a {@link SortedMap} only so that
+ * {@link java.util.concurrent.ConcurrentSkipListMap#ConcurrentSkipListMap(SortedMap)} can build a
+ * skip list from it in linear time instead of one insert per row. Only iteration is supported.
+ */
+final class SortedRun extends AbstractMap<String, Object> implements SortedMap<String, Object> {
+    private final String[] ids;
+    private final Object[] rows;
+    private final int[] ordinals;
+
+    /**
+     * @param ordinals positions in {@code ids}/{@code rows}, ascending, or {@code null} for all of them
+     */
+    SortedRun(String[] ids, Object[] rows, int[] ordinals) {
+        this.ids = ids;
+        this.rows = rows;
+        this.ordinals = ordinals;
+    }
+
+    @Override
+    public Comparator<? super String> comparator() {
+        return EntityIds.ORDER;
+    }
+
+    @Override
+    public int size() {
+        return ordinals != null ? ordinals.length : ids.length;
+    }
+
+    @Override
+    public Set<Entry<String, Object>> entrySet() {
+        return new AbstractSet<>() {
+            @Override
+            public Iterator<Entry<String, Object>> iterator() {
+                return new Iterator<>() {
+                    private int next;
+
+                    @Override
+                    public boolean hasNext() {
+                        return next < size();
+                    }
+
+                    @Override
+                    public Entry<String, Object> next() {
+                        if (!hasNext()) {
+                            throw new NoSuchElementException();
+                        }
+                        int ordinal = ordinals != null ? ordinals[next] : next;
+                        next++;
+                        return new SimpleImmutableEntry<>(ids[ordinal], rows[ordinal]);
+                    }
+                };
+            }
+
+            @Override
+            public int size() {
+                return SortedRun.this.size();
+            }
+        };
+    }
+
+    @Override
+    public SortedMap<String, Object> subMap(String fromKey, String toKey) {
+        throw new UnsupportedOperationException();
+    }
+
+    @Override
+    public SortedMap<String, Object> headMap(String toKey) {
+        throw new UnsupportedOperationException();
+    }
+
+    @Override
+    public SortedMap<String, Object> tailMap(String fromKey) {
+        throw new UnsupportedOperationException();
+    }
+
+    @Override
+    public String firstKey() {
+        if (isEmpty()) {
+            throw new NoSuchElementException();
+        }
+        return ids[ordinals != null ? ordinals[0] : 0];
+    }
+
+    @Override
+    public String lastKey() {
+        if (isEmpty()) {
+            throw new NoSuchElementException();
+        }
+        return ids[ordinals != null ? ordinals[ordinals.length - 1] : ids.length - 1];
+    }
+}
@@ -0,0 +1,16 @@
+package com.example.brewery_api.store;
+
+/**
+ * Row representation selected with {@code app.store.layout}.
+ */
+public enum StoreLayout {
+    /**
+     * Rows are the model objects as they were added.
+     */
+    OBJECTS,
+    /**
+     * Rows are compact records with primitive fields, epoch-day dates, and foreign keys and repeated
+     * strings interned through a {@link StringDictionary}; model objects are built on read.
+     */
+    COMPACT
+}
@@ -0,0 +1,51 @@
+package com.example.brewery_api.store;
+
+import java.util.Arrays;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Interns strings of a low-cardinality column (a style, an author, a foreign key) to dense
+ * {@code int} codes. A row keeps the 4-byte code and every decoded value shares one canonical
+ * {@link String}. Codes are never reused, so the dictionary grows with the number of distinct values
+ * ever seen, not with the number of rows.
+ */
+public final class StringDictionary {
+    public static final int NULL = -1;
+
+    private final Map<String, Integer> codes = new ConcurrentHashMap<>();
+    private volatile String[] values = new String[16];
+    private int size;
+
+    public int encode(String value) {
+        if (value == null) {
+            return NULL;
+        }
+        Integer code = codes.get(value);
+        return code != null ? code : add(value);
+    }
+
+    public String decode(int code) {
+        return code == NULL ? null : values[code];
+    }
+
+    public int size() {
+        return codes.size();
+    }
+
+    private synchronized int add(String value) {
+        Integer existing = codes.get(value);
+        if (existing != null) {
+            return existing;
+        }
+        String[] current = values;
+        if (size == current.length) {
+            current = Arrays.copyOf(current, size * 2);
+        }
+        current[size] = value;
+        // publish the array before the code so a reader that sees the code also sees the value
+        values = current;
+        codes.put(value, size);
+        return size++;
+    }
+}
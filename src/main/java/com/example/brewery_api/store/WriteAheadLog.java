@@ -0,0 +1,378 @@
+package com.example.brewery_api.store;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.ByteArrayOutputStream;
+import java.io.Closeable;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.Executor;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Consumer;
+import java.util.function.Supplier;
+import java.util.zip.CRC32C;
+
+/**
+ * Append-only log of store writes with group commit.
+ * <p>
+ * Callers encode their record on their own thread and queue it; a single committer thread drains
+ * everything queued while the previous batch was being written, writes the batch with one
+ * {@code write} and one {@code fsync}, and only then applies the records in log order. Their
+ * futures are completed on a separate completion executor, so whatever callers chain onto a write
+ * never runs on the committer thread while it should be writing the next batch. Concurrent writers
+ * therefore share an fsync, and readers never see a write that a crash could lose.
+ * <p>
+ * Records are framed as {@code length, CRC32C, payload}. {@link #replay} stops at the first frame
+ * that is short or fails its checksum, the torn tail of a batch cut off by a crash, and truncates
+ * the file there. Applying a record must be idempotent, since a record can be replayed on top of a
+ * snapshot that already contains it.
+ */
+public final class WriteAheadLog implements Closeable {
+    private static final Logger logger = LoggerFactory.getLogger(WriteAheadLog.class);
+    private static final int FRAME_HEADER = 2 * Integer.BYTES;
+    private static final Barrier SHUTDOWN = () -> {
+    };
+
+    private final Path path;
+    private final FileChannel channel;
+    private final boolean fsync;
+    private final int maxBatch;
+    private final BlockingQueue<Pending<?>> queue = new LinkedBlockingQueue<>();
+    private final Thread committer;
+    private final Executor completions;
+    private final ExecutorService ownedCompletions;
+    private volatile boolean closed;
+    private volatile long size;
+    private volatile IOException failure;
+
+    /**
+     * Encodes the payload of one record.
+     */
+    @FunctionalInterface
+    public interface RecordWriter {
+        void write(SnapshotOutput out) throws IOException;
+    }
+
+    /**
+     * An action run on the committer thread with no record in flight, e.g. a checkpoint.
+     */
+    @FunctionalInterface
+    public interface Barrier {
+        void run() throws IOException;
+    }
+
+    private record Pending<T>(byte[] frame, Supplier<T> apply, Barrier barrier, CompletableFuture<T> result) {
+    }
+
+    /**
+     * @param fsync    whether each batch is forced to disk; without it a batch is durable once the
+     *                 OS writes it back, which survives a process crash but not a power loss
+     * @param maxBatch upper bound on the records written per fsync
+     */
+    public WriteAheadLog(Path path, boolean fsync, int maxBatch) throws IOException {
+        this(path, fsync, maxBatch, null);
+    }
+
+    /**
+     * @param completions runs the completion of each write's future; {@code null} for a pool of
+     *                    daemon threads owned and shut down by this log
+     */
+    public WriteAheadLog(Path path, boolean fsync, int maxBatch, Executor completions) throws IOException {
+        if (path.getParent() != null) {
+            Files.createDirectories(path.getParent());
+        }
+        this.path = path;
+        this.channel = FileChannel.open(path, StandardOpenOption.CREATE, StandardOpenOption.READ, StandardOpenOption.WRITE);
+        channel.position(channel.size());
+        this.size = channel.size();
+        this.fsync = fsync;
+        this.maxBatch = Math.max(1, maxBatch);
+        this.ownedCompletions = completions == null ? completionPool() : null;
+        this.completions = completions != null ? completions : ownedCompletions;
+        this.committer = new Thread(this::commitLoop, "wal-committer");
+        committer.setDaemon(true);
+        committer.start();
+    }
+
+    /**
+     * Logs a record and, once it is durable, runs {@code apply} on the committer thread.
+     *
+     * @return the result of {@code apply}, completed on the completion executor after the record's
+     * batch has been synced
+     */
+    public <T> CompletableFuture<T> append(RecordWriter writer, Supplier<T> apply) {
+        byte[] frame;
+        try {
+            frame = frame(writer);
+        } catch (IOException e) {
+            return CompletableFuture.failedFuture(e);
+        }
+        return enqueue(new Pending<>(frame, apply, null, new CompletableFuture<>()));
+    }
+
+    /**
+     * Runs {@code action} once every record queued before it is applied, and before any record
+     * queued after it is written.
+     */
+    public CompletableFuture<Void> barrier(Barrier action) {
+        return enqueue(new Pending<>(null, null, action, new CompletableFuture<>()));
+    }
+
+    /**
+     * Applies every intact record from the start of the log and truncates a torn tail. Call before
+     * the first {@link #append}.
+     *
+     * @return the number of records applied
+     */
+    public int replay(Consumer<SnapshotInput> apply) throws IOException {
+        long size = channel.size();
+        if (size == 0) {
+            return 0;
+        }
+        if (size > Integer.MAX_VALUE) {
+            throw new IOException("Write-ahead log exceeds 2 GiB: " + path);
+        }
+        MappedByteBuffer buffer = channel.map(FileChannel.MapMode.READ_ONLY, 0, size);
+        SnapshotInput input = new SnapshotInput(buffer, 0);
+        int records = 0;
+        int end = 0;
+        CRC32C crc = new CRC32C();
+        while (size - end >= FRAME_HEADER) {
+            SnapshotInput frame = input.at(end);
+            int length = frame.readInt();
+            int checksum = frame.readInt();
+            if (length < 0 || length > size - end - FRAME_HEADER) {
+                break;
+            }
+            crc.reset();
+            crc.update(buffer.slice(end + FRAME_HEADER, length));
+            if ((int) crc.getValue() != checksum) {
+                break;
+            }
+            apply.accept(frame);
+            end += FRAME_HEADER + length;
+            records++;
+        }
+        if (end < size) {
+            logger.warn("Truncating {} bytes of torn write-ahead log tail in {}", size - end, path);
+            channel.truncate(end);
+        }
+        channel.position(end);
+        this.size = end;
+        return records;
+    }
+
+    /**
+     * Bytes committed to the log since it was created or last truncated.
+     */
+    public long size() {
+        return size;
+    }
+
+    /**
+     * Empties the log; only safe from a {@link #barrier} once its records are in a snapshot.
+     */
+    public void truncate() throws IOException {
+        channel.truncate(0);
+        channel.position(0);
+        size = 0;
+        if (fsync) {
+            channel.force(true);
+        }
+    }
+
+    /**
+     * Commits the records already queued, then stops the committer and closes the file.
+     */
+    @Override
+    public void close() throws IOException {
+        if (closed) {
+            return;
+        }
+        closed = true;
+        queue.add(new Pending<>(null, null, SHUTDOWN, new CompletableFuture<>()));
+        try {
+            committer.join(10_000);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+        channel.close();
+        if (ownedCompletions != null) {
+            // completions already handed over still run
+            ownedCompletions.shutdown();
+        }
+    }
+
+    private static ExecutorService completionPool() {
+        AtomicInteger counter = new AtomicInteger();
+        return Executors.newCachedThreadPool(runnable -> {
+            Thread thread = new Thread(runnable, "wal-completion-" + counter.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        });
+    }
+
+    private static byte[] frame(RecordWriter writer) throws IOException {
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream(256);
+        SnapshotOutput out = new SnapshotOutput(bytes);
+        out.writeInt(0);
+        out.writeInt(0);
+        writer.write(out);
+        out.flush();
+        byte[] frame = bytes.toByteArray();
+        int length = frame.length - FRAME_HEADER;
+        CRC32C crc = new CRC32C();
+        crc.update(frame, FRAME_HEADER, length);
+        ByteBuffer.wrap(frame).putInt(length).putInt((int) crc.getValue());
+        return frame;
+    }
+
+    private <T> CompletableFuture<T> enqueue(Pending<T> pending) {
+        if (closed) {
+            return CompletableFuture.failedFuture(new IOException("Write-ahead log is closed"));
+        }
+        if (failure != null) {
+            return CompletableFuture.failedFuture(new IOException("Write-ahead log failed", failure));
+        }
+        queue.add(pending);
+        return pending.result();
+    }
+
+    private void commitLoop() {
+        List<Pending<?>> batch = new ArrayList<>();
+        boolean running = true;
+        while (running) {
+            try {
+                batch.add(queue.take());
+            } catch (InterruptedException e) {
+                break;
+            }
+            queue.drainTo(batch, maxBatch - 1);
+            running = commit(batch);
+            batch.clear();
+        }
+        failPending(new IOException("Write-ahead log is closed"));
+    }
+
+    /**
+     * Writes and applies a drained batch; barriers split it so that they see exactly the records
+     * queued before them.
+     *
+     * @return {@code false} once the batch reached the shutdown marker
+     */
+    private boolean commit(List<Pending<?>> batch) {
+        int from = 0;
+        for (int i = 0; i < batch.size(); i++) {
+            Pending<?> pending = batch.get(i);
+            if (pending.barrier() != null) {
+                commitRecords(batch.subList(from, i));
+                if (pending.barrier() == SHUTDOWN) {
+                    for (Pending<?> late : batch.subList(i + 1, batch.size())) {
+                        fail(late, new IOException("Write-ahead log is closed"));
+                    }
+                    return false;
+                }
+                runBarrier(pending);
+                from = i + 1;
+            }
+        }
+        commitRecords(batch.subList(from, batch.size()));
+        return true;
+    }
+
+    private void commitRecords(List<Pending<?>> records) {
+        if (records.isEmpty()) {
+            return;
+        }
+        if (failure == null) {
+            try {
+                ByteBuffer[] frames = new ByteBuffer[records.size()];
+                for (int i = 0; i < frames.length; i++) {
+                    frames[i] = ByteBuffer.wrap(records.get(i).frame());
+                }
+                long remaining = 0;
+                for (ByteBuffer frame : frames) {
+                    remaining += frame.remaining();
+                }
+                while (remaining > 0) {
+                    remaining -= channel.write(frames);
+                }
+                if (fsync) {
+                    channel.force(false);
+                }
+                size = channel.position();
+            } catch (IOException e) {
+                // a partly written batch leaves a torn tail that the next replay cuts off
+                logger.error("Write-ahead log append failed; rejecting further writes", e);
+                failure = e;
+            }
+        }
+        for (Pending<?> record : records) {
+            if (failure != null) {
+                fail(record, new IOException("Write-ahead log failed", failure));
+            } else {
+                apply(record);
+            }
+        }
+    }
+
+    private <T> void apply(Pending<T> record) {
+        T value;
+        try {
+            value = record.apply().get();
+        } catch (RuntimeException e) {
+            fail(record, e);
+            return;
+        }
+        complete(record, value);
+    }
+
+    private void runBarrier(Pending<?> pending) {
+        try {
+            pending.barrier().run();
+        } catch (IOException | RuntimeException e) {
+            fail(pending, e);
+            return;
+        }
+        complete(pending, null);
+    }
+
+    private void failPending(IOException cause) {
+        Pending<?> pending;
+        while ((pending = queue.poll()) != null) {
+            fail(pending, cause);
+        }
+    }
+
+    // the committer only hands results over; callers' continuations run on the completion executor
+
+    private <T> void complete(Pending<T> pending, T value) {
+        handOver(() -> pending.result().complete(value), pending);
+    }
+
+    private void fail(Pending<?> pending, Throwable cause) {
+        handOver(() -> pending.result().completeExceptionally(cause), pending);
+    }
+
+    private void handOver(Runnable completion, Pending<?> pending) {
+        try {
+            completions.execute(completion);
+        } catch (RejectedExecutionException e) {
+            pending.result().completeExceptionally(new IOException("Write-ahead log is closed", e));
+        }
+    }
+}
@@ -0,0 +1,107 @@
+package com.example.brewery_api.subscription;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import reactor.core.publisher.BufferOverflowStrategy;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Sinks;
+import reactor.core.scheduler.Scheduler;
+
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Function;
+
+/**
+ * Fan-out of one event type to subscribers, optionally narrowed to a key such as a beer id.
+ * <p>
+ * Publishing only hands the event to the hub's dispatcher, so writers never wait for subscribers.
+ * The dispatcher emits into one best-effort multicast sink per key (plus one for subscribers of
+ * every key), so an event costs as much as its interested subscribers, not all of them. Each
+ * subscriber drains its own bounded buffer on the delivery scheduler; when a client falls behind,
+ * the {@link OverflowPolicy} decides what its buffer gives up, and nobody else is affected.
+ */
+public class EventHub<E> {
+    private static final String ALL = "";
+
+    private final Function<E, String> keyOf;
+    private final int bufferSize;
+    private final OverflowPolicy overflowPolicy;
+    private final Scheduler dispatcher;
+    private final Scheduler delivery;
+    private final Map<String, Sinks.Many<E>> sinks = new ConcurrentHashMap<>();
+    private final AtomicInteger subscribers = new AtomicInteger();
+    private final Counter dropped;
+
+    /**
+     * @param dispatcher single-threaded, so that sinks are never emitted to concurrently
+     */
+    public EventHub(String name, Function<E, String> keyOf, int bufferSize, OverflowPolicy overflowPolicy,
+                    Scheduler dispatcher, Scheduler delivery, MeterRegistry registry) {
+        this.keyOf = keyOf;
+        this.bufferSize = bufferSize;
+        this.overflowPolicy = overflowPolicy;
+        this.dispatcher = dispatcher;
+        this.delivery = delivery;
+        this.dropped = Counter.builder("graphql.subscription.dropped")
+                .description("Events discarded or failed because a subscriber's buffer was full")
+                .tag("subscription", name)
+                .register(registry);
+        Gauge.builder("graphql.subscription.subscribers", subscribers, AtomicInteger::get)
+                .tag("subscription", name)
+                .register(registry);
+    }
+
+    public void publish(E event) {
+        if (subscribers.get() == 0) {
+            return;
+        }
+        dispatcher.schedule(() -> {
+            emit(sinks.get(keyOf.apply(event)), event);
+            emit(sinks.get(ALL), event);
+        });
+    }
+
+    /**
+     * Events for {@code key}, or for every key when it is {@code null}, from the moment of
+     * subscription.
+     */
+    public Flux<E> subscribe(String key) {
+        String sinkKey = key != null ? key : ALL;
+        return Flux.defer(() -> sinks.computeIfAbsent(sinkKey, k -> Sinks.many().multicast().directBestEffort()).asFlux())
+                // subscribing on the dispatcher orders it with release, which could drop a new sink
+                .subscribeOn(dispatcher)
+                .onBackpressureBuffer(bufferSize, event -> dropped.increment(), strategy())
+                .publishOn(delivery, Math.min(bufferSize, 32))
+                .doOnSubscribe(subscription -> subscribers.incrementAndGet())
+                .doFinally(signal -> {
+                    subscribers.decrementAndGet();
+                    dispatcher.schedule(() -> release(sinkKey));
+                });
+    }
+
+    public int subscriberCount() {
+        return subscribers.get();
+    }
+
+    private BufferOverflowStrategy strategy() {
+        return switch (overflowPolicy) {
+            case DROP_OLDEST -> BufferOverflowStrategy.DROP_OLDEST;
+            case DROP_LATEST -> BufferOverflowStrategy.DROP_LATEST;
+            case ERROR -> BufferOverflowStrategy.ERROR;
+        };
+    }
+
+    private void emit(Sinks.Many<E> sink, E event) {
+        if (sink != null) {
+            // FAIL_ZERO_SUBSCRIBER is expected between the last cancel and release
+            sink.tryEmitNext(event);
+        }
+    }
+
+    // runs on the dispatcher, so a sink is never dropped between a lookup and an emit
+    private void release(String key) {
+        sinks.computeIfPresent(key, (k, sink) -> sink.currentSubscriberCount() == 0 ? null : sink);
+    }
+}
@@ -0,0 +1,13 @@
+package com.example.brewery_api.subscription;
+
+/**
+ * What a subscriber's buffer does when events arrive faster than its client reads them.
+ */
+public enum OverflowPolicy {
+    /** Discard the oldest buffered event, so a lagging client skips ahead. */
+    DROP_OLDEST,
+    /** Discard the new event, so a lagging client catches up on what it already has. */
+    DROP_LATEST,
+    /** End the subscription with an error; the client has to resubscribe. */
+    ERROR
+}
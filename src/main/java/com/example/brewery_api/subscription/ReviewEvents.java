@@ -0,0 +1,89 @@
+package com.example.brewery_api.subscription;
+
+import com.example.brewery_api.model.BeerRating;
+import com.example.brewery_api.model.RatingSummary;
+import com.example.brewery_api.model.Review;
+import com.example.brewery_api.service.RatingAggregates;
+import com.example.brewery_api.service.ReviewService;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PreDestroy;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import reactor.core.publisher.Flux;
+import reactor.core.scheduler.Scheduler;
+import reactor.core.scheduler.Schedulers;
+
+import java.util.Objects;
+
+/**
+ * Review and rating events behind the {@code Subscription} type, fed by {@link ReviewService}'s
+ * change listener. Ratings are read from {@link RatingAggregates}, whose listener is registered
+ * first and so has counted the change before it is published.
+ */
+@Component
+public class ReviewEvents {
+    private final RatingAggregates ratingAggregates;
+    private final Scheduler dispatcher = Schedulers.newSingle("subscription-dispatch", true);
+    private final Scheduler delivery;
+    private final EventHub<Review> reviewsAdded;
+    private final EventHub<BeerRating> ratingsChanged;
+
+    public ReviewEvents(ReviewService reviewService, RatingAggregates ratingAggregates, MeterRegistry meterRegistry,
+                        @Value("${app.subscriptions.buffer-size:256}") int bufferSize,
+                        @Value("${app.subscriptions.overflow:drop-oldest}") OverflowPolicy overflowPolicy,
+                        @Value("${app.subscriptions.delivery-threads:0}") int deliveryThreads) {
+        this.ratingAggregates = ratingAggregates;
+        this.delivery = deliveryThreads > 0
+                ? Schedulers.newBoundedElastic(deliveryThreads, Integer.MAX_VALUE, "subscription-delivery", 60, true)
+                : Schedulers.boundedElastic();
+        this.reviewsAdded = new EventHub<>("reviewAdded", Review::getBeerId, bufferSize, overflowPolicy,
+                dispatcher, delivery, meterRegistry);
+        this.ratingsChanged = new EventHub<>("beerRatingChanged", BeerRating::beerId, bufferSize, overflowPolicy,
+                dispatcher, delivery, meterRegistry);
+        reviewService.addChangeListener(this::onReviewChange);
+    }
+
+    public Flux<Review> reviewAdded(String beerId) {
+        return reviewsAdded.subscribe(beerId);
+    }
+
+    public Flux<BeerRating> beerRatingChanged(String beerId) {
+        return ratingsChanged.subscribe(beerId);
+    }
+
+    private void onReviewChange(Review previous, Review current) {
+        if (previous == null && current != null) {
+            reviewsAdded.publish(current);
+        }
+        String previousBeer = previous != null ? previous.getBeerId() : null;
+        String currentBeer = current != null ? current.getBeerId() : null;
+        boolean ratingChanged = previous == null || current == null
+                || !Objects.equals(previous.getRating(), current.getRating());
+        if (previousBeer != null && (ratingChanged || !previousBeer.equals(currentBeer))) {
+            publishRating(previousBeer);
+        }
+        if (currentBeer != null && !currentBeer.equals(previousBeer)) {
+            publishRating(currentBeer);
+        }
+    }
+
+    private void publishRating(String beerId) {
+        if (ratingsChanged.subscriberCount() == 0) {
+            return;
+        }
+        dispatcher.schedule(() -> ratingsChanged.publish(rating(beerId)));
+    }
+
+    private BeerRating rating(String beerId) {
+        RatingSummary summary = ratingAggregates.forBeer(beerId);
+        return new BeerRating(beerId, summary.averageRating(), summary.reviewCount());
+    }
+
+    @PreDestroy
+    public void close() {
+        dispatcher.dispose();
+        if (delivery != Schedulers.boundedElastic()) {
+            delivery.dispose();
+        }
+    }
+}
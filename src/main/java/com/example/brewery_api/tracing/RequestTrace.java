@@ -0,0 +1,101 @@
+package com.example.brewery_api.tracing;
+
+import graphql.GraphQLContext;
+
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Queue;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Supplier;
+
+/**
+ * Spans collected for one sampled request. Only sampled requests get an instance; everywhere else
+ * the lookup returns {@code null} and tracing code returns immediately.
+ */
+public final class RequestTrace {
+    private final String traceId;
+    private final boolean resolverDetail;
+    private final long startNanos = System.nanoTime();
+    private final Queue<Span> spans = new ConcurrentLinkedQueue<>();
+
+    RequestTrace(String traceId, boolean resolverDetail) {
+        this.traceId = traceId;
+        this.resolverDetail = resolverDetail;
+    }
+
+    public static RequestTrace from(GraphQLContext context) {
+        return context != null ? context.get(RequestTrace.class) : null;
+    }
+
+    public static RequestTrace from(Object context) {
+        return context instanceof GraphQLContext graphQLContext ? from(graphQLContext) : null;
+    }
+
+    /**
+     * Wraps a batch function so that it records a {@code batch} span if the request that triggered
+     * the dispatch is sampled; otherwise returns the function unchanged.
+     *
+     * @param context the batch loader environment's context, i.e. the request's {@link GraphQLContext}
+     */
+    public static <T> Supplier<T> tracedBatch(Object context, String loader, int keys, Supplier<T> batchFunction) {
+        RequestTrace trace = from(context);
+        if (trace == null) {
+            return batchFunction;
+        }
+        return () -> {
+            long start = trace.start();
+            try {
+                return batchFunction.get();
+            } finally {
+                trace.end("batch", loader, start, Map.of("keys", keys));
+            }
+        };
+    }
+
+    public String getTraceId() {
+        return traceId;
+    }
+
+    /**
+     * Whether individual resolver spans were requested, see {@link TracingInterceptor}.
+     */
+    public boolean isResolverDetail() {
+        return resolverDetail;
+    }
+
+    public long start() {
+        return System.nanoTime();
+    }
+
+    public void end(String kind, String name, long spanStartNanos, Map<String, Object> attributes) {
+        spans.add(new Span(kind, name, spanStartNanos - startNanos, System.nanoTime() - spanStartNanos, attributes));
+    }
+
+    Map<String, Object> toMap(String operationName, int errorCount) {
+        List<Map<String, Object>> spanList = new ArrayList<>(spans.size());
+        for (Span span : spans) {
+            Map<String, Object> entry = new LinkedHashMap<>();
+            entry.put("kind", span.kind());
+            entry.put("name", span.name());
+            entry.put("startUs", TimeUnit.NANOSECONDS.toMicros(span.offsetNanos()));
+            entry.put("durationUs", TimeUnit.NANOSECONDS.toMicros(span.durationNanos()));
+            if (span.attributes() != null && !span.attributes().isEmpty()) {
+                entry.put("attributes", span.attributes());
+            }
+            spanList.add(entry);
+        }
+        Map<String, Object> trace = new LinkedHashMap<>();
+        trace.put("traceId", traceId);
+        trace.put("operation", operationName);
+        trace.put("durationUs", TimeUnit.NANOSECONDS.toMicros(System.nanoTime() - startNanos));
+        trace.put("errors", errorCount);
+        trace.put("spans", spanList);
+        return trace;
+    }
+
+    private record Span(String kind, String name, long offsetNanos, long durationNanos, Map<String, Object> attributes) {
+    }
+}
@@ -0,0 +1,108 @@
+package com.example.brewery_api.tracing;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import graphql.ExecutionResult;
+import graphql.execution.instrumentation.InstrumentationContext;
+import graphql.execution.instrumentation.InstrumentationState;
+import graphql.execution.instrumentation.SimpleInstrumentationContext;
+import graphql.execution.instrumentation.SimplePerformantInstrumentation;
+import graphql.execution.instrumentation.parameters.InstrumentationCreateStateParameters;
+import graphql.execution.instrumentation.parameters.InstrumentationExecuteOperationParameters;
+import graphql.execution.instrumentation.parameters.InstrumentationExecutionParameters;
+import graphql.execution.instrumentation.parameters.InstrumentationFieldFetchParameters;
+import graphql.execution.instrumentation.parameters.InstrumentationValidationParameters;
+import graphql.language.Document;
+import graphql.validation.ValidationError;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Component;
+
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Turns the {@link RequestTrace} of a sampled request into spans for parse, validation and
+ * execution (plus resolver spans when requested) and logs the finished trace as one JSON line on
+ * the {@code graphql.trace} logger. For unsampled requests the state is {@code null} and every
+ * hook returns without allocating.
+ */
+@Component
+@ConditionalOnProperty(name = "app.tracing.enabled", havingValue = "true", matchIfMissing = true)
+public class TracingInstrumentation extends SimplePerformantInstrumentation {
+    private static final Logger traceLogger = LoggerFactory.getLogger("graphql.trace");
+
+    private final ObjectMapper objectMapper;
+
+    public TracingInstrumentation(ObjectMapper objectMapper) {
+        this.objectMapper = objectMapper;
+    }
+
+    @Override
+    public InstrumentationState createState(InstrumentationCreateStateParameters parameters) {
+        RequestTrace trace = RequestTrace.from(parameters.getExecutionInput().getGraphQLContext());
+        return trace != null ? new TraceState(trace) : null;
+    }
+
+    @Override
+    public InstrumentationContext<ExecutionResult> beginExecution(InstrumentationExecutionParameters parameters,
+                                                                  InstrumentationState state) {
+        if (!(state instanceof TraceState traceState)) {
+            return null;
+        }
+        RequestTrace trace = traceState.trace;
+        return SimpleInstrumentationContext.whenCompleted((result, throwable) -> {
+            int errors = result != null ? result.getErrors().size() : 1;
+            try {
+                traceLogger.info(objectMapper.writeValueAsString(trace.toMap(parameters.getOperation(), errors)));
+            } catch (JsonProcessingException e) {
+                traceLogger.warn("Failed to serialize trace {}: {}", trace.getTraceId(), e.getMessage());
+            }
+        });
+    }
+
+    @Override
+    public InstrumentationContext<Document> beginParse(InstrumentationExecutionParameters parameters,
+                                                       InstrumentationState state) {
+        return span(state, "parse", "document");
+    }
+
+    @Override
+    public InstrumentationContext<List<ValidationError>> beginValidation(InstrumentationValidationParameters parameters,
+                                                                         InstrumentationState state) {
+        return span(state, "validate", "document");
+    }
+
+    @Override
+    public InstrumentationContext<ExecutionResult> beginExecuteOperation(InstrumentationExecuteOperationParameters parameters,
+                                                                         InstrumentationState state) {
+        return span(state, "execute", parameters.getExecutionContext().getOperationDefinition().getOperation().name());
+    }
+
+    @Override
+    public InstrumentationContext<Object> beginFieldFetch(InstrumentationFieldFetchParameters parameters,
+                                                          InstrumentationState state) {
+        if (!(state instanceof TraceState traceState) || !traceState.trace.isResolverDetail()
+                || parameters.isTrivialDataFetcher()) {
+            return null;
+        }
+        RequestTrace trace = traceState.trace;
+        String path = parameters.getExecutionStepInfo().getPath().toString();
+        long start = trace.start();
+        return SimpleInstrumentationContext.whenCompleted((value, throwable) ->
+                trace.end("resolver", path, start, throwable != null ? Map.of("error", throwable.toString()) : null));
+    }
+
+    private static <T> InstrumentationContext<T> span(InstrumentationState state, String kind, String name) {
+        if (!(state instanceof TraceState traceState)) {
+            return null;
+        }
+        RequestTrace trace = traceState.trace;
+        long start = trace.start();
+        return SimpleInstrumentationContext.whenCompleted((value, throwable) -> trace.end(kind, name, start, null));
+    }
+
+    private record TraceState(RequestTrace trace) implements InstrumentationState {
+    }
+}
@@ -0,0 +1,50 @@
+package com.example.brewery_api.tracing;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.graphql.server.WebGraphQlInterceptor;
+import org.springframework.graphql.server.WebGraphQlRequest;
+import org.springframework.graphql.server.WebGraphQlResponse;
+import org.springframework.stereotype.Component;
+import reactor.core.publisher.Mono;
+import reactor.util.context.Context;
+
+import java.util.UUID;
+import java.util.concurrent.ThreadLocalRandom;
+
+/**
+ * Decides per request whether it is traced. A request is sampled at {@code app.tracing.sample-rate};
+ * a client can force tracing with the {@code app.tracing.header} header: any value samples the
+ * request, and {@code resolvers} additionally records a span for every non-trivial resolver.
+ * <p>
+ * The trace travels in the Reactor context of the request, which Spring GraphQL copies into the
+ * {@link graphql.GraphQLContext} of the execution and restores around {@code Mono} data fetchers, so
+ * it reaches the instrumentation and the batch loaders on servlet and WebFlux alike.
+ */
+@Component
+@ConditionalOnProperty(name = "app.tracing.enabled", havingValue = "true", matchIfMissing = true)
+public class TracingInterceptor implements WebGraphQlInterceptor {
+    static final String RESOLVER_DETAIL = "resolvers";
+
+    private final double sampleRate;
+    private final String header;
+
+    public TracingInterceptor(@Value("${app.tracing.sample-rate:0.01}") double sampleRate,
+                              @Value("${app.tracing.header:X-GraphQL-Trace}") String header) {
+        this.sampleRate = sampleRate;
+        this.header = header;
+    }
+
+    @Override
+    public Mono<WebGraphQlResponse> intercept(WebGraphQlRequest request, Chain chain) {
+        String requested = request.getHeaders().getFirst(header);
+        boolean sampled = requested != null || (sampleRate > 0 && ThreadLocalRandom.current().nextDouble() < sampleRate);
+        if (!sampled) {
+            return chain.next(request);
+        }
+        RequestTrace trace = new RequestTrace(UUID.randomUUID().toString(), RESOLVER_DETAIL.equalsIgnoreCase(requested));
+        return chain.next(request)
+                .doOnNext(response -> response.getResponseHeaders().set(header + "-Id", trace.getTraceId()))
+                .contextWrite(Context.of(RequestTrace.class, trace));
+    }
+}
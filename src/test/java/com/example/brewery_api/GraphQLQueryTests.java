@@ -0,0 +1,372 @@
+package com.example.brewery_api;
+
+import com.example.brewery_api.model.Beer;
+import com.example.brewery_api.persisted.PersistedQueryRegistry;
+import com.example.brewery_api.service.BeerService;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.junit.jupiter.api.Nested;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.core.ParameterizedTypeReference;
+import org.springframework.boot.test.autoconfigure.graphql.tester.AutoConfigureGraphQlTester;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.test.system.CapturedOutput;
+import org.springframework.boot.test.system.OutputCaptureExtension;
+import org.springframework.graphql.ExecutionGraphQlResponse;
+import org.springframework.graphql.ExecutionGraphQlService;
+import org.springframework.graphql.server.WebGraphQlHandler;
+import org.springframework.graphql.server.WebGraphQlRequest;
+import org.springframework.graphql.server.WebGraphQlResponse;
+import org.springframework.graphql.support.DefaultExecutionGraphQlRequest;
+import org.springframework.graphql.test.tester.GraphQlTester;
+import org.springframework.http.HttpHeaders;
+import org.springframework.test.context.TestPropertySource;
+
+import java.net.URI;
+import java.time.Duration;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.TimeUnit;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.within;
+import static org.awaitility.Awaitility.await;
+
+@SpringBootTest(properties = "app.tracing.sample-rate=0")
+@AutoConfigureGraphQlTester
+@ExtendWith(OutputCaptureExtension.class)
+class GraphQLQueryTests {
+
+	@Autowired
+	private GraphQlTester graphQlTester;
+
+	@Autowired
+	private MeterRegistry meterRegistry;
+
+	@Autowired
+	private ExecutionGraphQlService graphQlService;
+
+	@Autowired
+	private BeerService beerService;
+
+	@Autowired
+	private WebGraphQlHandler webGraphQlHandler;
+
+	@Test
+	void nestedQueryResolvesThroughDataLoaders() {
+		graphQlTester.document("{ reviews { id beer { id brewery { id beers { id reviews { id } } } } } }")
+				.execute()
+				.errors().verify()
+				.path("reviews").entityList(Object.class).hasSizeGreaterThan(0);
+
+		graphQlTester.document("{ review(id: \"1\") { beer { id brewery { id } } } }")
+				.execute()
+				.errors().verify()
+				.path("review.beer.id").entity(String.class).isEqualTo("1")
+				.path("review.beer.brewery.id").entity(String.class).isEqualTo("1");
+	}
+
+	@Test
+	void leafLoadsWaitForDeeperKeysOfTheSameLoader() {
+		// per level: beerLoader, breweryBeersLoader, beerReviewsLoader, then beerLoader again
+		graphQlTester.document("{ review(id: \"1\") { beer { name } } breweries { beers { reviews { beer { name } } } } }")
+				.execute()
+				.errors().verify();
+		long before = batchCount();
+		graphQlTester.document("{ review(id: \"1\") { beer { name } } breweries { beers { reviews { beer { name } } } } }")
+				.execute()
+				.errors().verify()
+				.path("review.beer.name").entity(String.class).satisfies(name -> assertThat(name).isNotBlank());
+
+		assertThat(batchCount() - before).isEqualTo(3);
+		assertThat(meterRegistry.find("graphql.dataloader.batch.size").tag("loader", "beerLoader").summary().max())
+				.isGreaterThan(1);
+	}
+
+	private long batchCount() {
+		return meterRegistry.find("graphql.dataloader.batch.size").summaries().stream()
+				.mapToLong(summary -> summary.count())
+				.sum();
+	}
+
+	@Test
+	void batchLoadersAndResolversAreMetered() {
+		graphQlTester.document("{ reviews { beer { name } } }").execute().errors().verify();
+
+		assertThat(meterRegistry.find("graphql.dataloader.batch.size").tag("loader", "beerLoader").summary())
+				.isNotNull();
+		assertThat(meterRegistry.find("graphql.dataloader.keys.per.dispatch").tag("loader", "beerLoader").summary())
+				.isNotNull();
+		assertThat(meterRegistry.find("graphql.field.fetch").tag("field", "Review.beer").timer())
+				.isNotNull();
+	}
+
+	@Test
+	void costIsReportedAndDeepQueriesAreRejected() {
+		ExecutionGraphQlResponse response = graphQlService.execute(new DefaultExecutionGraphQlRequest(
+				"{ breweries { beers { reviews { id } } } }", null, null, null, "cost", null)).block();
+		assertThat(response.getExecutionResult().getExtensions()).containsKey("cost");
+
+		graphQlTester.document("{ reviews { beer { reviews { beer { reviews { beer { reviews { beer { reviews { beer { reviews { id } } } } } } } } } } } }")
+				.execute()
+				.errors().expect(error -> error.getMessage().contains("depth")).verify();
+	}
+
+	@Test
+	@SuppressWarnings("unchecked")
+	void costOfACachedDocumentFollowsTheStoreSize() {
+		String query = "{ beers { id } }";
+		ExecutionGraphQlResponse before = graphQlService.execute(new DefaultExecutionGraphQlRequest(
+				query, null, null, null, "cost-before", null)).block();
+		Map<String, Object> costBefore = (Map<String, Object>) before.getExecutionResult().getExtensions().get("cost");
+
+		Beer added = new Beer();
+		added.setId("cost-test");
+		added.setName("Cost Test");
+		added.setStyle("Lager");
+		added.setBreweryId("1");
+		beerService.addBeer(added);
+		try {
+			ExecutionGraphQlResponse after = graphQlService.execute(new DefaultExecutionGraphQlRequest(
+					query, null, null, null, "cost-after", null)).block();
+			Map<String, Object> costAfter = (Map<String, Object>) after.getExecutionResult().getExtensions().get("cost");
+			assertThat((Double) costAfter.get("estimated")).isEqualTo((Double) costBefore.get("estimated") + 1);
+		} finally {
+			beerService.removeBeer(added.getId());
+		}
+	}
+
+	@Test
+	void connectionsPageInIdOrder() {
+		String endCursor = graphQlTester.document("{ beersConnection(first: 3) { edges { node { id } } pageInfo { hasNextPage endCursor } totalCount } }")
+				.execute()
+				.errors().verify()
+				.path("beersConnection.edges[*].node.id").entityList(String.class).containsExactly("1", "2", "3")
+				.path("beersConnection.pageInfo.hasNextPage").entity(Boolean.class).isEqualTo(true)
+				.path("beersConnection.pageInfo.endCursor").entity(String.class).get();
+
+		graphQlTester.document("query($after: String) { beersConnection(first: 2, after: $after) { edges { node { id } } } }")
+				.variable("after", endCursor)
+				.execute()
+				.errors().verify()
+				.path("beersConnection.edges[*].node.id").entityList(String.class).containsExactly("4", "5");
+
+		graphQlTester.document("{ breweriesConnection { edges { node { id beersConnection(first: 1) { totalCount edges { node { id reviewsConnection(first: 1) { totalCount } } } } } } } }")
+				.execute()
+				.errors().verify()
+				.path("breweriesConnection.edges[0].node.beersConnection.totalCount").entity(Integer.class).isEqualTo(3)
+				.path("breweriesConnection.edges[0].node.beersConnection.edges[*].node.id").entityList(String.class).containsExactly("1");
+	}
+
+	@Test
+	void listFiltersAndSortsUseIndexes() {
+		graphQlTester.document("""
+						{ beers(filter: { breweryLocation: "Львів", abvMin: 5.0, abvMax: 7.0 }, sort: ABV_DESC) { id abv } }
+						""")
+				.execute()
+				.path("beers[*].id").entityList(String.class).containsExactly("8", "7", "6");
+
+		graphQlTester.document("""
+						{ reviews(filter: { beerId: "1", ratingMin: 4 }, sort: RATING_DESC) { id rating } }
+						""")
+				.execute()
+				.path("reviews[*].id").entityList(String.class).containsExactly("2", "1");
+	}
+
+	@Test
+	void ratingAggregatesMatchTheReviewLists() {
+		GraphQlTester.Traversable response = graphQlTester.document("""
+						{ brewery(id: "1") { reviewCount ratingHistogram { count }
+						    beers { reviewCount averageRating ratingHistogram { rating count } reviews { rating } } } }
+						""")
+				.execute()
+				.errors().verify();
+
+		List<Map<String, Object>> beers = response.path("brewery.beers").entityList(new ParameterizedTypeReference<Map<String, Object>>() {}).get();
+		int breweryReviews = 0;
+		for (Map<String, Object> beer : beers) {
+			List<Integer> ratings = ((List<?>) beer.get("reviews")).stream()
+					.map(review -> (Integer) ((Map<?, ?>) review).get("rating")).toList();
+			assertThat(beer.get("reviewCount")).isEqualTo(ratings.size());
+			if (!ratings.isEmpty()) {
+				assertThat(((Number) beer.get("averageRating")).doubleValue())
+						.isCloseTo(ratings.stream().mapToInt(Integer::intValue).average().orElseThrow(), within(1e-9));
+			}
+			breweryReviews += ratings.size();
+		}
+		response.path("brewery.reviewCount").entity(Integer.class).isEqualTo(breweryReviews)
+				.path("brewery.ratingHistogram[*].count").entityList(Integer.class).hasSize(5);
+	}
+
+	@Test
+	void projectionsAndCountOnlyConnectionsKeepSelectionsApart() {
+		graphQlTester.document("""
+						{ beer(id: "3") { reviewCount reviewsConnection { totalCount }
+						    short: reviews { id } full: reviews { id comment } } }
+						""")
+				.execute()
+				.errors().verify()
+				.path("beer").entity(Map.class).satisfies(beer -> {
+					assertThat(beer.get("reviewsConnection")).isEqualTo(Map.of("totalCount", beer.get("reviewCount")));
+					assertThat((List<?>) beer.get("short")).hasSize((Integer) beer.get("reviewCount"));
+					assertThat((List<?>) beer.get("full")).allSatisfy(review -> assertThat(((Map<?, ?>) review).containsKey("comment")).isTrue());
+				});
+	}
+
+	@Test
+	void searchFindsBeersAndReviewsByCyrillicText() {
+		graphQlTester.document("""
+						{ searchBeers(text: "портер") { id name }
+						  searchReviews(text: "\\"кави та шоколаду\\"", first: 5) { id comment } }
+						""")
+				.execute()
+				.errors().verify()
+				.path("searchBeers[0].name").entity(String.class).isEqualTo("Львівське Портер")
+				.path("searchReviews[*].comment").entityList(String.class)
+				.containsExactly("Розкішний стаут з глибоким смаком кави та шоколаду.");
+	}
+
+	@Test
+	void mutationsWriteThroughToIndexesAndRejectInvalidInput() {
+		String id = graphQlTester.document("""
+						mutation { addReview(input: { beerId: "2", rating: 1, author: "tester", comment: "Кисле" }) { id beer { id } } }
+						""")
+				.execute()
+				.errors().verify()
+				.path("addReview.beer.id").entity(String.class).isEqualTo("2")
+				.path("addReview.id").entity(String.class).get();
+
+		graphQlTester.document("query($id: ID!) { review(id: $id) { comment beer { reviews { id } } } }")
+				.variable("id", id)
+				.execute()
+				.errors().verify()
+				.path("review.comment").entity(String.class).isEqualTo("Кисле")
+				.path("review.beer.reviews[*].id").entityList(String.class).contains(id);
+
+		graphQlTester.document("mutation($id: ID!) { updateReview(id: $id, input: { comment: \"Краще\" }) { rating comment } }")
+				.variable("id", id)
+				.execute()
+				.errors().verify()
+				.path("updateReview.rating").entity(Integer.class).isEqualTo(1)
+				.path("updateReview.comment").entity(String.class).isEqualTo("Краще");
+
+		graphQlTester.document("mutation { addReview(input: { beerId: \"404\", rating: 3, author: \"tester\" }) { id } }")
+				.execute()
+				.errors().expect(error -> "Unknown beer: 404".equals(error.getMessage())).verify();
+	}
+
+	@Test
+	void subscriptionsReceiveReviewsAndRatingsForTheirBeer() throws Exception {
+		CompletableFuture<String> added = graphQlTester.document("subscription { reviewAdded(beerId: \"4\") { id author } }")
+				.executeSubscription()
+				.toFlux("reviewAdded.author", String.class)
+				.next().toFuture();
+		CompletableFuture<Integer> rating = graphQlTester.document("subscription { beerRatingChanged(beerId: \"4\") { reviewCount } }")
+				.executeSubscription()
+				.toFlux("beerRatingChanged.reviewCount", Integer.class)
+				.next().toFuture();
+		await().atMost(Duration.ofSeconds(5)).until(() ->
+				meterRegistry.get("graphql.subscription.subscribers").tag("subscription", "reviewAdded").gauge().value() > 0
+						&& meterRegistry.get("graphql.subscription.subscribers").tag("subscription", "beerRatingChanged").gauge().value() > 0);
+		int before = graphQlTester.document("{ beer(id: \"4\") { reviews { id } } }")
+				.execute()
+				.path("beer.reviews").entityList(Object.class).get().size();
+
+		graphQlTester.document("mutation { addReview(input: { beerId: \"4\", rating: 2, author: \"subscriber\" }) { id } }")
+				.execute()
+				.errors().verify();
+
+		assertThat(added.get(5, TimeUnit.SECONDS)).isEqualTo("subscriber");
+		assertThat(rating.get(5, TimeUnit.SECONDS)).isEqualTo(before + 1);
+	}
+
+	@Test
+	void automaticPersistedQueriesRegisterAndResolveByHash() {
+		String query = "{ beer(id: \"1\") { name } }";
+		Map<String, Object> extensions = Map.of("persistedQuery",
+				Map.of("version", 1, "sha256Hash", PersistedQueryRegistry.sha256(query)));
+
+		ExecutionGraphQlResponse miss = graphQlService.execute(new DefaultExecutionGraphQlRequest(
+				"", null, null, extensions, "apq-1", null)).block();
+		assertThat(miss.getErrors()).extracting(error -> error.getMessage()).containsExactly("PersistedQueryNotFound");
+
+		ExecutionGraphQlResponse registered = graphQlService.execute(new DefaultExecutionGraphQlRequest(
+				query, null, null, extensions, "apq-2", null)).block();
+		assertThat(registered.getErrors()).isEmpty();
+
+		ExecutionGraphQlResponse hit = graphQlService.execute(new DefaultExecutionGraphQlRequest(
+				"", null, null, extensions, "apq-3", null)).block();
+		String name = hit.field("beer.name").getValue();
+		assertThat(name).isEqualTo("Львівське 1715");
+
+		ExecutionGraphQlResponse invalid = graphQlService.execute(new DefaultExecutionGraphQlRequest(
+				"{ beer(id: \"2\") { name } }", null, null, extensions, "apq-4", null)).block();
+		assertThat(invalid.getErrors()).extracting(error -> error.getMessage()).containsExactly("PersistedQueryIdInvalid");
+
+		ExecutionGraphQlResponse empty = graphQlService.execute(new DefaultExecutionGraphQlRequest(
+				"", null, null, null, "apq-5", null)).block();
+		assertThat(empty.getErrors()).extracting(error -> error.getExtensions().get("code")).containsExactly("BAD_REQUEST");
+	}
+
+	/**
+	 * Sends the query through the servlet-mode web handler, so that it passes the interceptors.
+	 */
+	private static WebGraphQlResponse post(WebGraphQlHandler handler, String query, String traceHeader) {
+		HttpHeaders headers = new HttpHeaders();
+		if (traceHeader != null) {
+			headers.set("X-GraphQL-Trace", traceHeader);
+		}
+		WebGraphQlResponse response = handler.handleRequest(new WebGraphQlRequest(URI.create("/graphql"), headers,
+				null, null, Map.of(), Map.of("query", query), "trace-" + System.nanoTime(), null)).block();
+		assertThat(response.getErrors()).isEmpty();
+		return response;
+	}
+
+	private static String traceLine(CapturedOutput output, String traceId) {
+		return output.getOut().lines()
+				.filter(line -> line.contains("\"traceId\":\"" + traceId + "\""))
+				.findFirst().orElseThrow();
+	}
+
+	@Test
+	void unsampledRequestsAreNotTraced(CapturedOutput output) {
+		WebGraphQlResponse response = post(webGraphQlHandler, "{ reviews { beer { name } } }", null);
+
+		assertThat(response.getResponseHeaders().getFirst("X-GraphQL-Trace-Id")).isNull();
+		assertThat(output.getOut()).doesNotContain("\"traceId\"");
+	}
+
+	@Test
+	void theTraceHeaderForcesATraceWithResolverSpans(CapturedOutput output) {
+		WebGraphQlResponse response = post(webGraphQlHandler, "{ reviews { beer { name } } }", "resolvers");
+
+		String traceId = response.getResponseHeaders().getFirst("X-GraphQL-Trace-Id");
+		assertThat(traceId).isNotNull();
+		assertThat(traceLine(output, traceId))
+				.contains("\"kind\":\"execute\",\"name\":\"QUERY\"")
+				.contains("\"kind\":\"batch\",\"name\":\"beerLoader\"")
+				.containsPattern("\"kind\":\"resolver\",\"name\":\"/reviews\\[0\\]/beer\"");
+	}
+
+	@Nested
+	@TestPropertySource(properties = "app.tracing.sample-rate=1")
+	class WhenEveryRequestIsSampled {
+
+		@Autowired
+		private WebGraphQlHandler sampledHandler;
+
+		@Test
+		void sampledRequestsLogBatchSpansButNoResolverSpans(CapturedOutput output) {
+			WebGraphQlResponse response = post(sampledHandler, "{ reviews { beer { name } } }", null);
+
+			String traceId = response.getResponseHeaders().getFirst("X-GraphQL-Trace-Id");
+			assertThat(traceId).isNotNull();
+			assertThat(traceLine(output, traceId))
+					.contains("\"operation\":null", "\"errors\":0")
+					.contains("\"kind\":\"batch\",\"name\":\"beerLoader\"")
+					.doesNotContain("\"kind\":\"resolver\"");
+		}
+	}
+}
@@ -0,0 +1,82 @@
+package com.example.brewery_api;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.test.web.client.TestRestTemplate;
+import org.springframework.boot.test.web.server.LocalServerPort;
+import org.springframework.graphql.client.ClientGraphQlResponse;
+import org.springframework.graphql.client.WebSocketGraphQlClient;
+import org.springframework.http.HttpEntity;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.reactive.socket.client.ReactorNettyWebSocketClient;
+
+import java.net.URI;
+import java.time.Duration;
+import java.util.List;
+import java.util.Map;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+@SpringBootTest(webEnvironment = SpringBootTest.WebEnvironment.RANDOM_PORT)
+class IncrementalDeliveryTests {
+	private static final String DEFERRED_REVIEWS =
+			"{ beer(id: \"1\") { name ... @defer(label: \"reviews\") { reviews { rating } } } }";
+
+	@Autowired
+	private TestRestTemplate restTemplate;
+
+	@LocalServerPort
+	private int port;
+
+	private ResponseEntity<String> post(String query, MediaType accept) {
+		HttpHeaders headers = new HttpHeaders();
+		headers.setContentType(MediaType.APPLICATION_JSON);
+		headers.setAccept(List.of(accept));
+		return restTemplate.postForEntity("/graphql", new HttpEntity<>(Map.of("query", query), headers), String.class);
+	}
+
+	@Test
+	void deferredFragmentsArriveAsLaterMultipartParts() {
+		ResponseEntity<String> response = post(DEFERRED_REVIEWS, MediaType.parseMediaType("multipart/mixed; deferSpec=20220824"));
+
+		assertThat(response.getStatusCode()).isEqualTo(HttpStatus.OK);
+		assertThat(response.getHeaders().getContentType().isCompatibleWith(MediaType.MULTIPART_MIXED)).isTrue();
+		String[] parts = response.getBody().split("\r\n---\r\n");
+		// the preamble before the first boundary is empty
+		assertThat(parts).hasSize(3);
+		assertThat(parts[1]).contains("\"hasNext\":true").contains("\"name\"").doesNotContain("\"reviews\"");
+		assertThat(parts[2]).contains("\"label\":\"reviews\"").contains("\"rating\"").contains("\"hasNext\":false")
+				.endsWith("\r\n-----\r\n");
+	}
+
+	@Test
+	void plainJsonRequestsGetDeferredFragmentsInlined() {
+		ResponseEntity<String> response = post(DEFERRED_REVIEWS, MediaType.APPLICATION_JSON);
+
+		assertThat(response.getStatusCode()).isEqualTo(HttpStatus.OK);
+		assertThat(response.getBody()).contains("\"reviews\"").doesNotContain("hasNext").doesNotContain("errors");
+	}
+
+	@Test
+	void deferredFragmentsArriveAsLaterWebSocketMessages() {
+		WebSocketGraphQlClient client = WebSocketGraphQlClient.builder(URI.create("ws://localhost:" + port + "/graphql-ws"),
+				new ReactorNettyWebSocketClient()).build();
+		try {
+			List<Map<String, Object>> payloads = client.document(DEFERRED_REVIEWS)
+					.executeSubscription()
+					.map(ClientGraphQlResponse::toMap)
+					.collectList()
+					.block(Duration.ofSeconds(10));
+
+			assertThat(payloads).hasSize(2);
+			assertThat(payloads.get(0)).containsEntry("hasNext", true).containsKey("data");
+			assertThat(payloads.get(1)).containsEntry("hasNext", false).containsKey("incremental");
+		} finally {
+			client.stop().block(Duration.ofSeconds(5));
+		}
+	}
+}
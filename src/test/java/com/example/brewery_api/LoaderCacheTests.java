@@ -0,0 +1,53 @@
+package com.example.brewery_api;
+
+import com.example.brewery_api.model.Beer;
+import com.example.brewery_api.model.Review;
+import com.example.brewery_api.service.MutationService;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.graphql.tester.AutoConfigureGraphQlTester;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.graphql.test.tester.GraphQlTester;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+@SpringBootTest(properties = "app.cache.l2.enabled=true")
+@AutoConfigureGraphQlTester
+class LoaderCacheTests {
+
+	private static final String QUERY = """
+			{ review(id: "1") { beer { name brewery { name } } } brewery(id: "1") { beers { id name } } beer(id: "2") { reviews { id } } }
+			""";
+
+	@Autowired
+	private GraphQlTester graphQlTester;
+
+	@Autowired
+	private MutationService mutationService;
+
+	@Test
+	void writesAreVisibleThroughCachedLoaders() {
+		GraphQlTester.Traversable before = graphQlTester.document(QUERY).execute().errors().verify();
+		int reviews = before.path("beer.reviews").entityList(Object.class).get().size();
+		// served from the cache the second time
+		graphQlTester.document(QUERY).execute().errors().verify()
+				.path("review.beer.name").entity(String.class).isEqualTo(before.path("review.beer.name").entity(String.class).get());
+
+		Beer patch = new Beer();
+		patch.setName("Renamed through the mutation");
+		mutationService.updateBeer("1", patch).join();
+		Review review = new Review();
+		review.setBeerId("2");
+		review.setRating(4);
+		review.setAuthor("cache test");
+		String added = mutationService.addReview(review).join().getId();
+
+		GraphQlTester.Traversable after = graphQlTester.document(QUERY).execute().errors().verify();
+		after.path("review.beer.name").entity(String.class).isEqualTo("Renamed through the mutation");
+		after.path("brewery.beers[?(@.id == '1')].name").entityList(String.class)
+				.containsExactly("Renamed through the mutation");
+		assertThat(after.path("beer.reviews[*].id").entityList(String.class).get())
+				.hasSize(reviews + 1)
+				.contains(added);
+	}
+}
@@ -0,0 +1,73 @@
+package com.example.brewery_api;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.test.system.CapturedOutput;
+import org.springframework.boot.test.system.OutputCaptureExtension;
+import org.springframework.boot.web.embedded.netty.NettyWebServer;
+import org.springframework.boot.web.reactive.context.ReactiveWebServerApplicationContext;
+import org.springframework.http.MediaType;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.web.reactive.server.WebTestClient;
+
+import java.util.Map;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+@SpringBootTest(webEnvironment = SpringBootTest.WebEnvironment.RANDOM_PORT)
+@ActiveProfiles("reactive")
+@ExtendWith(OutputCaptureExtension.class)
+class ReactiveModeTests {
+
+	@Autowired
+	private ReactiveWebServerApplicationContext context;
+
+	@Autowired
+	private WebTestClient webTestClient;
+
+	@Test
+	void graphqlIsServedByWebFluxOnNetty() {
+		assertThat(context.getWebServer()).isInstanceOf(NettyWebServer.class);
+
+		webTestClient.post().uri("/graphql")
+				.contentType(MediaType.APPLICATION_JSON)
+				.bodyValue(Map.of("query", "{ reviews { beer { name brewery { name } } } }"))
+				.exchange()
+				.expectStatus().isOk()
+				.expectBody()
+				.jsonPath("$.errors").doesNotExist()
+				.jsonPath("$.data.reviews[0].beer.brewery.name").isNotEmpty();
+	}
+
+	@Test
+	void deferredFragmentsAreStreamedAsMultipartParts() {
+		String body = webTestClient.post().uri("/graphql")
+				.contentType(MediaType.APPLICATION_JSON)
+				.accept(MediaType.parseMediaType("multipart/mixed; deferSpec=20220824"))
+				.bodyValue(Map.of("query", "{ beer(id: \"1\") { name ... @defer { reviews { rating } } } }"))
+				.exchange()
+				.expectStatus().isOk()
+				.expectBody(String.class)
+				.returnResult().getResponseBody();
+
+		assertThat(body.split("\r\n---\r\n")).hasSize(3);
+		assertThat(body).contains("\"hasNext\":true").contains("\"incremental\"").endsWith("\r\n-----\r\n");
+	}
+
+	@Test
+	void theRequestTraceReachesTheBatchLoadersThroughTheReactorContext(CapturedOutput output) {
+		String traceId = webTestClient.post().uri("/graphql")
+				.header("X-GraphQL-Trace", "on")
+				.contentType(MediaType.APPLICATION_JSON)
+				.bodyValue(Map.of("query", "{ reviews { beer { name } } }"))
+				.exchange()
+				.expectStatus().isOk()
+				.returnResult(String.class)
+				.getResponseHeaders().getFirst("X-GraphQL-Trace-Id");
+
+		assertThat(traceId).isNotNull();
+		assertThat(output.getOut()).containsPattern("\"traceId\":\"" + traceId + "\".*\"kind\":\"batch\"");
+	}
+}
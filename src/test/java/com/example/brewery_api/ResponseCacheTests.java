@@ -0,0 +1,128 @@
+package com.example.brewery_api;
+
+import com.example.brewery_api.model.Beer;
+import com.example.brewery_api.model.Brewery;
+import com.example.brewery_api.service.BeerService;
+import com.example.brewery_api.service.BreweryService;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.test.web.client.TestRestTemplate;
+import org.springframework.http.HttpEntity;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+
+import java.util.Map;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+@SpringBootTest(webEnvironment = SpringBootTest.WebEnvironment.RANDOM_PORT,
+		properties = {"app.response-cache.enabled=true", "app.store.layout=compact"})
+class ResponseCacheTests {
+
+	@Autowired
+	private TestRestTemplate restTemplate;
+
+	@Autowired
+	private BeerService beerService;
+
+	@Autowired
+	private BreweryService breweryService;
+
+	private ResponseEntity<String> post(String query, String ifNoneMatch) {
+		HttpHeaders headers = new HttpHeaders();
+		headers.setContentType(MediaType.APPLICATION_JSON);
+		if (ifNoneMatch != null) {
+			headers.setIfNoneMatch(ifNoneMatch);
+		}
+		return restTemplate.postForEntity("/graphql", new HttpEntity<>(Map.of("query", query), headers), String.class);
+	}
+
+	@Test
+	void repeatedQueriesAreServedWithEtagsUntilAnEntityChanges() {
+		String query = "{ beer(id: \"1\") { name brewery { name } } }";
+		ResponseEntity<String> first = post(query, null);
+		assertThat(first.getStatusCode()).isEqualTo(HttpStatus.OK);
+		String etag = first.getHeaders().getETag();
+		assertThat(etag).isNotNull();
+		assertThat(first.getHeaders().getCacheControl()).isEqualTo("max-age=120");
+
+		// whitespace does not split entries
+		ResponseEntity<String> reformatted = post("{ beer(id: \"1\") {\n  name\n  brewery { name }\n} }", etag);
+		assertThat(reformatted.getStatusCode()).isEqualTo(HttpStatus.NOT_MODIFIED);
+
+		Beer beer = beerService.getBeerById("1");
+		Beer renamed = new Beer();
+		renamed.setId(beer.getId());
+		renamed.setName(beer.getName() + " (renamed)");
+		renamed.setBreweryId(beer.getBreweryId());
+		beerService.addBeer(renamed);
+		try {
+			ResponseEntity<String> changed = post(query, etag);
+			assertThat(changed.getStatusCode()).isEqualTo(HttpStatus.OK);
+			assertThat(changed.getBody()).contains("(renamed)");
+			assertThat(changed.getHeaders().getETag()).isNotEqualTo(etag);
+		} finally {
+			beerService.addBeer(beer);
+		}
+	}
+
+	@Test
+	void connectionCountsAreRecomputedOnceABeerIsAdded() {
+		String query = "{ brewery(id: \"1\") { beersConnection { totalCount } } }";
+		int count = beerService.countBeersByBreweryId("1");
+		ResponseEntity<String> first = post(query, null);
+		String etag = first.getHeaders().getETag();
+		assertThat(etag).isNotNull();
+		assertThat(first.getBody()).contains("\"totalCount\":" + count);
+
+		Beer added = new Beer();
+		added.setId("response-cache-test");
+		added.setName("Cache Buster");
+		added.setStyle("Lager");
+		added.setBreweryId("1");
+		beerService.addBeer(added);
+		try {
+			ResponseEntity<String> changed = post(query, etag);
+			assertThat(changed.getStatusCode()).isEqualTo(HttpStatus.OK);
+			assertThat(changed.getBody()).contains("\"totalCount\":" + (count + 1));
+		} finally {
+			beerService.removeBeer(added.getId());
+		}
+	}
+
+	@Test
+	void locationFiltersAreReevaluatedOnceABreweryMoves() {
+		Brewery brewery = breweryService.getBreweryById("1");
+		String query = "{ beers(filter: { breweryLocation: \"Nowhere\" }) { id } }";
+		ResponseEntity<String> first = post(query, null);
+		String etag = first.getHeaders().getETag();
+		assertThat(etag).isNotNull();
+		assertThat(first.getBody()).contains("\"beers\":[]");
+
+		Brewery moved = new Brewery();
+		moved.setId(brewery.getId());
+		moved.setName(brewery.getName());
+		moved.setLocation("Nowhere");
+		moved.setEstablished(brewery.getEstablished());
+		moved.setDescription(brewery.getDescription());
+		moved.setBeerIds(brewery.getBeerIds());
+		breweryService.addBrewery(moved);
+		try {
+			ResponseEntity<String> changed = post(query, etag);
+			assertThat(changed.getStatusCode()).isEqualTo(HttpStatus.OK);
+			assertThat(changed.getBody()).doesNotContain("\"beers\":[]");
+		} finally {
+			breweryService.addBrewery(brewery);
+		}
+	}
+
+	@Test
+	void queriesWithoutCacheHintsBypassTheCache() {
+		ResponseEntity<String> response = post("{ __typename }", null);
+		assertThat(response.getStatusCode()).isEqualTo(HttpStatus.OK);
+		assertThat(response.getHeaders().getETag()).isNull();
+	}
+}
@@ -0,0 +1,66 @@
+package com.example.brewery_api.cache;
+
+import com.example.brewery_api.cache.L2Cache.L2CacheSettings;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class L2CacheTest {
+
+	private final Map<String, String> store = new ConcurrentHashMap<>(Map.of("1", "old", "2", "two"));
+
+	private L2Cache<String> cache(CountDownLatch loading, CountDownLatch release) {
+		L2CacheSettings settings = new L2CacheSettings(100, Duration.ofMinutes(10), Duration.ZERO);
+		return L2Cache.create("test", settings, (key, value) -> 1, Runnable::run, new SimpleMeterRegistry(), keys -> {
+			Map<String, String> values = new HashMap<>();
+			for (String key : keys) {
+				values.put(key, store.get(key));
+			}
+			loading.countDown();
+			try {
+				release.await(5, TimeUnit.SECONDS);
+			} catch (InterruptedException e) {
+				Thread.currentThread().interrupt();
+			}
+			return values;
+		});
+	}
+
+	@Test
+	void writesAreVisibleAfterInvalidation() {
+		L2Cache<String> cache = cache(new CountDownLatch(0), new CountDownLatch(0));
+		assertThat(cache.getAll(List.of("1", "2"))).containsEntry("1", "old").containsEntry("2", "two");
+
+		store.put("1", "new");
+		assertThat(cache.getAll(List.of("1"))).containsEntry("1", "old");
+		cache.invalidate("1");
+		assertThat(cache.getAll(List.of("1", "2"))).containsEntry("1", "new").containsEntry("2", "two");
+	}
+
+	@Test
+	void loadsThatRaceWithAnInvalidationAreNotCached() throws Exception {
+		CountDownLatch loading = new CountDownLatch(1);
+		CountDownLatch release = new CountDownLatch(1);
+		L2Cache<String> cache = cache(loading, release);
+
+		CompletableFuture<Map<String, String>> inFlight = CompletableFuture.supplyAsync(() -> cache.getAll(Set.of("1")));
+		assertThat(loading.await(5, TimeUnit.SECONDS)).isTrue();
+		store.put("1", "new");
+		cache.invalidate("1");
+		release.countDown();
+		assertThat(inFlight.get(5, TimeUnit.SECONDS)).containsEntry("1", "old");
+
+		assertThat(cache.getAll(Set.of("1"))).containsEntry("1", "new");
+	}
+}
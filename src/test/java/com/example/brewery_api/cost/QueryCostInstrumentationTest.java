@@ -0,0 +1,77 @@
+package com.example.brewery_api.cost;
+
+import com.example.brewery_api.service.BeerService;
+import com.example.brewery_api.service.BreweryService;
+import com.example.brewery_api.service.ReviewService;
+import graphql.ExecutionInput;
+import graphql.ExecutionResult;
+import graphql.ExperimentalApi;
+import graphql.GraphQL;
+import graphql.incremental.IncrementalExecutionResult;
+import graphql.schema.DataFetcher;
+import graphql.schema.idl.RuntimeWiring;
+import graphql.schema.idl.SchemaGenerator;
+import graphql.schema.idl.SchemaParser;
+import org.junit.jupiter.api.Test;
+import org.springframework.mock.env.MockEnvironment;
+import reactor.core.publisher.Flux;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class QueryCostInstrumentationTest {
+	private static final String SDL = """
+			directive @defer(if: Boolean! = true, label: String) on FRAGMENT_SPREAD | INLINE_FRAGMENT
+			type Query { items: [Item] }
+			type Item { id: ID, detail: String }
+			""";
+
+	private final CompletableFuture<String> detail = new CompletableFuture<>();
+
+	private GraphQL graphQL() {
+		QueryCostCalculator calculator = new QueryCostCalculator(new BreweryService(), new BeerService(),
+				new ReviewService(), new MockEnvironment());
+		// every items query costs 10, over the budget of 1; one permit and no waiting
+		QueryCostInstrumentation instrumentation = new QueryCostInstrumentation(calculator, 1, 10, "throttle", 1, 0);
+		DataFetcher<Object> items = environment -> List.of(Map.of("id", "1"));
+		DataFetcher<Object> itemDetail = environment -> detail;
+		RuntimeWiring wiring = RuntimeWiring.newRuntimeWiring()
+				.type("Query", builder -> builder.dataFetcher("items", items))
+				.type("Item", builder -> builder.dataFetcher("detail", itemDetail))
+				.build();
+		return GraphQL.newGraphQL(new SchemaGenerator().makeExecutableSchema(new SchemaParser().parse(SDL), wiring))
+				.instrumentation(instrumentation)
+				.build();
+	}
+
+	private static ExecutionInput deferred(String query) {
+		return ExecutionInput.newExecutionInput(query)
+				.graphQLContext(Map.of(ExperimentalApi.ENABLE_INCREMENTAL_SUPPORT, true))
+				.build();
+	}
+
+	@Test
+	void throttlePermitIsHeldUntilTheLastDeferredPayload() {
+		GraphQL graphQL = graphQL();
+		ExecutionResult initial = graphQL.execute(deferred("{ items { id ... @defer { detail } } }"));
+		assertThat(initial).isInstanceOf(IncrementalExecutionResult.class);
+		assertThat(initial.getErrors()).isEmpty();
+
+		// the deferred fragment is still running, so its permit is taken
+		ExecutionResult rejected = graphQL.execute("{ items { id } }");
+		assertThat(rejected.getErrors()).singleElement()
+				.satisfies(error -> assertThat(error.getMessage()).contains("expensive query limit"));
+
+		detail.complete("done");
+		Flux.from(((IncrementalExecutionResult) initial).getIncrementalItemPublisher())
+				.blockLast(Duration.ofSeconds(5));
+
+		ExecutionResult admitted = graphQL.execute("{ items { id } }");
+		assertThat(admitted.getErrors()).isEmpty();
+		assertThat(graphQL.execute("{ items { id } }").getErrors()).isEmpty();
+	}
+}
@@ -0,0 +1,91 @@
+package com.example.brewery_api.dataloader;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class BatchLoaderExecutorTest {
+
+	private final ExecutorService pool = Executors.newFixedThreadPool(8);
+
+	@AfterEach
+	void shutdown() {
+		pool.shutdownNow();
+	}
+
+	@Test
+	void aLoaderRunsAtMostItsLimitOfBatchesAtATime() throws Exception {
+		BatchLoaderExecutor executor = new BatchLoaderExecutor(pool, name -> 2, 100);
+		CountDownLatch release = new CountDownLatch(1);
+		CountDownLatch started = new CountDownLatch(2);
+		AtomicInteger running = new AtomicInteger();
+		AtomicInteger maxRunning = new AtomicInteger();
+
+		List<CompletableFuture<Integer>> batches = new ArrayList<>();
+		for (int i = 0; i < 6; i++) {
+			int batch = i;
+			batches.add(executor.supply("loader", () -> {
+				maxRunning.accumulateAndGet(running.incrementAndGet(), Math::max);
+				started.countDown();
+				try {
+					release.await(5, TimeUnit.SECONDS);
+				} catch (InterruptedException e) {
+					Thread.currentThread().interrupt();
+				} finally {
+					running.decrementAndGet();
+				}
+				return batch;
+			}));
+		}
+		// other loaders are not held back by the busy one
+		assertThat(executor.supply("other", () -> "free").get(5, TimeUnit.SECONDS)).isEqualTo("free");
+
+		assertThat(started.await(5, TimeUnit.SECONDS)).isTrue();
+		Thread.sleep(100);
+		assertThat(running.get()).isEqualTo(2);
+		assertThat(batches).filteredOn(CompletableFuture::isDone).isEmpty();
+
+		release.countDown();
+		CompletableFuture.allOf(batches.toArray(CompletableFuture[]::new)).get(5, TimeUnit.SECONDS);
+		assertThat(batches).extracting(CompletableFuture::join).containsExactly(0, 1, 2, 3, 4, 5);
+		assertThat(maxRunning.get()).isEqualTo(2);
+	}
+
+	@Test
+	void batchesRunOnTheCallerOnceTheLoaderQueueIsFull() throws Exception {
+		BatchLoaderExecutor executor = new BatchLoaderExecutor(pool, name -> 1, 1);
+		CountDownLatch release = new CountDownLatch(1);
+		CountDownLatch started = new CountDownLatch(1);
+		Thread caller = Thread.currentThread();
+
+		CompletableFuture<Thread> running = executor.supply("loader", () -> {
+			started.countDown();
+			try {
+				release.await(5, TimeUnit.SECONDS);
+			} catch (InterruptedException e) {
+				Thread.currentThread().interrupt();
+			}
+			return Thread.currentThread();
+		});
+		assertThat(started.await(5, TimeUnit.SECONDS)).isTrue();
+		CompletableFuture<Thread> queued = executor.supply("loader", Thread::currentThread);
+		CompletableFuture<Thread> overflow = executor.supply("loader", Thread::currentThread);
+
+		assertThat(overflow).isCompletedWithValue(caller);
+		assertThat(queued).isNotDone();
+
+		release.countDown();
+		assertThat(running.get(5, TimeUnit.SECONDS)).isNotEqualTo(caller);
+		assertThat(queued.get(5, TimeUnit.SECONDS)).isNotEqualTo(caller);
+	}
+}
@@ -0,0 +1,186 @@
+package com.example.brewery_api.dataloader;
+
+import com.example.brewery_api.instrumentation.GraphQLMetrics;
+import com.example.brewery_api.store.Projection;
+import graphql.GraphQLContext;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import net.jqwik.api.Arbitraries;
+import net.jqwik.api.Arbitrary;
+import net.jqwik.api.ForAll;
+import net.jqwik.api.Property;
+import net.jqwik.api.Provide;
+import net.jqwik.api.constraints.IntRange;
+import org.dataloader.DataLoader;
+import org.dataloader.DataLoaderRegistry;
+
+import java.time.Duration;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.function.Function;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class KeyedBatchLoaderTest {
+
+	// ids that exist, ids that fail to load and ids the backend has never heard of
+	private static boolean exists(String id) {
+		return id.hashCode() % 3 != 0;
+	}
+
+	private static boolean fails(String id) {
+		return id.hashCode() % 5 == 0;
+	}
+
+	private static String lookup(String id) {
+		if (fails(id)) {
+			throw new IllegalStateException("broken " + id);
+		}
+		return exists(id) ? "value of " + id : null;
+	}
+
+	@Provide
+	Arbitrary<List<String>> keys() {
+		// a small alphabet, so batches repeat keys
+		return Arbitraries.strings().withCharRange('a', 'f').ofMinLength(1).ofMaxLength(2).list().ofMaxSize(40);
+	}
+
+	private static <K> void assertAligned(List<K> keys, BatchResult<String> result, boolean perKeyErrors,
+	                                      Function<K, String> idOf) {
+		assertThat(result.size()).isEqualTo(keys.size());
+		for (int i = 0; i < keys.size(); i++) {
+			String id = idOf.apply(keys.get(i));
+			if (perKeyErrors && fails(id)) {
+				assertThat(result.error(i)).hasMessage("broken " + id);
+			} else {
+				assertThat(result.isFailed(i)).isFalse();
+				assertThat(result.value(i)).isEqualTo(exists(id) ? "value of " + id : null);
+			}
+		}
+	}
+
+	@Property
+	void perKeyResultsLineUpWithTheirKeys(@ForAll("keys") List<String> keys) {
+		BatchResult<String> result = new BatchResult<>(keys.size());
+		KeyedBatchLoader.<String, String>perKey(KeyedBatchLoaderTest::lookup).load(keys, result);
+
+		assertAligned(keys, result, true, id -> id);
+	}
+
+	@Property
+	void bulkResultsLineUpWhateverOrderTheMapHas(@ForAll("keys") List<String> keys, @ForAll("keys") List<String> extra) {
+		KeyedBatchLoader<String, String> loader = KeyedBatchLoader.bulk(ids -> {
+			Map<String, String> values = new HashMap<>();
+			// a backend may return more than it was asked for
+			for (String id : extra) {
+				if (!fails(id) && exists(id)) {
+					values.put(id, lookup(id));
+				}
+			}
+			for (String id : ids) {
+				if (!fails(id) && exists(id)) {
+					values.put(id, lookup(id));
+				}
+			}
+			return values;
+		});
+		BatchResult<String> result = new BatchResult<>(keys.size());
+		loader.load(keys, result);
+
+		for (int i = 0; i < keys.size(); i++) {
+			String id = keys.get(i);
+			assertThat(result.value(i)).isEqualTo(!fails(id) && exists(id) ? "value of " + id : null);
+		}
+	}
+
+	@Property
+	void projectedKeysLineUpAndAFailedBulkLookupFailsEverySlot(@ForAll("keys") List<String> ids) {
+		List<ProjectedKey> keys = ids.stream()
+				.map(id -> new ProjectedKey(id, id.length() == 1 ? Projection.ALL : Projection.omitting("comment")))
+				.toList();
+		KeyedBatchLoader<ProjectedKey, String> loader = KeyedBatchLoader.bulk(ProjectedKey::id, batch -> {
+			Map<String, String> values = new HashMap<>();
+			for (String id : batch) {
+				String value = lookup(id);
+				if (value != null) {
+					values.put(id, value);
+				}
+			}
+			return values;
+		});
+		BatchResult<String> result = new BatchResult<>(keys.size());
+		loader.load(keys, result);
+
+		if (ids.stream().anyMatch(KeyedBatchLoaderTest::fails)) {
+			for (int i = 0; i < keys.size(); i++) {
+				assertThat(result.error(i)).isInstanceOf(IllegalStateException.class);
+			}
+		} else {
+			assertAligned(keys, result, false, ProjectedKey::id);
+		}
+	}
+
+	@Property(tries = 200)
+	void dataLoadersCompleteEveryKeyWithItsOwnValueOrError(@ForAll("keys") List<String> keys) {
+		BatchLoaders batchLoaders = new BatchLoaders(new BatchLoaderExecutor(Runnable::run, name -> 1, 16),
+				new GraphQLMetrics(new SimpleMeterRegistry()), name -> BatchSettings.UNBOUNDED);
+		batchLoaders.register("testLoader", KeyedBatchLoader.<String, String>perKey(KeyedBatchLoaderTest::lookup));
+		DataLoaderRegistry registry = new DataLoaderRegistry();
+		batchLoaders.registerDataLoaders(registry, GraphQLContext.newContext().build());
+		DataLoader<String, String> dataLoader = registry.getDataLoader("testLoader");
+
+		List<CompletableFuture<String>> futures = keys.stream().map(dataLoader::load).toList();
+		dataLoader.dispatchAndJoin();
+
+		assertThat(dataLoader.getStatistics().getBatchInvokeCount()).isEqualTo(keys.isEmpty() ? 0 : 1);
+		for (int i = 0; i < keys.size(); i++) {
+			String id = keys.get(i);
+			CompletableFuture<String> future = futures.get(i);
+			if (fails(id)) {
+				assertThat(future).isCompletedExceptionally();
+			} else {
+				assertThat(future.join()).isEqualTo(exists(id) ? "value of " + id : null);
+			}
+		}
+		assertThat(Set.copyOf(keys)).hasSize((int) futures.stream().distinct().count());
+	}
+
+	@Property(tries = 200)
+	void dispatchesLargerThanTheMaxBatchSizeAreSplitIntoChunks(@ForAll("keys") List<String> keys,
+	                                                           @ForAll @IntRange(min = 1, max = 10) int maxBatchSize) {
+		ExecutorService pool = Executors.newFixedThreadPool(4);
+		try {
+			BatchLoaders batchLoaders = new BatchLoaders(new BatchLoaderExecutor(pool, name -> 4, 16),
+					new GraphQLMetrics(new SimpleMeterRegistry()), name -> new BatchSettings(maxBatchSize, 0, Duration.ZERO));
+			List<Integer> batchSizes = new CopyOnWriteArrayList<>();
+			batchLoaders.register("testLoader", (List<String> batch, BatchResult<String> result) -> {
+				batchSizes.add(batch.size());
+				KeyedBatchLoader.<String, String>perKey(KeyedBatchLoaderTest::lookup).load(batch, result);
+			});
+			DataLoaderRegistry registry = new DataLoaderRegistry();
+			batchLoaders.registerDataLoaders(registry, GraphQLContext.newContext().build());
+			DataLoader<String, String> dataLoader = registry.getDataLoader("testLoader");
+
+			List<CompletableFuture<String>> futures = keys.stream().map(dataLoader::load).toList();
+			dataLoader.dispatchAndJoin();
+
+			int distinct = Set.copyOf(keys).size();
+			assertThat(batchSizes).hasSize((distinct + maxBatchSize - 1) / maxBatchSize).allMatch(size -> size <= maxBatchSize);
+			for (int i = 0; i < keys.size(); i++) {
+				String id = keys.get(i);
+				if (fails(id)) {
+					assertThat(futures.get(i)).isCompletedExceptionally();
+				} else {
+					assertThat(futures.get(i).join()).isEqualTo(exists(id) ? "value of " + id : null);
+				}
+			}
+		} finally {
+			pool.shutdown();
+		}
+	}
+}
@@ -0,0 +1,60 @@
+package com.example.brewery_api.search;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class InvertedIndexTest {
+
+	private static List<String> ids(List<SearchHit> hits) {
+		return hits.stream().map(SearchHit::id).toList();
+	}
+
+	@Test
+	void tokenizerKeepsCyrillicWordsWhole() {
+		assertThat(Tokenizer.tokenize("П’ять пив: Ґрунтовний IPA-стиль, ра́йське 1715!"))
+				.containsExactly("пять", "пив", "ґрунтовний", "ipa", "стиль", "райське", "1715");
+		assertThat(Tokenizer.tokenize("п'ять 'лапки'")).containsExactly("пять", "лапки");
+	}
+
+	@Test
+	void ranksByBm25AndRequiresPhrases() {
+		InvertedIndex index = new InvertedIndex();
+		index.put("1", "Львівське Портер", "Темний міцний портер з нотками карамелі та шоколаду.");
+		index.put("2", "Varvar Stout", "Розкішний стаут з глибоким смаком кави та шоколаду.");
+		index.put("3", "Опілля Фірмове", "Напівтемне пиво з карамельним присмаком.");
+		index.put("4", "Портер", null);
+
+		// the short document with the word in its only field ranks first
+		assertThat(ids(index.search("портер", 10))).containsExactly("4", "1");
+		assertThat(ids(index.search("ШОКОЛАДУ кави", 10))).containsExactly("2");
+		// equal scores fall back to id order
+		assertThat(ids(index.search("шоколаду", 10))).containsExactly("1", "2");
+		assertThat(ids(index.search("\"кави та шоколаду\"", 10))).containsExactly("2");
+		assertThat(ids(index.search("\"шоколаду кави\"", 10))).isEmpty();
+		// fields are apart, so a phrase does not run from the name into the description
+		assertThat(ids(index.search("\"портер темний\"", 10))).isEmpty();
+		assertThat(ids(index.search("з", 2))).containsExactly("3", "1");
+		assertThat(index.search("", 10)).isEmpty();
+	}
+
+	@Test
+	void updatesReplaceAndRemoveDocuments() {
+		InvertedIndex index = new InvertedIndex();
+		index.put("1", "Світле пиво");
+		index.put("2", "Темне пиво");
+
+		index.put("1", "Нефільтроване пиво");
+		index.remove("2");
+
+		assertThat(ids(index.search("світле темне", 10))).isEmpty();
+		assertThat(ids(index.search("нефільтроване", 10))).containsExactly("1");
+		assertThat(index.size()).isEqualTo(1);
+
+		index.put("1", (String) null);
+		assertThat(index.size()).isZero();
+		assertThat(index.search("пиво", 10)).isEmpty();
+	}
+}
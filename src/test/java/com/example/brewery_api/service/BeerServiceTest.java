@@ -0,0 +1,87 @@
+package com.example.brewery_api.service;
+
+import com.example.brewery_api.filter.BeerFilter;
+import com.example.brewery_api.filter.BeerSort;
+import com.example.brewery_api.model.Beer;
+import com.example.brewery_api.store.StoreLayout;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.EnumSource;
+
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class BeerServiceTest {
+
+	private static Beer beer(String id, String breweryId) {
+		Beer beer = new Beer();
+		beer.setId(id);
+		beer.setName("Beer " + id);
+		beer.setBreweryId(breweryId);
+		return beer;
+	}
+
+	@Test
+	void breweryIndexFollowsAddsUpdatesAndRemoves() {
+		BeerService service = new BeerService();
+		service.addBeer(beer("1", "a"));
+		service.addBeer(beer("2", "a"));
+		service.addBeer(beer("3", "b"));
+
+		assertThat(service.getBeersByBreweryId("a")).extracting(Beer::getId).containsExactly("1", "2");
+
+		service.addBeer(beer("2", "b"));
+		assertThat(service.getBeersByBreweryId("a")).extracting(Beer::getId).containsExactly("1");
+		assertThat(service.getBeersByBreweryId("b")).extracting(Beer::getId).containsExactly("2", "3");
+
+		service.removeBeer("1");
+		assertThat(service.getBeersByBreweryId("a")).isEmpty();
+		assertThat(service.getBeerCount()).isEqualTo(2);
+	}
+
+	private static Beer beer(String id, String breweryId, String style, Float abv, Integer ibu) {
+		Beer beer = beer(id, breweryId);
+		beer.setStyle(style);
+		beer.setAbv(abv);
+		beer.setIbu(ibu);
+		return beer;
+	}
+
+	@ParameterizedTest
+	@EnumSource(StoreLayout.class)
+	void findBeersCombinesIndexedConditionsAndSorts(StoreLayout layout) {
+		BeerService service = new BeerService(layout);
+		service.addBeer(beer("1", "a", "Lager", 4.7f, 18));
+		service.addBeer(beer("2", "a", "Porter", 8.0f, 25));
+		service.addBeer(beer("3", "b", "lager", 5.2f, 22));
+		service.addBeer(beer("4", "b", "Lager", 4.2f, null));
+		service.addBeer(beer("5", "c", "IPA", 6.5f, 60));
+
+		BeerFilter lagers = new BeerFilter("LAGER", 4.5f, null, null, null, null);
+		assertThat(service.findBeers(lagers, null, BeerSort.ABV_DESC)).extracting(Beer::getId).containsExactly("3", "1");
+
+		BeerFilter bitter = new BeerFilter(null, null, null, 20, null, null);
+		assertThat(service.findBeers(bitter, Set.of("a", "c"), null)).extracting(Beer::getId).containsExactly("2", "5");
+
+		// beer 4 has no ibu, so the ibu index cannot drive the sort on its own
+		assertThat(service.findBeers(BeerFilter.NONE, null, BeerSort.IBU_ASC)).extracting(Beer::getId)
+				.containsExactly("1", "3", "2", "5", "4");
+
+		service.addBeer(beer("3", "b", "Lager", 4.0f, 22));
+		assertThat(service.findBeers(lagers, null, null)).extracting(Beer::getId).containsExactly("1");
+	}
+
+	@Test
+	void batchLookupReturnsEntryForEveryKey() {
+		BeerService service = new BeerService();
+		service.addBeer(beer("1", "a"));
+
+		Map<String, List<Beer>> result = service.getBeersByBreweryIds(List.of("a", "missing"));
+
+		assertThat(result).containsOnlyKeys("a", "missing");
+		assertThat(result.get("missing")).isEmpty();
+	}
+}
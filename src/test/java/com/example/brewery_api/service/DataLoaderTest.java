@@ -0,0 +1,145 @@
+package com.example.brewery_api.service;
+
+import com.example.brewery_api.filter.BeerFilter;
+import com.example.brewery_api.filter.BeerSort;
+import com.example.brewery_api.model.Beer;
+import com.example.brewery_api.model.Brewery;
+import com.example.brewery_api.model.Review;
+import com.example.brewery_api.store.StoreLayout;
+import com.example.brewery_api.store.WriteAheadLog;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.EnumSource;
+import org.springframework.core.io.ClassPathResource;
+import org.springframework.core.io.FileSystemResource;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+class DataLoaderTest {
+	private static final int BREWERIES = 40;
+	private static final int BEERS_PER_BREWERY = 25;
+	private static final int REVIEWS_PER_BEER = 8;
+
+	@TempDir
+	Path dir;
+
+	private final ObjectMapper objectMapper = new ObjectMapper();
+
+	private record Services(BreweryService breweries, BeerService beers, ReviewService reviews, DataLoader loader) {
+	}
+
+	private Services services(StoreLayout layout, String snapshotPath, WriteAheadLog log) {
+		BreweryService breweries = new BreweryService(layout);
+		BeerService beers = new BeerService(layout);
+		ReviewService reviews = new ReviewService(layout);
+		SnapshotService snapshots = new SnapshotService(breweries, beers, reviews);
+		MutationService mutations = new MutationService(breweries, beers, reviews, snapshots, log,
+				snapshotPath.isBlank() ? null : Path.of(snapshotPath), Long.MAX_VALUE);
+		DataLoader loader = new DataLoader(breweries, beers, reviews, objectMapper, snapshots, mutations);
+		ReflectionTestUtils.setField(loader, "breweriesResource", new ClassPathResource("data/breweries.json"));
+		ReflectionTestUtils.setField(loader, "beersResource", new ClassPathResource("data/beers.json"));
+		ReflectionTestUtils.setField(loader, "reviewsResource", new ClassPathResource("data/reviews.json"));
+		ReflectionTestUtils.setField(loader, "snapshotPath", snapshotPath);
+		return new Services(breweries, beers, reviews, loader);
+	}
+
+	private Path write(String name, List<?> records) throws IOException {
+		Path file = dir.resolve(name);
+		objectMapper.writeValue(file.toFile(), records);
+		return file;
+	}
+
+	@ParameterizedTest
+	@EnumSource(StoreLayout.class)
+	void fixtureIsIngestedInParallelWithItsForeignKeys(StoreLayout layout) throws Exception {
+		List<Brewery> breweries = new ArrayList<>();
+		List<Beer> beers = new ArrayList<>();
+		List<Review> reviews = new ArrayList<>();
+		for (int b = 1; b <= BREWERIES; b++) {
+			Brewery brewery = new Brewery();
+			brewery.setId("b" + b);
+			brewery.setName("Brewery " + b);
+			brewery.setLocation(b % 4 == 0 ? "Львів, Україна" : "Київ, Україна");
+			List<String> beerIds = new ArrayList<>();
+			for (int i = 1; i <= BEERS_PER_BREWERY; i++) {
+				Beer beer = new Beer();
+				beer.setId(b + "-" + i);
+				beer.setName("Пиво " + beer.getId());
+				beer.setStyle(i % 2 == 0 ? "Stout" : "Lager");
+				beer.setAbv(4.0f + i % 5);
+				beer.setBreweryId(brewery.getId());
+				List<String> reviewIds = new ArrayList<>();
+				for (int r = 1; r <= REVIEWS_PER_BEER; r++) {
+					Review review = new Review();
+					review.setId(beer.getId() + "-" + r);
+					review.setRating(r % 5 + 1);
+					review.setAuthor("author " + r);
+					review.setBeerId(beer.getId());
+					reviews.add(review);
+					reviewIds.add(review.getId());
+				}
+				beer.setReviewIds(reviewIds);
+				beers.add(beer);
+				beerIds.add(beer.getId());
+			}
+			brewery.setBeerIds(beerIds);
+			breweries.add(brewery);
+		}
+		Services services = services(layout, "", null);
+		ReflectionTestUtils.setField(services.loader(), "breweriesResource",
+				new FileSystemResource(write("breweries.json", breweries)));
+		ReflectionTestUtils.setField(services.loader(), "beersResource",
+				new FileSystemResource(write("beers.json", beers)));
+		ReflectionTestUtils.setField(services.loader(), "reviewsResource",
+				new FileSystemResource(write("reviews.json", reviews)));
+
+		services.loader().run();
+
+		assertThat(services.breweries().getBreweryCount()).isEqualTo(BREWERIES);
+		assertThat(services.beers().getBeerCount()).isEqualTo(BREWERIES * BEERS_PER_BREWERY);
+		assertThat(services.reviews().getReviewCount()).isEqualTo(BREWERIES * BEERS_PER_BREWERY * REVIEWS_PER_BEER);
+		for (Brewery brewery : breweries) {
+			assertThat(services.breweries().getBreweryById(brewery.getId()).getBeerIds())
+					.containsExactlyElementsOf(brewery.getBeerIds());
+			assertThat(services.beers().getBeersByBreweryId(brewery.getId()))
+					.extracting(Beer::getId)
+					.containsExactlyInAnyOrderElementsOf(brewery.getBeerIds());
+		}
+		for (Beer beer : beers) {
+			assertThat(services.beers().getBeerById(beer.getId()).getBreweryId()).isEqualTo(beer.getBreweryId());
+			assertThat(services.reviews().getReviewsByBeerId(beer.getId()))
+					.extracting(Review::getId)
+					.containsExactlyInAnyOrderElementsOf(beer.getReviewIds());
+			assertThat(services.reviews().countReviewsByBeerId(beer.getId())).isEqualTo(REVIEWS_PER_BEER);
+		}
+		BeerFilter inLviv = new BeerFilter(null, null, null, null, null, "Львів");
+		assertThat(services.beers().findBeers(inLviv, services.breweries().getBreweryIdsByLocation("Львів"), BeerSort.ID))
+				.hasSize(BREWERIES / 4 * BEERS_PER_BREWERY)
+				.allSatisfy(beer -> assertThat(Integer.parseInt(beer.getBreweryId().substring(1)) % 4).isZero());
+	}
+
+	@Test
+	void unreadableSnapshotFailsStartupAndIsKept() throws Exception {
+		Path snapshot = dir.resolve("brewery.snapshot");
+		byte[] corrupt = {1, 2, 3, 4, 5, 6, 7, 8};
+		Files.write(snapshot, corrupt);
+
+		Services services = services(StoreLayout.COMPACT, snapshot.toString(),
+				new WriteAheadLog(dir.resolve("brewery.wal"), false, 64));
+		assertThatThrownBy(services.loader()::run)
+				.isInstanceOf(IllegalStateException.class)
+				.hasMessageContaining(snapshot.toString());
+		assertThat(Files.readAllBytes(snapshot)).isEqualTo(corrupt);
+		assertThat(services.breweries().getBreweryCount()).isZero();
+	}
+}
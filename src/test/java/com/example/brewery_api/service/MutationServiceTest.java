@@ -0,0 +1,173 @@
+package com.example.brewery_api.service;
+
+import com.example.brewery_api.model.Beer;
+import com.example.brewery_api.model.Brewery;
+import com.example.brewery_api.model.Review;
+import com.example.brewery_api.store.StoreLayout;
+import com.example.brewery_api.store.WriteAheadLog;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.springframework.util.unit.DataSize;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+class MutationServiceTest {
+
+	@TempDir
+	Path dir;
+
+	private record Services(BreweryService breweries, BeerService beers, ReviewService reviews, MutationService mutations) {
+	}
+
+	private static Services open(Path wal) throws IOException {
+		return open(wal, Long.MAX_VALUE);
+	}
+
+	private static Services open(Path wal, long checkpointBytes) throws IOException {
+		BreweryService breweries = new BreweryService(StoreLayout.COMPACT);
+		BeerService beers = new BeerService(StoreLayout.COMPACT);
+		ReviewService reviews = new ReviewService(StoreLayout.COMPACT);
+		Brewery brewery = new Brewery();
+		brewery.setId("1");
+		brewery.setName("Brewery");
+		brewery.setLocation("Львів, Україна");
+		breweries.addBrewery(brewery);
+		for (String id : List.of("1", "2")) {
+			Beer beer = new Beer();
+			beer.setId(id);
+			beer.setName("Beer " + id);
+			beer.setStyle("Lager");
+			beer.setBreweryId("1");
+			beers.addBeer(beer);
+		}
+		MutationService mutations = new MutationService(breweries, beers, reviews,
+				new SnapshotService(breweries, beers, reviews), new WriteAheadLog(wal, true, 64),
+				wal.resolveSibling("stores.snapshot"), checkpointBytes);
+		return new Services(breweries, beers, reviews, mutations);
+	}
+
+	private static Review review(String beerId, int rating) {
+		Review review = new Review();
+		review.setBeerId(beerId);
+		review.setRating(rating);
+		review.setAuthor("author");
+		return review;
+	}
+
+	@Test
+	void concurrentWritesAreLoggedAndRecovered() throws Exception {
+		Path wal = dir.resolve("brewery.wal");
+		Services before = open(wal);
+		ExecutorService writers = Executors.newFixedThreadPool(8);
+		List<CompletableFuture<Review>> added = new ArrayList<>();
+		for (int i = 0; i < 200; i++) {
+			int rating = i % 5 + 1;
+			added.add(CompletableFuture.supplyAsync(() -> before.mutations().addReview(review("1", rating)), writers)
+					.thenCompose(future -> future));
+		}
+		CompletableFuture.allOf(added.toArray(CompletableFuture[]::new)).join();
+		writers.shutdown();
+
+		Review moved = before.mutations().updateReview("7", review("2", 5)).join();
+		assertThat(moved.getAuthor()).isEqualTo("author");
+		assertThat(before.reviews().getReviewCount()).isEqualTo(200);
+		assertThat(before.reviews().getReviewsByBeerId("2")).extracting(Review::getId).containsExactly("7");
+		before.mutations().close();
+
+		Services after = open(wal);
+		assertThat(after.mutations().recover()).isEqualTo(201);
+		assertThat(after.reviews().getAllReviews()).usingRecursiveFieldByFieldElementComparator()
+				.containsExactlyInAnyOrderElementsOf(before.reviews().getAllReviews());
+		assertThat(after.mutations().addReview(review("1", 3)).join().getId()).isEqualTo("201");
+		after.mutations().close();
+	}
+
+	@Test
+	void tornTailIsCutOffOnRecovery() throws Exception {
+		Path wal = dir.resolve("brewery.wal");
+		Services before = open(wal);
+		before.mutations().addReview(review("1", 4)).join();
+		before.mutations().addReview(review("2", 2)).join();
+		before.mutations().close();
+		long intact = Files.size(wal);
+		Files.write(wal, new byte[]{0, 0, 0, 40, 1, 2, 3}, StandardOpenOption.APPEND);
+
+		Services after = open(wal);
+		assertThat(after.mutations().recover()).isEqualTo(2);
+		assertThat(Files.size(wal)).isEqualTo(intact);
+		after.mutations().addReview(review("1", 5)).join();
+		after.mutations().close();
+
+		assertThat(open(wal).mutations().recover()).isEqualTo(3);
+	}
+
+	@Test
+	void checkpointFoldsTheLogIntoASnapshot() throws Exception {
+		Path wal = dir.resolve("brewery.wal");
+		Services before = open(wal);
+		before.mutations().addReview(review("1", 4)).join();
+		before.mutations().checkpoint(dir.resolve("stores.snapshot"));
+		before.mutations().close();
+
+		assertThat(Files.size(wal)).isZero();
+		assertThat(open(wal).mutations().recover()).isZero();
+	}
+
+	@Test
+	void logIsCheckpointedOnceItOutgrowsItsLimit() throws Exception {
+		Path wal = dir.resolve("brewery.wal");
+		Services before = open(wal, 1024);
+		before.mutations().recover();
+		for (int i = 0; i < 200; i++) {
+			before.mutations().addReview(review("1", i % 5 + 1)).join();
+		}
+		// the last checkpoint may still be queued behind the last write
+		before.mutations().close();
+		assertThat(Files.size(wal)).isLessThan(2048);
+
+		BreweryService breweries = new BreweryService(StoreLayout.COMPACT);
+		BeerService beers = new BeerService(StoreLayout.COMPACT);
+		ReviewService reviews = new ReviewService(StoreLayout.COMPACT);
+		SnapshotService snapshots = new SnapshotService(breweries, beers, reviews);
+		snapshots.restore(dir.resolve("stores.snapshot"));
+		MutationService after = new MutationService(breweries, beers, reviews, snapshots,
+				new WriteAheadLog(wal, true, 64), dir.resolve("stores.snapshot"), 1024);
+		assertThat(after.recover()).isLessThan(200);
+		assertThat(reviews.getAllReviews()).usingRecursiveFieldByFieldElementComparator()
+				.containsExactlyInAnyOrderElementsOf(before.reviews().getAllReviews());
+		after.close();
+	}
+
+	@Test
+	void logWithoutSnapshotPathIsRefused() {
+		BreweryService breweries = new BreweryService(StoreLayout.COMPACT);
+		BeerService beers = new BeerService(StoreLayout.COMPACT);
+		ReviewService reviews = new ReviewService(StoreLayout.COMPACT);
+		assertThatThrownBy(() -> new MutationService(breweries, beers, reviews, new SnapshotService(breweries, beers, reviews),
+				dir.resolve("brewery.wal").toString(), true, 64, DataSize.ofMegabytes(64), ""))
+				.isInstanceOf(IllegalStateException.class)
+				.hasMessageContaining("app.snapshot.path");
+	}
+
+	@Test
+	void invalidWritesAreRejectedBeforeTheyAreLogged() throws Exception {
+		Services services = open(dir.resolve("brewery.wal"));
+		assertThatThrownBy(() -> services.mutations().addReview(review("404", 4)))
+				.isInstanceOf(InvalidInputException.class).hasMessage("Unknown beer: 404");
+		assertThatThrownBy(() -> services.mutations().addReview(review("1", 6)))
+				.isInstanceOf(InvalidInputException.class);
+		assertThat(services.mutations().updateReview("404", review("1", 4)).join()).isNull();
+		services.mutations().close();
+	}
+}
@@ -0,0 +1,97 @@
+package com.example.brewery_api.service;
+
+import com.example.brewery_api.model.Beer;
+import com.example.brewery_api.model.RatingCount;
+import com.example.brewery_api.model.RatingSummary;
+import com.example.brewery_api.model.Review;
+import com.example.brewery_api.store.StoreLayout;
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class RatingAggregatesTest {
+
+	private final BeerService beers = new BeerService(StoreLayout.OBJECTS);
+	private final ReviewService reviews = new ReviewService(StoreLayout.OBJECTS);
+	private final RatingAggregates aggregates = new RatingAggregates(beers, reviews);
+
+	private static Beer beer(String id, String breweryId) {
+		Beer beer = new Beer();
+		beer.setId(id);
+		beer.setName("Beer " + id);
+		beer.setStyle("Lager");
+		beer.setBreweryId(breweryId);
+		return beer;
+	}
+
+	private static Review review(String id, String beerId, Integer rating) {
+		Review review = new Review();
+		review.setId(id);
+		review.setRating(rating);
+		review.setAuthor("author");
+		review.setBeerId(beerId);
+		return review;
+	}
+
+	private static List<Integer> histogram(RatingSummary summary) {
+		return summary.ratingHistogram().stream().map(RatingCount::count).toList();
+	}
+
+	@Test
+	void writesAreRolledUpIntoBeersAndBreweries() {
+		// a review ahead of its beer, as in the parallel startup load
+		reviews.addReview(review("1", "10", 5));
+		beers.addBeer(beer("10", "1"));
+		beers.addBeer(beer("20", "1"));
+		beers.addBeer(beer("30", "2"));
+		reviews.addReview(review("2", "10", 3));
+		reviews.addReview(review("3", "20", 4));
+		reviews.addReview(review("4", "30", 2));
+		reviews.addReview(review("5", "30", null));
+
+		reviews.addReview(review("2", "10", 1));
+		reviews.addReview(review("3", "30", 4));
+		reviews.removeReview("1");
+		beers.addBeer(beer("30", "1"));
+
+		assertThat(aggregates.forBeer("10").averageRating()).isEqualTo(1.0);
+		assertThat(histogram(aggregates.forBeer("10"))).containsExactly(1, 0, 0, 0, 0);
+		assertThat(aggregates.forBeer("20").reviewCount()).isZero();
+		assertThat(aggregates.forBeer("20").averageRating()).isNull();
+		assertThat(aggregates.forBeer("30").reviewCount()).isEqualTo(3);
+		assertThat(aggregates.forBeer("30").averageRating()).isEqualTo(3.0);
+
+		RatingSummary brewery = aggregates.forBrewery("1");
+		assertThat(brewery.reviewCount()).isEqualTo(4);
+		assertThat(brewery.averageRating()).isEqualTo(7.0 / 3);
+		assertThat(histogram(brewery)).containsExactly(1, 1, 0, 1, 0);
+		assertThat(aggregates.forBrewery("2").reviewCount()).isZero();
+		assertThat(aggregates.forBrewery("unknown").ratingHistogram()).extracting(RatingCount::rating)
+				.containsExactly(1, 2, 3, 4, 5);
+	}
+
+	@Test
+	void rebuildMatchesTheIncrementalCounts() {
+		for (int i = 1; i <= 8; i++) {
+			beers.addBeer(beer(String.valueOf(i), String.valueOf(i % 3)));
+		}
+		for (int i = 1; i <= 60; i++) {
+			reviews.addReview(review(String.valueOf(i), String.valueOf(i % 8 + 1), i % 7 == 0 ? null : i % 5 + 1));
+		}
+		for (int i = 1; i <= 60; i += 4) {
+			reviews.addReview(review(String.valueOf(i), String.valueOf(i % 3 + 1), i % 4 + 1));
+		}
+		beers.removeBeer("8");
+		beers.addBeer(beer("1", "2"));
+		List<String> ids = List.of("0", "1", "2", "3", "4", "5", "6", "7", "8");
+		var beerSummaries = aggregates.forBeers(ids);
+		var brewerySummaries = aggregates.forBreweries(ids);
+
+		aggregates.rebuild();
+
+		assertThat(aggregates.forBeers(ids)).isEqualTo(beerSummaries);
+		assertThat(aggregates.forBreweries(ids)).isEqualTo(brewerySummaries);
+	}
+}
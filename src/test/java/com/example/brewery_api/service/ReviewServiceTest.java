@@ -0,0 +1,60 @@
+package com.example.brewery_api.service;
+
+import com.example.brewery_api.filter.ReviewFilter;
+import com.example.brewery_api.model.Review;
+import com.example.brewery_api.store.StoreLayout;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.EnumSource;
+
+import java.util.List;
+import java.util.Map;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class ReviewServiceTest {
+
+	private static Review review(String id, String beerId) {
+		Review review = new Review();
+		review.setId(id);
+		review.setRating(4);
+		review.setAuthor("author");
+		review.setBeerId(beerId);
+		return review;
+	}
+
+	@ParameterizedTest
+	@EnumSource(StoreLayout.class)
+	void beerIndexFollowsAddsUpdatesAndRemoves(StoreLayout layout) {
+		ReviewService service = new ReviewService(layout);
+		service.addReview(review("1", "10"));
+		service.addReview(review("2", "10"));
+		service.addReview(review("3", "20"));
+
+		service.addReview(review("1", "20"));
+		service.removeReview("3");
+
+		Map<String, List<Review>> byBeer = service.getReviewsByBeerIds(List.of("10", "20"));
+		assertThat(byBeer.get("10")).extracting(Review::getId).containsExactly("2");
+		assertThat(byBeer.get("20")).extracting(Review::getId).containsExactly("1");
+		assertThat(service.getReviewCount()).isEqualTo(2);
+	}
+
+	@Test
+	void compactLayoutRoundTripsEveryField() {
+		ReviewService service = new ReviewService(StoreLayout.COMPACT);
+		Review full = review("1", "10");
+		full.setComment("Чудове пиво");
+		full.setDate("2024-01-15");
+		Review sparse = new Review();
+		sparse.setId("2");
+		sparse.setDate("15.01.2024");
+		service.addReview(full);
+		service.addReview(sparse);
+
+		assertThat(service.getReviewById("1")).usingRecursiveComparison().isEqualTo(full);
+		assertThat(service.getReviewById("2")).usingRecursiveComparison().isEqualTo(sparse);
+		assertThat(service.findReviews(new ReviewFilter(null, null, null, "2024-01-01", "2024-12-31"), null))
+				.extracting(Review::getId).containsExactly("1");
+	}
+}
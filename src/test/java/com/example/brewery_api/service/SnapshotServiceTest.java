@@ -0,0 +1,158 @@
+package com.example.brewery_api.service;
+
+import com.example.brewery_api.filter.BeerFilter;
+import com.example.brewery_api.filter.BeerSort;
+import com.example.brewery_api.filter.ReviewFilter;
+import com.example.brewery_api.filter.ReviewSort;
+import com.example.brewery_api.model.Beer;
+import com.example.brewery_api.model.Brewery;
+import com.example.brewery_api.model.Review;
+import com.example.brewery_api.store.Projection;
+import com.example.brewery_api.store.StoreLayout;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.EnumSource;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Set;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+class SnapshotServiceTest {
+
+	@TempDir
+	Path dir;
+
+	private record Services(BreweryService breweries, BeerService beers, ReviewService reviews) {
+
+		SnapshotService snapshots() {
+			return new SnapshotService(breweries, beers, reviews);
+		}
+	}
+
+	private static Services services(StoreLayout layout) {
+		return new Services(new BreweryService(layout), new BeerService(layout), new ReviewService(layout));
+	}
+
+	private static void populate(Services services) {
+		for (int i = 1; i <= 12; i++) {
+			Brewery brewery = new Brewery();
+			brewery.setId(String.valueOf(i));
+			brewery.setName("Brewery " + i);
+			brewery.setLocation(i % 2 == 0 ? "Львів, Україна" : "Київ, Україна");
+			brewery.setBeerIds(List.of(String.valueOf(i)));
+			services.breweries().addBrewery(brewery);
+
+			Beer beer = new Beer();
+			beer.setId(String.valueOf(i));
+			beer.setName("Пиво " + i);
+			beer.setStyle(i % 3 == 0 ? "Stout" : "Lager");
+			beer.setAbv(i % 4 == 0 ? null : 4.0f + i / 2f);
+			beer.setIbu(10 * i);
+			beer.setBreweryId(String.valueOf(i));
+			beer.setReviewIds(List.of(String.valueOf(i)));
+			services.beers().addBeer(beer);
+
+			Review review = new Review();
+			review.setId(String.valueOf(i));
+			review.setRating(i % 5 + 1);
+			review.setDate(i % 6 == 0 ? "15.01.2024" : "2024-01-" + (10 + i));
+			review.setAuthor("author " + i % 3);
+			review.setComment(i % 2 == 0 ? "Смачне " + i : null);
+			review.setBeerId(String.valueOf(i % 4));
+			services.reviews().addReview(review);
+		}
+	}
+
+	@ParameterizedTest
+	@EnumSource(StoreLayout.class)
+	void restoredStoresMatchTheWrittenOnes(StoreLayout layout) throws IOException {
+		Services before = services(layout);
+		populate(before);
+		Path file = dir.resolve("stores.snapshot");
+		before.snapshots().write(file);
+
+		Services after = services(layout);
+		after.snapshots().restore(file);
+
+		assertThat(after.beers().getAllBeers()).usingRecursiveFieldByFieldElementComparator()
+				.containsExactlyInAnyOrderElementsOf(before.beers().getAllBeers());
+		assertThat(after.reviews().getAllReviews()).usingRecursiveFieldByFieldElementComparator()
+				.containsExactlyInAnyOrderElementsOf(before.reviews().getAllReviews());
+		assertThat(after.breweries().getAllBreweries()).usingRecursiveFieldByFieldElementComparator()
+				.containsExactlyInAnyOrderElementsOf(before.breweries().getAllBreweries());
+
+		BeerFilter stouts = new BeerFilter("stout", 4.0f, null, null, null, null);
+		assertThat(after.beers().findBeers(stouts, null, BeerSort.ABV_DESC)).extracting(Beer::getId)
+				.containsExactlyElementsOf(before.beers().findBeers(stouts, null, BeerSort.ABV_DESC).stream().map(Beer::getId).toList());
+		ReviewFilter january = new ReviewFilter("1", 2, null, "2024-01-01", "2024-01-31");
+		assertThat(after.reviews().findReviews(january, ReviewSort.DATE_DESC)).extracting(Review::getId)
+				.containsExactlyElementsOf(before.reviews().findReviews(january, ReviewSort.DATE_DESC).stream().map(Review::getId).toList());
+		assertThat(after.breweries().getBreweryIdsByLocation("Львів")).isEqualTo(before.breweries().getBreweryIdsByLocation("Львів"));
+		assertThat(after.beers().getBeersPage("3", 4).items()).extracting(Beer::getId).containsExactly("4", "5", "6", "7");
+	}
+
+	@Test
+	void restoredRowsCanBeReplacedAndRemoved() throws IOException {
+		Services written = services(StoreLayout.COMPACT);
+		populate(written);
+		Path file = dir.resolve("stores.snapshot");
+		written.snapshots().write(file);
+		Services restored = services(StoreLayout.COMPACT);
+		restored.snapshots().restore(file);
+		BeerService beers = restored.beers();
+
+		Beer moved = beers.getBeerById("2");
+		moved.setBreweryId("1");
+		beers.addBeer(moved);
+		beers.removeBeer("1");
+
+		assertThat(beers.getBeersByBreweryId("1")).extracting(Beer::getId).containsExactly("2");
+		assertThat(beers.getBeersByBreweryId("2")).isEmpty();
+		assertThat(beers.getBeerCount()).isEqualTo(11);
+	}
+
+	@Test
+	void projectedReadsOfRestoredRowsSkipOmittedFields() throws IOException {
+		Services written = services(StoreLayout.COMPACT);
+		populate(written);
+		Path file = dir.resolve("stores.snapshot");
+		written.snapshots().write(file);
+		Services restored = services(StoreLayout.COMPACT);
+		restored.snapshots().restore(file);
+
+		List<Review> projected = restored.reviews().getReviewsByBeerId("2", Projection.omitting("comment"));
+		assertThat(projected).extracting(Review::getComment).containsOnlyNulls();
+		assertThat(projected).usingRecursiveFieldByFieldElementComparatorIgnoringFields("comment")
+				.containsExactlyElementsOf(written.reviews().getReviewsByBeerId("2"));
+		assertThat(restored.reviews().getReviewsByBeerId("2")).extracting(Review::getComment)
+				.containsExactly("Смачне 2", "Смачне 6", "Смачне 10");
+
+		List<Beer> beers = restored.beers().getBeersByBreweryId("4", Projection.omitting("reviewIds", "description"));
+		assertThat(beers).singleElement().satisfies(beer -> {
+			assertThat(beer.getReviewIds()).isNull();
+			assertThat(beer.getBreweryId()).isEqualTo("4");
+			assertThat(beer.getIbu()).isEqualTo(40);
+		});
+	}
+
+	@Test
+	void damagedSnapshotsAreRejected() throws IOException {
+		Services written = services(StoreLayout.OBJECTS);
+		populate(written);
+		Path file = dir.resolve("stores.snapshot");
+		written.snapshots().write(file);
+		byte[] bytes = Files.readAllBytes(file);
+		Files.write(file, Arrays.copyOf(bytes, bytes.length - 3));
+
+		Services restored = services(StoreLayout.OBJECTS);
+		assertThatThrownBy(() -> restored.snapshots().restore(file)).isInstanceOf(IOException.class);
+		assertThat(restored.beers().getBeerCount()).isZero();
+	}
+}
@@ -0,0 +1,50 @@
+package com.example.brewery_api.store;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class EntityStoreTest {
+
+	record Row(String id, String parentId) {
+	}
+
+	@Test
+	void concurrentMovesLeaveEachRowInExactlyOneBucket() throws InterruptedException {
+		EntityStore<Row> store = new EntityStore<>(Row::id, 8);
+		ForeignKeyIndex<Row> byParent = store.addIndex(Row::parentId);
+
+		ExecutorService pool = Executors.newFixedThreadPool(8);
+		for (int t = 0; t < 8; t++) {
+			int seed = t;
+			pool.execute(() -> {
+				for (int i = 0; i < 5_000; i++) {
+					String id = Integer.toString((i * 31 + seed) % 200);
+					store.put(new Row(id, "p" + ((i + seed) % 5)));
+				}
+			});
+		}
+		pool.shutdown();
+		assertThat(pool.awaitTermination(30, TimeUnit.SECONDS)).isTrue();
+
+		int indexed = 0;
+		for (int p = 0; p < 5; p++) {
+			for (Row row : byParent.get("p" + p)) {
+				assertThat(store.get(row.id())).isEqualTo(row);
+				indexed++;
+			}
+		}
+		assertThat(indexed).isEqualTo(store.size());
+	}
+
+	@Test
+	void numericIdsSortByValue() {
+		assertThat(EntityIds.compare("2", "10")).isNegative();
+		assertThat(EntityIds.compare("7", "007")).isNotZero();
+		assertThat(EntityIds.compare("10", "a")).isNegative();
+	}
+}
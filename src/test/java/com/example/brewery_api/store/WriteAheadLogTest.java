@@ -0,0 +1,41 @@
+package com.example.brewery_api.store;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.nio.file.Path;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class WriteAheadLogTest {
+
+	@TempDir
+	Path dir;
+
+	@Test
+	void writersContinueOffTheCommitterThread() throws Exception {
+		try (WriteAheadLog log = new WriteAheadLog(dir.resolve("brewery.wal"), true, 64)) {
+			CountDownLatch release = new CountDownLatch(1);
+			// holds the committer so the continuation is attached before the write completes
+			log.barrier(() -> {
+				try {
+					release.await(5, TimeUnit.SECONDS);
+				} catch (InterruptedException e) {
+					Thread.currentThread().interrupt();
+				}
+			});
+			CompletableFuture<String> applied = new CompletableFuture<>();
+			CompletableFuture<String> continued = log.append(out -> out.writeString("record"), () -> {
+				applied.complete(Thread.currentThread().getName());
+				return "applied";
+			}).thenApply(result -> Thread.currentThread().getName());
+			release.countDown();
+
+			assertThat(applied.get(5, TimeUnit.SECONDS)).isEqualTo("wal-committer");
+			assertThat(continued.get(5, TimeUnit.SECONDS)).startsWith("wal-completion-");
+		}
+	}
+}
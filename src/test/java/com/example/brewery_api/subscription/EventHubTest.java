@@ -0,0 +1,108 @@
+package com.example.brewery_api.subscription;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.reactivestreams.Subscription;
+import reactor.core.publisher.BaseSubscriber;
+import reactor.core.scheduler.Scheduler;
+import reactor.core.scheduler.Schedulers;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.awaitility.Awaitility.await;
+
+class EventHubTest {
+
+	private final Scheduler dispatcher = Schedulers.newSingle("test-dispatch");
+	private final SimpleMeterRegistry registry = new SimpleMeterRegistry();
+
+	@AfterEach
+	void tearDown() {
+		dispatcher.dispose();
+	}
+
+	private static final class Recorder extends BaseSubscriber<Integer> {
+		final List<Integer> received = new CopyOnWriteArrayList<>();
+		volatile Throwable error;
+		private final long initialDemand;
+
+		Recorder(long initialDemand) {
+			this.initialDemand = initialDemand;
+		}
+
+		@Override
+		protected void hookOnSubscribe(Subscription subscription) {
+			if (initialDemand > 0) {
+				request(initialDemand);
+			}
+		}
+
+		@Override
+		protected void hookOnNext(Integer value) {
+			received.add(value);
+		}
+
+		@Override
+		protected void hookOnError(Throwable throwable) {
+			error = throwable;
+		}
+	}
+
+	private EventHub<Integer> hub(OverflowPolicy policy) {
+		return new EventHub<>("test", value -> value % 2 == 0 ? "even" : "odd", 64, policy,
+				dispatcher, Schedulers.boundedElastic(), registry);
+	}
+
+	// publishes in steps the fast subscriber keeps up with, so only the stalled one overflows
+	private static void publish(EventHub<Integer> hub, Recorder fast, int count) {
+		for (int i = 1; i <= count; i++) {
+			hub.publish(i);
+			if (i % 40 == 0) {
+				int published = i;
+				await().atMost(Duration.ofSeconds(5)).until(() -> fast.received.size() == published);
+			}
+		}
+		await().atMost(Duration.ofSeconds(5)).until(() -> fast.received.size() == count);
+	}
+
+	@Test
+	void slowSubscribersLoseOnlyTheirOwnEvents() {
+		EventHub<Integer> hub = hub(OverflowPolicy.DROP_OLDEST);
+		Recorder fast = new Recorder(Long.MAX_VALUE);
+		Recorder slow = new Recorder(0);
+		Recorder odd = new Recorder(Long.MAX_VALUE);
+		hub.subscribe(null).subscribe(fast);
+		hub.subscribe(null).subscribe(slow);
+		hub.subscribe("odd").subscribe(odd);
+		await().atMost(Duration.ofSeconds(5)).until(() -> hub.subscriberCount() == 3);
+
+		publish(hub, fast, 200);
+		slow.request(Long.MAX_VALUE);
+
+		// 32 events sit in the delivery queue and the buffer keeps the newest 64
+		await().atMost(Duration.ofSeconds(5)).until(() -> slow.received.contains(200));
+		assertThat(slow.received).hasSize(96).startsWith(1, 2, 3).contains(32, 137, 200).doesNotContain(33, 136);
+		assertThat(odd.received).hasSize(100).allMatch(value -> value % 2 == 1);
+		assertThat(registry.counter("graphql.subscription.dropped", "subscription", "test").count()).isEqualTo(104);
+	}
+
+	@Test
+	void errorPolicyEndsOnlyTheOverflowingSubscription() {
+		EventHub<Integer> hub = hub(OverflowPolicy.ERROR);
+		Recorder fast = new Recorder(Long.MAX_VALUE);
+		Recorder slow = new Recorder(0);
+		hub.subscribe(null).subscribe(fast);
+		hub.subscribe(null).subscribe(slow);
+		await().atMost(Duration.ofSeconds(5)).until(() -> hub.subscriberCount() == 2);
+
+		publish(hub, fast, 120);
+		slow.request(Long.MAX_VALUE);
+		await().atMost(Duration.ofSeconds(5)).until(() -> slow.error != null);
+		assertThat(fast.error).isNull();
+		await().atMost(Duration.ofSeconds(5)).until(() -> hub.subscriberCount() == 1);
+	}
+}